@@ -1,12 +1,20 @@
 package com.retailstore.feedback;
 
+import com.retailstore.feedback.service.ingest.BulkImportRunner;
 import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 
 @SpringBootApplication
 public class FeedbackServiceApplication {
 
 	public static void main(String[] args) {
-		SpringApplication.run(FeedbackServiceApplication.class, args);
+		SpringApplication application = new SpringApplication(FeedbackServiceApplication.class);
+		if (BulkImportRunner.isImportRun(args)) {
+			// Offline import: no web server, exit once the file is processed
+			application.setWebApplicationType(WebApplicationType.NONE);
+			System.exit(SpringApplication.exit(application.run(args)));
+		}
+		application.run(args);
 	}
 }
@@ -0,0 +1,32 @@
+package com.retailstore.feedback.config;
+
+import com.retailstore.feedback.service.admission.AdmissionControl;
+import com.retailstore.feedback.service.admission.AdmissionInterceptor;
+import com.retailstore.feedback.service.admission.IngestEndpoint;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+@RequiredArgsConstructor
+public class AdmissionConfig implements WebMvcConfigurer {
+
+    private final AdmissionControl admissionControl;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new AdmissionInterceptor(admissionControl, IngestEndpoint.RAW, "/submit?error=busy"))
+                .addPathPatterns("/api/v1/feedback/raw");
+        registry.addInterceptor(new AdmissionInterceptor(admissionControl, IngestEndpoint.RAW, null))
+                .addPathPatterns("/api/v1/feedback/raw/api");
+        registry.addInterceptor(new AdmissionInterceptor(admissionControl, IngestEndpoint.RAW_ASYNC, null))
+                .addPathPatterns("/api/v1/feedback/raw/async");
+        registry.addInterceptor(new AdmissionInterceptor(admissionControl, IngestEndpoint.BATCH, null))
+                .addPathPatterns("/api/v1/feedback/batch");
+        registry.addInterceptor(new AdmissionInterceptor(admissionControl, IngestEndpoint.BATCH_ASYNC, null))
+                .addPathPatterns("/api/v1/feedback/batch/async");
+        registry.addInterceptor(new AdmissionInterceptor(admissionControl, IngestEndpoint.BATCH_STREAM, null))
+                .addPathPatterns("/api/v1/feedback/batch/stream");
+    }
+}
@@ -1,30 +1,168 @@
 package com.retailstore.feedback.config;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 import java.util.concurrent.Executor;
-import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Three bulkheaded executors, so a Gemini slowdown cannot starve CoreNLP and a
+ * slow disk cannot hold Gemini calls:
+ * <ul>
+ *   <li>{@code cpuExecutor}: sentiment analysis and validation, always platform threads</li>
+ *   <li>{@code aiExecutor}: Gemini calls from the pipeline and cache rebuild lanes</li>
+ *   <li>{@code storageExecutor}: repository writes and cache refresh coordination</li>
+ * </ul>
+ * Each exports {@code executor.active}, {@code executor.completed} and
+ * {@code executor.rejected} tagged with its bean name; platform pools add
+ * {@code executor.queued}. A full pool rejects the task and the submitter
+ * decides what to drop; nothing runs on, or blocks, the submitting thread.
+ */
 @Configuration
 @EnableAsync
 public class AsyncConfig {
-    
-    @Bean(name = "feedbackExecutor")
-    public Executor feedbackExecutor() {
+
+    @Bean(name = "cpuExecutor")
+    public Executor cpuExecutor(FeedbackConfig feedbackConfig, MeterRegistry meterRegistry) {
+        return platformExecutor("cpuExecutor", "feedback-cpu-", feedbackConfig.getExecutors().getCpu(), meterRegistry);
+    }
+
+    @Bean(name = "aiExecutor")
+    public Executor aiExecutor(FeedbackConfig feedbackConfig, MeterRegistry meterRegistry) {
+        return ioExecutor("aiExecutor", "feedback-ai-", feedbackConfig, feedbackConfig.getExecutors().getAi(),
+                meterRegistry);
+    }
+
+    @Bean(name = "storageExecutor")
+    public Executor storageExecutor(FeedbackConfig feedbackConfig, MeterRegistry meterRegistry) {
+        return ioExecutor("storageExecutor", "feedback-storage-", feedbackConfig,
+                feedbackConfig.getExecutors().getStorage(), meterRegistry);
+    }
+
+    /**
+     * In virtual mode every task gets its own virtual thread and the pool size
+     * is the concurrency limit. There is no queue: a task beyond the limit is
+     * rejected, as it would be by a full platform pool.
+     */
+    private static Executor ioExecutor(String name, String threadPrefix, FeedbackConfig feedbackConfig,
+                                       FeedbackConfig.Pool pool, MeterRegistry meterRegistry) {
+        if (feedbackConfig.getExecution().getMode() != FeedbackConfig.ExecutionMode.VIRTUAL) {
+            return platformExecutor(name, threadPrefix, pool, meterRegistry);
+        }
+
+        AtomicInteger active = new AtomicInteger();
+        AtomicLong completed = new AtomicLong();
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor(threadPrefix);
+        executor.setVirtualThreads(true);
+        executor.setTaskTerminationTimeout(60_000);
+        executor.setTaskDecorator(task -> () -> {
+            active.incrementAndGet();
+            try {
+                task.run();
+            } finally {
+                active.decrementAndGet();
+                completed.incrementAndGet();
+            }
+        });
+
+        Gauge.builder("executor.active", active, AtomicInteger::get)
+                .description("Tasks currently running")
+                .tag("name", name)
+                .register(meterRegistry);
+        FunctionCounter.builder("executor.completed", completed, AtomicLong::get)
+                .description("Tasks that have finished running")
+                .tag("name", name)
+                .register(meterRegistry);
+        return new BoundedVirtualExecutor(name, executor, Math.max(1, pool.getSize()),
+                rejectedCounter(name, meterRegistry));
+    }
+
+    private static ThreadPoolTaskExecutor platformExecutor(String name, String threadPrefix, FeedbackConfig.Pool pool,
+                                                           MeterRegistry meterRegistry) {
+        Counter rejected = rejectedCounter(name, meterRegistry);
+
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
-        
-        executor.setCorePoolSize(5);
-        executor.setMaxPoolSize(10);
-        executor.setQueueCapacity(100);
-        executor.setThreadNamePrefix("feedback-async-");
-        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setCorePoolSize(Math.max(1, pool.getSize()));
+        executor.setMaxPoolSize(Math.max(1, pool.getSize()));
+        executor.setQueueCapacity(pool.getQueueCapacity());
+        executor.setThreadNamePrefix(threadPrefix);
+        executor.setRejectedExecutionHandler((task, threadPool) -> {
+            rejected.increment();
+            throw new RejectedExecutionException("Executor " + name + " is saturated");
+        });
         executor.setWaitForTasksToCompleteOnShutdown(true);
         executor.setAwaitTerminationSeconds(60);
-        
+
         executor.initialize();
+        new ExecutorServiceMetrics(executor.getThreadPoolExecutor(), name, Tags.empty()).bindTo(meterRegistry);
         return executor;
     }
+
+    private static Counter rejectedCounter(String name, MeterRegistry meterRegistry) {
+        return Counter.builder("executor.rejected")
+                .description("Tasks refused because the executor was saturated")
+                .tag("name", name)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Caps a virtual-thread executor without blocking the submitter.
+     * {@link SimpleAsyncTaskExecutor#setConcurrencyLimit} makes callers wait
+     * for a slot, which deadlocks a task that submits to its own executor
+     * while every slot is taken; here the caller gets a
+     * {@link TaskRejectedException} instead.
+     */
+    private static final class BoundedVirtualExecutor implements Executor, AutoCloseable {
+
+        private final String name;
+        private final SimpleAsyncTaskExecutor delegate;
+        private final Semaphore permits;
+        private final Counter rejected;
+
+        BoundedVirtualExecutor(String name, SimpleAsyncTaskExecutor delegate, int limit, Counter rejected) {
+            this.name = name;
+            this.delegate = delegate;
+            this.permits = new Semaphore(limit);
+            this.rejected = rejected;
+        }
+
+        @Override
+        public void execute(Runnable task) {
+            if (!permits.tryAcquire()) {
+                rejected.increment();
+                throw new TaskRejectedException("Executor " + name + " is saturated");
+            }
+            try {
+                delegate.execute(() -> {
+                    try {
+                        task.run();
+                    } finally {
+                        permits.release();
+                    }
+                });
+            } catch (RuntimeException e) {
+                permits.release();
+                throw e;
+            }
+        }
+
+        @Override
+        public void close() {
+            delegate.close();
+        }
+    }
 }
@@ -0,0 +1,252 @@
+package com.retailstore.feedback.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Duration;
+import java.util.List;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "feedback")
+public class FeedbackConfig {
+    private Cache cache = new Cache();
+    private Trends trends = new Trends();
+    private Sketches sketches = new Sketches();
+    private Batch batch = new Batch();
+    private Pipeline pipeline = new Pipeline();
+    private Execution execution = new Execution();
+    private ExecutorPools executors = new ExecutorPools();
+    private Ingest ingest = new Ingest();
+    private BulkImport bulkImport = new BulkImport();
+    private Queue queue = new Queue();
+    private Admission admission = new Admission();
+    private Idempotency idempotency = new Idempotency();
+    private Search search = new Search();
+    private Dedup dedup = new Dedup();
+    private Metrics metrics = new Metrics();
+
+    @Data
+    public static class Cache {
+        private int rebuildConcurrency = 4;
+        private Duration maxStaleness = Duration.ofMinutes(5);
+        private Duration partialPublishInterval = Duration.ofSeconds(1);
+        /**
+         * Minimum age of a failed enhancement before a revalidation retries it,
+         * and how long reads wait after a failed refresh before starting another.
+         */
+        private Duration errorRetryInterval = Duration.ofMinutes(1);
+    }
+
+    @Data
+    public static class Trends {
+        private Duration hourRetention = Duration.ofHours(48);
+        private Duration dayRetention = Duration.ofDays(90);
+        private Duration weekRetention = Duration.ofDays(3 * 365);
+    }
+
+    @Data
+    public static class Sketches {
+        private int retentionDays = 90;
+        private int hllPrecision = 12;
+        private int cmsWidth = 2048;
+        private int cmsDepth = 5;
+        private int topTerms = 10;
+    }
+
+    @Data
+    public static class Batch {
+        private int maxJobs = 500;
+        private String journalPath = "data/batch-jobs.jsonl";
+        /** Minimum gap between two SSE pushes to one subscriber. */
+        private Duration eventInterval = Duration.ofMillis(250);
+        /** Item results buffered per subscriber between pushes; the rest are counted as dropped. */
+        private int eventMaxItems = 200;
+        private Duration eventTimeout = Duration.ofMinutes(30);
+    }
+
+    @Data
+    public static class Pipeline {
+        private Stage validate = new Stage(1, 1000);
+        private Stage sentiment = new Stage(Runtime.getRuntime().availableProcessors(), 256);
+        private Stage enhance = new Stage(8, 256);
+        private Stage persist = new Stage(1, 256);
+        /** Upper bound on entries written by one repository call. */
+        private int persistBatchSize = 50;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Stage {
+        private int concurrency;
+        private int queueCapacity;
+    }
+
+    @Data
+    public static class Ingest {
+        /** Records of one NDJSON upload that may be in the pipeline at once. */
+        private int maxInFlight = 64;
+        private int maxLineLength = 16 * 1024;
+    }
+
+    /**
+     * Offline import mode, active when {@code file} is set. Pipeline stage
+     * settings apply as usual.
+     */
+    @Data
+    public static class BulkImport {
+        private String file;
+        /** {@code jsonl} or {@code csv}; derived from the file extension when unset. */
+        private String format;
+        /** Defaults to the input file name plus {@code .checkpoint}. */
+        private String checkpointPath;
+        private Duration checkpointInterval = Duration.ofSeconds(1);
+        private int maxInFlight = 512;
+        /** Re-run sentiment analysis even for records that already carry a sentiment. */
+        private boolean reanalyzeSentiment = false;
+    }
+
+    /** Durable queue between accepting an async submission and processing it. */
+    @Data
+    public static class Queue {
+        /** Directory holding the log segments and the consumer offset. */
+        private String path = "data/ingest-queue";
+        /** Accepted submissions not yet persisted; further submissions are rejected. */
+        private int capacity = 10_000;
+        private long segmentBytes = 16L * 1024 * 1024;
+        /**
+         * Force every append to the device. Without it an accepted submission
+         * survives a JVM crash but not a power loss.
+         */
+        private boolean fsync = false;
+        /** Records handed to the pipeline and not yet persisted. */
+        private int maxInFlight = 64;
+        /** Processing attempts per record before it is dropped. */
+        private int maxAttempts = 3;
+        private Duration retryBackoff = Duration.ofSeconds(1);
+        /** How often the consumer offset is saved; records after it are replayed on startup. */
+        private Duration commitInterval = Duration.ofSeconds(1);
+    }
+
+    /**
+     * Load shedding at the ingestion endpoints. A request is refused with 429
+     * when its endpoint is at {@code max-concurrent}, and with 503 when the
+     * estimated pipeline wait exceeds {@code max-queue-wait}.
+     */
+    @Data
+    public static class Admission {
+        private boolean enabled = true;
+        /** How often the pipeline's completion rate is sampled for the wait estimate. */
+        private Duration rateSampleInterval = Duration.ofSeconds(1);
+        /** {@code /raw} (form) and {@code /raw/api}. */
+        private EndpointLimit raw = new EndpointLimit(32, Duration.ofSeconds(10));
+        /** {@code /raw/async}; its wait includes the durable queue backlog. */
+        private EndpointLimit rawAsync = new EndpointLimit(64, Duration.ofMinutes(5));
+        private EndpointLimit batch = new EndpointLimit(4, Duration.ofSeconds(30));
+        private EndpointLimit batchAsync = new EndpointLimit(8, Duration.ofMinutes(5));
+        private EndpointLimit batchStream = new EndpointLimit(2, Duration.ofMinutes(1));
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class EndpointLimit {
+        private int maxConcurrent;
+        private Duration maxQueueWait;
+    }
+
+    /** Results remembered per {@code Idempotency-Key} header. */
+    @Data
+    public static class Idempotency {
+        private int maxEntries = 10_000;
+        private Duration ttl = Duration.ofHours(24);
+        /** How long a duplicate waits for the first request with its key before getting 409. */
+        private Duration waitTimeout = Duration.ofSeconds(60);
+    }
+
+    /** Full-text index over comments, saved to disk so a restart does not rebuild it. */
+    @Data
+    public static class Search {
+        private String path = "data/search-index.bin";
+        /** How often a changed index is written out; it is also saved on shutdown. */
+        private Duration saveInterval = Duration.ofSeconds(30);
+    }
+
+    /**
+     * Reuse of an earlier enhancement for a near-identical comment in the
+     * same department and sentiment, instead of another Gemini call.
+     */
+    @Data
+    public static class Dedup {
+        private boolean enabled = true;
+        /**
+         * Estimated Jaccard similarity of the comments' character shingles at
+         * or above which an enhancement is reused. Candidate lookup is tuned
+         * for values of 0.65 and above.
+         */
+        private double similarityThreshold = 0.75;
+        /** Enhancements remembered for reuse; the oldest are forgotten first. */
+        private int maxEntries = 50_000;
+    }
+
+    public enum MetricsMode {
+        DETAILED,
+        LOW_OVERHEAD
+    }
+
+    /** Latency instrumentation of the request path. */
+    @Data
+    public static class Metrics {
+        /**
+         * {@code detailed} publishes percentile histograms with SLO buckets and
+         * times every stage. {@code low-overhead} publishes count, total and
+         * max only, and skips the fine-grained stages.
+         */
+        private MetricsMode mode = MetricsMode.DETAILED;
+        /** Bucket boundaries published with each latency histogram, so SLO compliance can be read off directly. */
+        private List<Duration> slo = List.of(Duration.ofMillis(10), Duration.ofMillis(50), Duration.ofMillis(100),
+                Duration.ofMillis(250), Duration.ofMillis(500), Duration.ofSeconds(1), Duration.ofMillis(2500),
+                Duration.ofSeconds(5), Duration.ofSeconds(10));
+    }
+
+    public enum ExecutionMode {
+        PLATFORM,
+        VIRTUAL
+    }
+
+    @Data
+    public static class Execution {
+        /**
+         * Threads for blocking I/O: the ai and storage executors. In virtual
+         * mode their {@code size} is the number of tasks each runs at once.
+         * CoreNLP work always stays on the platform threads of the cpu executor.
+         */
+        private ExecutionMode mode = ExecutionMode.PLATFORM;
+    }
+
+    /**
+     * Bulkheaded pools: CPU-bound NLP, outbound AI calls and storage I/O never
+     * wait on each other's threads. A full pool rejects new tasks. A cache
+     * rebuild holds one ai task per lane, so keep {@code ai.size} above
+     * {@code feedback.cache.rebuild-concurrency}.
+     */
+    @Data
+    public static class ExecutorPools {
+        private Pool cpu = new Pool(Runtime.getRuntime().availableProcessors(), 1000);
+        private Pool ai = new Pool(32, 1000);
+        private Pool storage = new Pool(4, 1000);
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Pool {
+        private int size;
+        private int queueCapacity;
+    }
+}
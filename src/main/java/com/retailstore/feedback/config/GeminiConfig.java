@@ -11,10 +11,16 @@ import lombok.Data;
 public class GeminiConfig {
     private String apiKey;
     private Api api = new Api();
-    
+    private Prompt prompt = new Prompt();
+
     @Data
     public static class Api {
         private String url;
         private int timeout = 30;
     }
+
+    @Data
+    public static class Prompt {
+        private String enhancementVersion = "v2";
+    }
 }
@@ -1,14 +1,29 @@
 package com.retailstore.feedback.config;
 
 import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Meter;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.time.Duration;
+import java.util.Set;
+
 @Configuration
 public class MetricsConfig {
-    
+
+    /** Timers on the request path that get histograms; queue waits and the like stay summaries. */
+    static final Set<String> LATENCY_TIMERS = Set.of(
+            "http.server.requests",
+            "feedback.stage.duration",
+            "feedback.pipeline.duration",
+            "feedback.pipeline.stage.duration",
+            "ai.enhancement.duration",
+            "ai.prompt.duration");
+
     @Bean
     public Counter feedbackProcessedCounter(MeterRegistry meterRegistry) {
         return Counter.builder("feedback.processed")
@@ -36,4 +51,42 @@ public class MetricsConfig {
             .description("Number of sentiment analysis operations")
             .register(meterRegistry);
     }
+
+    /**
+     * Detailed mode gives latency timers a percentile histogram plus the
+     * {@code feedback.metrics.slo} buckets, so quantiles can be aggregated
+     * across instances. Low-overhead mode publishes only count, total and max,
+     * which also overrides client-side percentiles set in code.
+     */
+    @Bean
+    public MeterFilter latencyDistributions(FeedbackConfig feedbackConfig) {
+        FeedbackConfig.Metrics metrics = feedbackConfig.getMetrics();
+        DistributionStatisticConfig latency;
+        if (metrics.getMode() == FeedbackConfig.MetricsMode.LOW_OVERHEAD) {
+            latency = DistributionStatisticConfig.builder()
+                    .percentilesHistogram(false)
+                    .percentiles()
+                    .serviceLevelObjectives()
+                    .build();
+        } else {
+            latency = DistributionStatisticConfig.builder()
+                    .percentilesHistogram(true)
+                    .serviceLevelObjectives(metrics.getSlo().stream()
+                            .mapToDouble(slo -> (double) slo.toNanos())
+                            .toArray())
+                    .minimumExpectedValue((double) Duration.ofMillis(1).toNanos())
+                    .maximumExpectedValue((double) Duration.ofSeconds(30).toNanos())
+                    .build();
+        }
+
+        return new MeterFilter() {
+            @Override
+            public DistributionStatisticConfig configure(Meter.Id id, DistributionStatisticConfig config) {
+                if (id.getType() != Meter.Type.TIMER || !LATENCY_TIMERS.contains(id.getName())) {
+                    return config;
+                }
+                return latency.merge(config);
+            }
+        };
+    }
 }
@@ -1,22 +1,38 @@
 package com.retailstore.feedback.controller;
 
+import com.retailstore.feedback.exception.BatchJobNotFoundException;
+import com.retailstore.feedback.exception.PipelineSaturatedException;
 import com.retailstore.feedback.mapper.FeedbackMapper;
 import com.retailstore.feedback.model.FeedbackEntry;
+import com.retailstore.feedback.model.dto.BatchJobResponse;
 import com.retailstore.feedback.model.dto.FeedbackRequest;
-import com.retailstore.feedback.service.SentimentAnalysisService;
+import com.retailstore.feedback.service.FeedbackIdGenerator;
+import com.retailstore.feedback.service.admission.AdmissionControl;
 import com.retailstore.feedback.service.async.AsyncFeedbackProcessor;
+import com.retailstore.feedback.service.batch.BatchEventStream;
+import com.retailstore.feedback.service.batch.BatchJob;
+import com.retailstore.feedback.service.batch.BatchJobRegistry;
+import com.retailstore.feedback.service.batch.BatchJobService;
+import com.retailstore.feedback.service.idempotency.IdempotencyStore;
+import com.retailstore.feedback.service.ingest.NdjsonIngestService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.atomic.AtomicInteger;
 
 @RestController
 @RequestMapping("/api/v1/feedback/batch")
@@ -24,11 +40,23 @@ import java.util.concurrent.atomic.AtomicInteger;
 @RequiredArgsConstructor
 public class BatchFeedbackController {
     
-    private final SentimentAnalysisService sentimentAnalysisService;
+    private final FeedbackIdGenerator feedbackIdGenerator;
     private final AsyncFeedbackProcessor asyncFeedbackProcessor;
+    private final BatchJobService batchJobService;
+    private final BatchJobRegistry batchJobRegistry;
+    private final NdjsonIngestService ndjsonIngestService;
+    private final BatchEventStream batchEventStream;
+    private final AdmissionControl admissionControl;
+    private final IdempotencyStore idempotencyStore;
     
     @PostMapping
-    public ResponseEntity<BatchProcessingResponse> processBatch(@Valid @RequestBody List<FeedbackRequest> requests) {
+    public ResponseEntity<BatchProcessingResponse> processBatch(@Valid @RequestBody List<FeedbackRequest> requests,
+                                                                @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey) {
+        return idempotencyStore.execute("batch", idempotencyKey, requests, IdempotencyStore::isStorable,
+                () -> processBatchOnce(requests));
+    }
+    
+    private ResponseEntity<BatchProcessingResponse> processBatchOnce(List<FeedbackRequest> requests) {
         try {
             if (requests.isEmpty()) {
                 return ResponseEntity.badRequest().build();
@@ -36,32 +64,11 @@ public class BatchFeedbackController {
             
             List<FeedbackEntry> entries = new ArrayList<>();
             for (FeedbackRequest request : requests) {
-                FeedbackEntry entry = createFeedbackEntry(request);
-                
-                try {
-                    String sentiment = sentimentAnalysisService.analyzeSentiment(entry.getComment());
-                    entry.setSentiment(sentiment);
-                } catch (Exception e) {
-                    log.warn("Failed sentiment analysis for entry, using NEUTRAL: {}", e.getMessage());
-                    entry.setSentiment("NEUTRAL");
-                }
-                
-                entries.add(entry);
+                entries.add(createFeedbackEntry(request));
             }
             
-            AtomicInteger progressCounter = new AtomicInteger(0);
-            
             CompletableFuture<AsyncFeedbackProcessor.BatchProcessingResult> resultFuture = 
-                asyncFeedbackProcessor.processBatchAsync(entries, new AsyncFeedbackProcessor.ProgressCallback() {
-                    @Override
-                    public void onProgress(int processed, int total, double percentage) {
-                        progressCounter.set(processed);
-                    }
-                    
-                    @Override
-                    public void onComplete(AsyncFeedbackProcessor.BatchProcessingResult result) {
-                    }
-                });
+                asyncFeedbackProcessor.processBatchAsync(entries, null);
             
             AsyncFeedbackProcessor.BatchProcessingResult result = resultFuture.join();
             
@@ -74,6 +81,16 @@ public class BatchFeedbackController {
             
             return ResponseEntity.status(HttpStatus.CREATED).body(response);
             
+        } catch (PipelineSaturatedException e) {
+            log.warn("Rejected batch of {} entries: {}", requests.size(), e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, Long.toString(admissionControl.retryAfterSeconds()))
+                    .build();
+            
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid batch request: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+            
         } catch (Exception e) {
             log.error("Error in batch processing: {}", e.getMessage(), e);
             
@@ -87,48 +104,88 @@ public class BatchFeedbackController {
     }
     
     @PostMapping("/async")
-    public ResponseEntity<AsyncBatchResponse> processBatchAsync(@Valid @RequestBody List<FeedbackRequest> requests) {
+    public ResponseEntity<AsyncBatchResponse> processBatchAsync(@Valid @RequestBody List<FeedbackRequest> requests,
+                                                                @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey) {
+        return idempotencyStore.execute("batch-async", idempotencyKey, requests, IdempotencyStore::isStorable,
+                () -> processBatchAsyncOnce(requests));
+    }
+    
+    private ResponseEntity<AsyncBatchResponse> processBatchAsyncOnce(List<FeedbackRequest> requests) {
         try {
             if (requests.isEmpty()) {
                 return ResponseEntity.badRequest().build();
             }
             
-            String batchId = "BATCH-" + System.currentTimeMillis();
-            
-            CompletableFuture.runAsync(() -> {
-                try {
-                    List<FeedbackEntry> entries = new ArrayList<>();
-                    for (FeedbackRequest request : requests) {
-                        FeedbackEntry entry = createFeedbackEntry(request);
-                        String sentiment = sentimentAnalysisService.analyzeSentiment(entry.getComment());
-                        entry.setSentiment(sentiment);
-                        entries.add(entry);
-                    }
-                    
-                    asyncFeedbackProcessor.processBatchAsync(entries, null).join();
-                    
-                } catch (Exception e) {
-                    log.error("Error in async batch processing for batch ID {}: {}", batchId, e.getMessage(), e);
-                }
-            });
+            List<FeedbackEntry> entries = new ArrayList<>();
+            for (FeedbackRequest request : requests) {
+                entries.add(createFeedbackEntry(request));
+            }
+            
+            BatchJob job = batchJobService.submit(entries);
+            String batchId = job.getId();
             
             AsyncBatchResponse response = new AsyncBatchResponse();
             response.setBatchId(batchId);
             response.setTotalSubmitted(requests.size());
             response.setStatus("PROCESSING");
-            response.setMessage("Batch submitted successfully and is being processed");
+            response.setMessage("Batch submitted successfully; poll GET /api/v1/feedback/batch/" + batchId
+                    + " or subscribe to /api/v1/feedback/batch/" + batchId + "/events for progress");
             
             return ResponseEntity.accepted().body(response);
             
+        } catch (PipelineSaturatedException e) {
+            log.warn("Rejected async batch of {} entries: {}", requests.size(), e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, Long.toString(admissionControl.retryAfterSeconds()))
+                    .build();
+            
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid batch request: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+            
         } catch (Exception e) {
             log.error("Error starting async batch processing: {}", e.getMessage(), e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
     
+    /**
+     * Ingests an NDJSON upload of any size. Records enter the pipeline as they
+     * are read and one result line per record is streamed back in input order,
+     * followed by a {@code {"summary": ...}} line. {@code Idempotency-Key}
+     * does not apply: the response is streamed, never held for replay.
+     */
+    @PostMapping(value = "/stream", consumes = MediaType.APPLICATION_NDJSON_VALUE,
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void ingestStream(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        // Written straight to the response on this thread, so long uploads are not cut off by an async timeout
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        ndjsonIngestService.ingest(request.getInputStream(), response.getOutputStream());
+    }
+    
+    @GetMapping("/{batchId}")
+    public ResponseEntity<BatchJobResponse> getBatchStatus(@PathVariable String batchId) {
+        BatchJob job = batchJobRegistry.find(batchId)
+                .orElseThrow(() -> new BatchJobNotFoundException(batchId));
+        return ResponseEntity.ok(job.toResponse());
+    }
+    
+    /**
+     * Server-Sent Events for a batch: coalesced {@code progress}, {@code items}
+     * with per-entry results, and a final {@code complete}.
+     */
+    @GetMapping(value = "/{batchId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamBatchEvents(@PathVariable String batchId) {
+        BatchJob job = batchJobRegistry.find(batchId)
+                .orElseThrow(() -> new BatchJobNotFoundException(batchId));
+        return batchEventStream.subscribe(job);
+    }
+    
     private FeedbackEntry createFeedbackEntry(FeedbackRequest request) {
         FeedbackEntry entry = new FeedbackEntry();
-        entry.setId(System.currentTimeMillis() + (long)(Math.random() * 1000));
+        entry.setId(feedbackIdGenerator.nextId());
         entry.setCustomer(request.getCustomer());
         entry.setDepartment(request.getDepartment());
         entry.setComment(request.getComment());
@@ -5,47 +5,85 @@ import com.retailstore.feedback.mapper.FeedbackMapper;
 import com.retailstore.feedback.model.EnhancedFeedback;
 import com.retailstore.feedback.model.FeedbackEntry;
 import com.retailstore.feedback.model.FeedbackSummary;
+import com.retailstore.feedback.model.dto.CacheRebuildStatus;
+import com.retailstore.feedback.model.dto.FeedbackPageResponse;
 import com.retailstore.feedback.model.dto.FeedbackRequest;
 import com.retailstore.feedback.model.dto.FeedbackResponse;
 import com.retailstore.feedback.model.dto.FeedbackSummaryDto;
+import com.retailstore.feedback.model.dto.SearchHit;
+import com.retailstore.feedback.model.dto.SearchResponse;
+import com.retailstore.feedback.model.dto.SketchSummaryDto;
+import com.retailstore.feedback.model.dto.TrendResponse;
 import com.retailstore.feedback.service.FeedbackService;
+import com.retailstore.feedback.service.export.ExportFormat;
+import com.retailstore.feedback.service.export.FeedbackExportService;
+import com.retailstore.feedback.service.metrics.StageMetrics;
+import com.retailstore.feedback.service.search.SearchIndex;
+import com.retailstore.feedback.service.view.DashboardFragmentCache;
+import com.retailstore.feedback.service.view.DataVersion;
+import com.retailstore.feedback.service.view.FeedbackQueryView;
+import com.retailstore.feedback.service.view.FeedbackSort;
+import com.retailstore.feedback.service.view.SerializedResponseCache;
+import com.retailstore.feedback.service.view.TrendGranularity;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
 
 @Controller
 @Slf4j
 @RequiredArgsConstructor
 public class FeedbackController {
+
+    static final int DEFAULT_PAGE_SIZE = 50;
+    static final int MAX_PAGE_SIZE = 500;
+    static final int DEFAULT_SEARCH_SIZE = 20;
+
+    /** Without it browsers apply heuristic freshness to Last-Modified and skip polls. */
+    private static final CacheControl REVALIDATE = CacheControl.noCache();
     
     private final FeedbackService feedbackService;
     private final FeedbackMapper feedbackMapper;
     private final EnhancedFeedbackMapper enhancedFeedbackMapper;
+    private final SerializedResponseCache responseCache;
+    private final DashboardFragmentCache dashboardFragmentCache;
+    private final FeedbackExportService feedbackExportService;
+    private final StageMetrics stageMetrics;
 
+    /**
+     * The page shell renders per request; the data-dependent fragments come
+     * from a cache keyed by data version. The full list is fetched by the
+     * page itself from {@code /api/v1/feedback}.
+     */
     @GetMapping("/")
     public String dashboard(Model model) {
-        try {
-            List<EnhancedFeedback> enhancedFeedback = feedbackService.getEnhancedFeedback();
-            FeedbackSummary summary = feedbackService.generateFeedbackSummary();
-            
-            model.addAttribute("enhancedFeedback", enhancedFeedback);
-            model.addAttribute("summary", summary);
-            
-            return "dashboard";
-        } catch (IOException e) {
-            log.error("Error loading feedback data for dashboard: {}", e.getMessage(), e);
-            model.addAttribute("error", "Error loading feedback data: " + e.getMessage());
-            return "error";
-        }
+        DataVersion.Stamp stamp = feedbackService.currentVersion();
+        model.addAttribute("fragments",
+                dashboardFragmentCache.get(stamp, feedbackService::generateFeedbackSummary));
+        
+        return "dashboard";
     }
 
     @GetMapping("/submit")
@@ -59,51 +97,281 @@ public class FeedbackController {
         return "success";
     }
 
+    /**
+     * Every entry as compact JSON, served from bytes cached per data version;
+     * {@code ?pretty} returns indented JSON built for this request only.
+     */
     @GetMapping("/api/v1/feedback")
     @ResponseBody
-    public ResponseEntity<List<FeedbackResponse>> getAllFeedback() {
-        try {
-            List<EnhancedFeedback> enhancedFeedback = feedbackService.getEnhancedFeedback();
-            List<FeedbackResponse> responses = enhancedFeedback.stream()
-                    .map(enhancedFeedbackMapper::toResponse)
-                    .collect(Collectors.toList());
-            
-            return ResponseEntity.ok(responses);
-        } catch (IOException e) {
-            log.error("Error fetching feedback: {}", e.getMessage(), e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+    public ResponseEntity<byte[]> getAllFeedback(@RequestParam(required = false) String pretty,
+                                                 WebRequest request) {
+        return cachedJson("feedback", pretty, request, () -> feedbackService.getEnhancedFeedback().stream()
+                .map(enhancedFeedbackMapper::toResponse)
+                .collect(Collectors.toList()));
+    }
+
+    /**
+     * Filtered, keyset-paginated listing. Pass the returned {@code next}
+     * cursor with the same filters and sort to get the following page.
+     */
+    @GetMapping("/api/v1/feedback/query")
+    @ResponseBody
+    public ResponseEntity<FeedbackPageResponse> queryFeedback(
+            @RequestParam(required = false) String department,
+            @RequestParam(required = false) String sentiment,
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "-date") String sort,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) int limit,
+            WebRequest request) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("'limit' must be between 1 and " + MAX_PAGE_SIZE);
         }
+        FeedbackSort order = FeedbackSort.parse(sort);
+        if (notModified(request)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(REVALIDATE).build();
+        }
+        FeedbackQueryView.Page page = feedbackService.queryFeedback(order, department, sentiment, category,
+                from, to, cursor, limit);
+
+        FeedbackPageResponse response = FeedbackPageResponse.builder()
+                .items(stageMetrics.time(StageMetrics.Stage.MAPPING, () -> page.items().stream()
+                        .map(enhancedFeedbackMapper::toResponse)
+                        .collect(Collectors.toList())))
+                .next(page.next())
+                .approximateTotal(page.approximateTotal())
+                .sort(order.parameter())
+                .build();
+        return ResponseEntity.ok().cacheControl(REVALIDATE).body(response);
     }
 
-    @GetMapping("/api/v1/feedback/summary")
+    /**
+     * Every matching entry as NDJSON or CSV, written to the response while
+     * the repository is read, so heap use stays flat for any dataset size.
+     * Gzip-encoded when the client accepts it.
+     */
+    @GetMapping("/api/v1/feedback/export")
+    public void exportFeedback(
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(required = false) String department,
+            @RequestParam(required = false) String sentiment,
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            HttpServletRequest request, HttpServletResponse response) throws IOException {
+        ExportFormat exportFormat = ExportFormat.parse(format);
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new IllegalArgumentException("'from' must not be after 'to'");
+        }
+        boolean gzip = acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+
+        // Written straight to the response on this thread, like /batch/stream, so no async timeout cuts it off
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(exportFormat.contentType());
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename("feedback-export." + exportFormat.extension())
+                .build()
+                .toString());
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+
+        OutputStream output = response.getOutputStream();
+        GZIPOutputStream compressed = gzip ? new GZIPOutputStream(output, 8192) : null;
+        long written = feedbackExportService.export(exportFormat,
+                new FeedbackExportService.Filter(department, sentiment, category, from, to),
+                compressed != null ? compressed : output);
+        if (compressed != null) {
+            compressed.finish();
+        }
+        log.info("Exported {} feedback entries as {}{}", written, exportFormat.extension(), gzip ? " (gzip)" : "");
+    }
+
+    /**
+     * Comments ranked by relevance to {@code q}. A hit whose entry leaves the
+     * working set between ranking and lookup is dropped from the page, so a
+     * page can be shorter than {@code limit}.
+     */
+    @GetMapping("/api/v1/feedback/search")
     @ResponseBody
-    public ResponseEntity<FeedbackSummaryDto> getFeedbackSummary() {
-        try {
-            FeedbackSummary summary = feedbackService.generateFeedbackSummary();
-            
-            List<FeedbackResponse> recentResponses = summary.getRecentFeedback().stream()
-                    .map(enhancedFeedbackMapper::toResponse)
-                    .collect(Collectors.toList());
-            
-            FeedbackSummaryDto dto = FeedbackSummaryDto.builder()
-                    .totalFeedback(summary.getTotalFeedback())
-                    .sentimentCounts(summary.getSentimentCounts())
-                    .categoryCounts(summary.getCategoryCounts())
-                    .departmentCounts(summary.getDepartmentCounts())
-                    .recentFeedback(recentResponses)
-                    .build();
-            
-            return ResponseEntity.ok(dto);
-        } catch (IOException e) {
-            log.error("Error generating feedback summary: {}", e.getMessage(), e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+    public ResponseEntity<SearchResponse> searchFeedback(
+            @RequestParam String q,
+            @RequestParam(required = false) String department,
+            @RequestParam(required = false) String sentiment,
+            @RequestParam(defaultValue = "" + DEFAULT_SEARCH_SIZE) int limit,
+            WebRequest request) {
+        if (q.isBlank()) {
+            throw new IllegalArgumentException("'q' must not be blank");
+        }
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("'limit' must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        if (notModified(request)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(REVALIDATE).build();
+        }
+        SearchIndex.Result result = feedbackService.searchFeedback(q, department, sentiment, limit);
+
+        SearchResponse response = SearchResponse.builder()
+                .query(q)
+                .totalHits(result.totalHits())
+                .hits(stageMetrics.time(StageMetrics.Stage.MAPPING, () -> toSearchHits(result)))
+                .build();
+        return ResponseEntity.ok().cacheControl(REVALIDATE).body(response);
+    }
+
+    private List<SearchHit> toSearchHits(SearchIndex.Result result) {
+        List<SearchHit> hits = new ArrayList<>(result.hits().size());
+        for (SearchIndex.Hit hit : result.hits()) {
+            EnhancedFeedback feedback = feedbackService.findEnhanced(hit.feedbackId());
+            if (feedback != null) {
+                hits.add(SearchHit.builder()
+                        .score(hit.score())
+                        .feedback(enhancedFeedbackMapper.toResponse(feedback))
+                        .build());
+            }
         }
+        return hits;
+    }
+
+    @GetMapping("/api/v1/feedback/summary")
+    @ResponseBody
+    public ResponseEntity<byte[]> getFeedbackSummary(@RequestParam(required = false) String pretty,
+                                                     WebRequest request) {
+        return cachedJson("summary", pretty, request, this::buildSummary);
+    }
+
+    private FeedbackSummaryDto buildSummary() {
+        FeedbackSummary summary = feedbackService.generateFeedbackSummary();
+        
+        List<FeedbackResponse> recentResponses = summary.getRecentFeedback().stream()
+                .map(enhancedFeedbackMapper::toResponse)
+                .collect(Collectors.toList());
+        
+        return FeedbackSummaryDto.builder()
+                .totalFeedback(summary.getTotalFeedback())
+                .sentimentCounts(summary.getSentimentCounts())
+                .categoryCounts(summary.getCategoryCounts())
+                .departmentCounts(summary.getDepartmentCounts())
+                .recentFeedback(recentResponses)
+                .analytics(feedbackService.getSketchSummary(null, null))
+                .build();
+    }
+
+    @GetMapping("/api/v1/feedback/summary/sketches")
+    @ResponseBody
+    public ResponseEntity<SketchSummaryDto> getSketchSummary(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ResponseEntity.ok(feedbackService.getSketchSummary(from, to));
+    }
+
+    @GetMapping("/api/v1/feedback/trends")
+    @ResponseBody
+    public ResponseEntity<TrendResponse> getFeedbackTrends(
+            @RequestParam(defaultValue = "day") String granularity,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String department,
+            @RequestParam(required = false) String sentiment,
+            @RequestParam(required = false) String category) {
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.minusDays(30);
+        
+        TrendResponse trends = feedbackService.getTrends(TrendGranularity.parse(granularity),
+                start.atStartOfDay(), end.plusDays(1).atStartOfDay(), department, sentiment, category);
+        return ResponseEntity.ok(trends);
+    }
+
+    @DeleteMapping("/api/v1/feedback/{id}")
+    @ResponseBody
+    public ResponseEntity<Void> deleteFeedback(@PathVariable Long id) {
+        feedbackService.deleteFeedback(id);
+        return ResponseEntity.noContent().build();
     }
 
     @PostMapping("/api/v1/feedback/refresh")
     @ResponseBody
-    public ResponseEntity<String> refreshFeedback() {
-        feedbackService.clearCache();
-        return ResponseEntity.ok("Feedback cache cleared successfully");
+    public ResponseEntity<CacheRebuildStatus> refreshFeedback() {
+        return ResponseEntity.accepted().body(feedbackService.refreshCache());
+    }
+
+    @GetMapping("/api/v1/feedback/refresh/status")
+    @ResponseBody
+    public ResponseEntity<CacheRebuildStatus> getRefreshStatus() {
+        return ResponseEntity.ok(feedbackService.getRebuildStatus());
+    }
+
+    /**
+     * Answers a conditional GET from the data version alone, before anything
+     * is computed. Sets ETag and Last-Modified on the response either way.
+     */
+    private boolean notModified(WebRequest request) {
+        return notModified(request, feedbackService.currentVersion());
+    }
+
+    private static boolean notModified(WebRequest request, DataVersion.Stamp stamp) {
+        return request.checkNotModified(stamp.etag(), stamp.lastModified());
+    }
+
+    /**
+     * Conditional GET plus the serialized byte cache. Each representation
+     * (identity, gzip, pretty) gets its own ETag so caches never confuse
+     * encodings.
+     */
+    private ResponseEntity<byte[]> cachedJson(String key, String pretty, WebRequest request, Supplier<?> mapping) {
+        Supplier<?> body = () -> stageMetrics.time(StageMetrics.Stage.MAPPING, mapping);
+        DataVersion.Stamp stamp = feedbackService.currentVersion();
+        boolean indent = pretty != null && !"false".equalsIgnoreCase(pretty);
+        boolean gzip = !indent && acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        DataVersion.Stamp variant = indent ? stamp.variant("pretty") : gzip ? stamp.variant("gzip") : stamp;
+
+        if (notModified(request, variant)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .cacheControl(REVALIDATE)
+                    .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                    .build();
+        }
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .cacheControl(REVALIDATE)
+                .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                .contentType(MediaType.APPLICATION_JSON);
+        if (indent) {
+            return response.body(responseCache.pretty(body.get()));
+        }
+        SerializedResponseCache.Serialized serialized = responseCache.get(key, stamp, body);
+        if (gzip) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(serialized.gzip());
+        }
+        return response.body(serialized.json());
+    }
+
+    /** True unless gzip is absent or refused with {@code q=0}. */
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (!parts[0].trim().equalsIgnoreCase("gzip")) {
+                continue;
+            }
+            for (int i = 1; i < parts.length; i++) {
+                String param = parts[i].trim();
+                if (param.startsWith("q=")) {
+                    try {
+                        return Double.parseDouble(param.substring(2)) > 0;
+                    } catch (NumberFormatException e) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+        return false;
     }
 }
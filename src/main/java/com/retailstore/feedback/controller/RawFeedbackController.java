@@ -1,56 +1,67 @@
 package com.retailstore.feedback.controller;
 
+import com.retailstore.feedback.exception.IngestQueueFullException;
+import com.retailstore.feedback.exception.PipelineSaturatedException;
 import com.retailstore.feedback.mapper.EnhancedFeedbackMapper;
 import com.retailstore.feedback.mapper.FeedbackMapper;
 import com.retailstore.feedback.model.EnhancedFeedback;
 import com.retailstore.feedback.model.FeedbackEntry;
 import com.retailstore.feedback.model.dto.FeedbackRequest;
 import com.retailstore.feedback.model.dto.FeedbackResponse;
-import com.retailstore.feedback.service.FeedbackService;
-import com.retailstore.feedback.service.SentimentAnalysisService;
+import com.retailstore.feedback.service.FeedbackIdGenerator;
+import com.retailstore.feedback.service.admission.AdmissionControl;
+import com.retailstore.feedback.service.idempotency.IdempotencyStore;
+import com.retailstore.feedback.service.ingest.DurableIngestQueue;
+import com.retailstore.feedback.service.pipeline.FeedbackPipeline;
 import jakarta.validation.Valid;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.concurrent.CompletableFuture;
-
 @RestController
 @RequestMapping("/api/v1/feedback")
 @Slf4j
 @RequiredArgsConstructor
 public class RawFeedbackController {
     
-    private final SentimentAnalysisService sentimentAnalysisService;
-    private final FeedbackService feedbackService;
+    private static final String SUCCESS_REDIRECT = "redirect:/success";
+    
+    private final FeedbackPipeline feedbackPipeline;
+    private final FeedbackIdGenerator feedbackIdGenerator;
     private final FeedbackMapper feedbackMapper;
     private final EnhancedFeedbackMapper enhancedFeedbackMapper;
+    private final DurableIngestQueue ingestQueue;
+    private final AdmissionControl admissionControl;
+    private final IdempotencyStore idempotencyStore;
 
     @PostMapping("/raw")
-    public Object processRawFeedback(@Valid @ModelAttribute FeedbackRequest request) {
+    public Object processRawFeedback(@Valid @ModelAttribute FeedbackRequest request,
+                                     @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey) {
+        return idempotencyStore.execute("raw", idempotencyKey, request, SUCCESS_REDIRECT::equals,
+                () -> processRawFeedbackOnce(request));
+    }
+    
+    private Object processRawFeedbackOnce(FeedbackRequest request) {
         try {
             log.info("Processing raw feedback from customer: {}", request.getCustomer());
             
             FeedbackEntry entry = createFeedbackEntry(request);
             log.debug("Created feedback entry with ID: {}", entry.getId());
             
-            String sentiment = sentimentAnalysisService.analyzeSentiment(entry.getComment());
-            entry.setSentiment(sentiment);
-            log.debug("Sentiment analysis complete: {}", sentiment);
-            
-            CompletableFuture<EnhancedFeedback> enhancedFuture = feedbackService.enhanceFeedbackAsync(entry);
-            EnhancedFeedback enhanced = enhancedFuture.join();
-            log.debug("AI enhancement complete for feedback ID: {}", enhanced.getId());
-            
-            feedbackService.saveEnhancedFeedback(enhanced);
-            log.debug("Saved enhanced feedback to repository");
+            EnhancedFeedback enhanced = feedbackPipeline.process(entry);
+            log.debug("Processed and saved feedback ID: {}", enhanced.getId());
             
             log.info("Successfully processed feedback from customer: {}", request.getCustomer());
             
-            return "redirect:/success";
+            return SUCCESS_REDIRECT;
+            
+        } catch (PipelineSaturatedException e) {
+            log.warn("Rejected feedback, pipeline at capacity: {}", e.getMessage());
+            return "redirect:/submit?error=busy";
             
         } catch (IllegalArgumentException e) {
             log.warn("Invalid feedback request: {}", e.getMessage());
@@ -64,26 +75,33 @@ public class RawFeedbackController {
     
     @PostMapping("/raw/api")
     @ResponseBody
-    public ResponseEntity<FeedbackResponse> processRawFeedbackApi(@Valid @RequestBody FeedbackRequest request) {
+    public ResponseEntity<FeedbackResponse> processRawFeedbackApi(@Valid @RequestBody FeedbackRequest request,
+                                                                  @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey) {
+        return idempotencyStore.execute("raw-api", idempotencyKey, request, IdempotencyStore::isStorable,
+                () -> processRawFeedbackApiOnce(request));
+    }
+    
+    private ResponseEntity<FeedbackResponse> processRawFeedbackApiOnce(FeedbackRequest request) {
         try {
             log.info("Processing raw feedback from customer via API: {}", request.getCustomer());
             
             FeedbackEntry entry = createFeedbackEntry(request);
             log.debug("Created feedback entry with ID: {}", entry.getId());
             
-            String sentiment = sentimentAnalysisService.analyzeSentiment(entry.getComment());
-            entry.setSentiment(sentiment);
-            log.debug("Sentiment analysis complete: {}", sentiment);
-            
-            CompletableFuture<EnhancedFeedback> enhancedFuture = feedbackService.enhanceFeedbackAsync(entry);
-            EnhancedFeedback enhanced = enhancedFuture.join();
-            log.debug("AI enhancement complete for feedback ID: {}", enhanced.getId());
+            EnhancedFeedback enhanced = feedbackPipeline.process(entry);
+            log.debug("Processed and saved feedback ID: {}", enhanced.getId());
             
             FeedbackResponse response = enhancedFeedbackMapper.toResponse(enhanced);
             log.info("Successfully processed feedback from customer: {}", request.getCustomer());
             
             return ResponseEntity.status(HttpStatus.CREATED).body(response);
             
+        } catch (PipelineSaturatedException e) {
+            log.warn("Rejected feedback, pipeline at capacity: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, Long.toString(admissionControl.retryAfterSeconds()))
+                    .build();
+            
         } catch (IllegalArgumentException e) {
             log.warn("Invalid feedback request: {}", e.getMessage());
             return ResponseEntity.badRequest().build();
@@ -95,39 +113,42 @@ public class RawFeedbackController {
     }
     
     @PostMapping("/raw/async")
-    public ResponseEntity<AsyncProcessingResponse> processRawFeedbackAsync(@Valid @RequestBody FeedbackRequest request) {
+    public ResponseEntity<AsyncProcessingResponse> processRawFeedbackAsync(@Valid @RequestBody FeedbackRequest request,
+                                                                           @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey) {
+        return idempotencyStore.execute("raw-async", idempotencyKey, request, IdempotencyStore::isStorable,
+                () -> processRawFeedbackAsyncOnce(request));
+    }
+    
+    private ResponseEntity<AsyncProcessingResponse> processRawFeedbackAsyncOnce(FeedbackRequest request) {
         try {
-            log.info("Starting async processing for feedback from customer: {}", request.getCustomer());
+            log.info("Queueing async processing for feedback from customer: {}", request.getCustomer());
             
             FeedbackEntry entry = createFeedbackEntry(request);
-            
-            CompletableFuture.runAsync(() -> {
-                try {
-                    String sentiment = sentimentAnalysisService.analyzeSentiment(entry.getComment());
-                    entry.setSentiment(sentiment);
-                    feedbackService.enhanceFeedbackAsync(entry).join();
-                    log.info("Async processing complete for feedback ID: {}", entry.getId());
-                } catch (Exception e) {
-                    log.error("Error in async processing for feedback ID {}: {}", entry.getId(), e.getMessage(), e);
-                }
-            });
+            ingestQueue.append(entry);
+            log.debug("Queued feedback entry with ID: {}", entry.getId());
             
             AsyncProcessingResponse response = new AsyncProcessingResponse();
             response.setFeedbackId(entry.getId());
-            response.setStatus("PROCESSING");
-            response.setMessage("Feedback submitted successfully and is being processed");
+            response.setStatus("QUEUED");
+            response.setMessage("Feedback accepted and queued for processing");
             
             return ResponseEntity.accepted().body(response);
             
+        } catch (IngestQueueFullException e) {
+            log.warn("Rejected async feedback, ingest queue full: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, Long.toString(admissionControl.retryAfterSeconds()))
+                    .build();
+            
         } catch (Exception e) {
-            log.error("Error starting async feedback processing: {}", e.getMessage(), e);
+            log.error("Error queueing async feedback: {}", e.getMessage(), e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
     
     private FeedbackEntry createFeedbackEntry(FeedbackRequest request) {
         FeedbackEntry entry = feedbackMapper.toEntity(request);
-        entry.setId(System.currentTimeMillis());
+        entry.setId(feedbackIdGenerator.nextId());
         entry.setDate(java.time.LocalDate.now());
         return entry;
     }
@@ -0,0 +1,8 @@
+package com.retailstore.feedback.exception;
+
+public class BatchJobNotFoundException extends RuntimeException {
+    
+    public BatchJobNotFoundException(String batchId) {
+        super("Batch job not found with id: " + batchId);
+    }
+}
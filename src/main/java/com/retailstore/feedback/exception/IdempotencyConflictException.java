@@ -0,0 +1,8 @@
+package com.retailstore.feedback.exception;
+
+public class IdempotencyConflictException extends RuntimeException {
+    
+    public IdempotencyConflictException(String idempotencyKey) {
+        super("Request with the same idempotency key is still in progress: " + idempotencyKey);
+    }
+}
@@ -0,0 +1,8 @@
+package com.retailstore.feedback.exception;
+
+public class IdempotencyKeyReusedException extends RuntimeException {
+    
+    public IdempotencyKeyReusedException(String idempotencyKey) {
+        super("Idempotency key was already used with a different request: " + idempotencyKey);
+    }
+}
@@ -0,0 +1,8 @@
+package com.retailstore.feedback.exception;
+
+public class IngestQueueFullException extends RuntimeException {
+    
+    public IngestQueueFullException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,8 @@
+package com.retailstore.feedback.exception;
+
+public class PipelineSaturatedException extends RuntimeException {
+    
+    public PipelineSaturatedException(String message) {
+        super(message);
+    }
+}
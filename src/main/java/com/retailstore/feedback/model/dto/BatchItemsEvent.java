@@ -0,0 +1,21 @@
+package com.retailstore.feedback.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Item results completed since the previous push. {@code dropped} counts
+ * results that did not fit the per-push buffer; poll the batch for totals.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchItemsEvent {
+    private List<BatchItemResult> items;
+    private long dropped;
+}
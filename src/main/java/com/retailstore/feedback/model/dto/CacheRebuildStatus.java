@@ -0,0 +1,18 @@
+package com.retailstore.feedback.model.dto;
+
+import java.time.LocalDateTime;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class CacheRebuildStatus {
+    private boolean running;
+    private int total;
+    private int completed;
+    private int failed;
+    private double percentage;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+}
@@ -0,0 +1,20 @@
+package com.retailstore.feedback.model.dto;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class FeedbackPageResponse {
+    private List<FeedbackResponse> items;
+    /** Opaque cursor for the following page; absent on the last page. */
+    private String next;
+    /** Estimated number of entries matching the filters, across all pages. */
+    private long approximateTotal;
+    private String sort;
+}
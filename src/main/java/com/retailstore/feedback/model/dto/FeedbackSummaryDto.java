@@ -14,4 +14,5 @@ public class FeedbackSummaryDto {
     private Map<String, Integer> categoryCounts;
     private Map<String, Integer> departmentCounts;
     private List<FeedbackResponse> recentFeedback;
+    private SketchSummaryDto analytics;
 }
@@ -0,0 +1,27 @@
+package com.retailstore.feedback.model.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Outcome of one line of an NDJSON upload; {@code status} is CREATED,
+ * INVALID or FAILED.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class IngestRecordResult {
+    private long line;
+    private String status;
+    private Long feedbackId;
+    private String sentiment;
+    private String category;
+    private List<String> errors;
+}
@@ -0,0 +1,18 @@
+package com.retailstore.feedback.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class IngestSummary {
+    private long records;
+    private long created;
+    private long invalid;
+    private long failed;
+    private long elapsedMs;
+}
@@ -0,0 +1,12 @@
+package com.retailstore.feedback.model.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class SearchHit {
+    /** BM25 relevance; only comparable between hits of the same query. */
+    private double score;
+    private FeedbackResponse feedback;
+}
@@ -0,0 +1,15 @@
+package com.retailstore.feedback.model.dto;
+
+import java.util.List;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class SearchResponse {
+    private String query;
+    /** Entries matching at least one query term, not just those returned. */
+    private int totalHits;
+    private List<SearchHit> hits;
+}
@@ -0,0 +1,32 @@
+package com.retailstore.feedback.model.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * Approximate analytics backed by probabilistic sketches. Each figure comes
+ * with the error bound of the sketch that produced it.
+ */
+@Data
+@Builder
+public class SketchSummaryDto {
+    private LocalDate from;
+    private LocalDate to;
+
+    /** HyperLogLog estimates; relative standard error applies per department. */
+    private Map<String, Long> distinctCustomersByDepartment;
+    private double distinctCustomersRelativeError;
+
+    /**
+     * Most frequent terms in negative feedback. Counts never undercount and
+     * exceed the true count by at most {@code termCountMaxOverestimate} with
+     * probability {@code termCountConfidence}.
+     */
+    private List<TermFrequency> topComplaintTerms;
+    private long termCountMaxOverestimate;
+    private double termCountConfidence;
+}
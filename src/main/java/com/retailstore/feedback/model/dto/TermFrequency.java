@@ -0,0 +1,13 @@
+package com.retailstore.feedback.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TermFrequency {
+    private String term;
+    private long estimatedCount;
+}
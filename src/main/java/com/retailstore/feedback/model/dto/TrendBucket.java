@@ -0,0 +1,17 @@
+package com.retailstore.feedback.model.dto;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class TrendBucket {
+    private LocalDateTime start;
+    private int total;
+    private Map<String, Integer> sentimentCounts;
+    private Map<String, Integer> categoryCounts;
+    private Map<String, Integer> departmentCounts;
+}
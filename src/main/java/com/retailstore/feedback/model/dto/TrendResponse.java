@@ -0,0 +1,17 @@
+package com.retailstore.feedback.model.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class TrendResponse {
+    private String granularity;
+    private LocalDateTime from;
+    private LocalDateTime to;
+    private TrendBucket totals;
+    private List<TrendBucket> buckets;
+}
@@ -5,15 +5,30 @@ import com.retailstore.feedback.model.FeedbackEntry;
 import java.io.IOException;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface FeedbackRepository {
     
     List<FeedbackEntry> findAll() throws IOException;
     
+    /**
+     * Hands every entry to {@code action} in storage order, one at a time,
+     * without loading them all. The action runs outside the repository lock,
+     * so a slow consumer never holds up writes; writes made meanwhile are not
+     * seen.
+     */
+    void forEach(Consumer<? super FeedbackEntry> action) throws IOException;
+    
     Optional<FeedbackEntry> findById(Long id);
     
     FeedbackEntry save(FeedbackEntry feedback) throws IOException;
     
+    /**
+     * Saves several entries in one write; entries without an id get one as
+     * in {@link #save(FeedbackEntry)}.
+     */
+    List<FeedbackEntry> saveAll(List<FeedbackEntry> feedback) throws IOException;
+    
     void deleteById(Long id) throws IOException;
     
     List<FeedbackEntry> findByDepartment(String department);
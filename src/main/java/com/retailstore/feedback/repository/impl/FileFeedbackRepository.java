@@ -2,6 +2,9 @@ package com.retailstore.feedback.repository.impl;
 
 import com.retailstore.feedback.model.FeedbackEntry;
 import com.retailstore.feedback.repository.FeedbackRepository;
+import com.retailstore.feedback.service.metrics.StageMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -10,33 +13,51 @@ import org.springframework.core.io.ResourceLoader;
 import org.springframework.stereotype.Repository;
 
 import java.io.*;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.nio.file.StandardOpenOption;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
+/**
+ * Stores feedback in a single text file that every write rewrites in full.
+ * The in-process lock only orders this process's readers and writers, so the
+ * file is additionally owned by one process at a time through a lock file
+ * next to it; a bulk import therefore refuses to start while the service is
+ * running against the same file.
+ */
 @Repository
 @Slf4j
 @RequiredArgsConstructor
 public class FileFeedbackRepository implements FeedbackRepository {
 
     private final ResourceLoader resourceLoader;
+    private final StageMetrics stageMetrics;
 
     @Value("${feedback.file.path:classpath:data/sentiment_feedback_output.txt}")
     private String feedbackFilePath;
 
     private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private FileChannel ownerChannel;
+    private FileLock ownerLock;
     
     private static final Pattern FEEDBACK_PATTERN = Pattern.compile("Feedback #(\\d+)");
     private static final Pattern CUSTOMER_PATTERN = Pattern.compile("Customer:\\s*(.+)");
@@ -47,6 +68,35 @@ public class FileFeedbackRepository implements FeedbackRepository {
     
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
 
+    @PostConstruct
+    void acquireOwnership() throws IOException {
+        Path filePath = filePath();
+        if (filePath.getParent() != null) {
+            Files.createDirectories(filePath.getParent());
+        }
+        Path lockPath = filePath.resolveSibling(filePath.getFileName() + ".lock");
+        ownerChannel = FileChannel.open(lockPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        try {
+            ownerLock = ownerChannel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            ownerLock = null;
+        }
+        if (ownerLock == null) {
+            ownerChannel.close();
+            throw new IllegalStateException("Feedback file " + filePath
+                    + " is in use by another process; stop the service before running a bulk import");
+        }
+    }
+
+    @PreDestroy
+    void releaseOwnership() throws IOException {
+        if (ownerLock != null) {
+            ownerLock.release();
+            ownerChannel.close();
+            ownerLock = null;
+        }
+    }
+
     @Override
     public List<FeedbackEntry> findAll() throws IOException {
         lock.readLock().lock();
@@ -57,6 +107,24 @@ public class FileFeedbackRepository implements FeedbackRepository {
         }
     }
 
+    @Override
+    public void forEach(Consumer<? super FeedbackEntry> action) throws IOException {
+        BufferedReader reader;
+        lock.readLock().lock();
+        try {
+            reader = openFeedbackFile();
+        } finally {
+            lock.readLock().unlock();
+        }
+        // Writers replace the file rather than truncating it, so this handle keeps reading a complete copy
+        // Not timed as a read: the caller's action runs in between, an export's client writes included
+        if (reader != null) {
+            try (reader) {
+                parseEntries(reader, action);
+            }
+        }
+    }
+
     @Override
     public Optional<FeedbackEntry> findById(Long id) {
         lock.readLock().lock();
@@ -75,24 +143,35 @@ public class FileFeedbackRepository implements FeedbackRepository {
 
     @Override
     public FeedbackEntry save(FeedbackEntry feedback) throws IOException {
+        saveAll(List.of(feedback));
+        log.info("Saved feedback with ID: {}", feedback.getId());
+        return feedback;
+    }
+
+    @Override
+    public List<FeedbackEntry> saveAll(List<FeedbackEntry> feedback) throws IOException {
         lock.writeLock().lock();
         try {
-            List<FeedbackEntry> allFeedback = readFeedbackFromFile();
+            Map<Long, FeedbackEntry> allFeedback = new LinkedHashMap<>();
+            long maxId = 0;
+            for (FeedbackEntry existing : readFeedbackFromFile()) {
+                allFeedback.put(existing.getId(), existing);
+                maxId = Math.max(maxId, existing.getId());
+            }
             
-            if (feedback.getId() == null) {
-                Long maxId = allFeedback.stream()
-                        .map(FeedbackEntry::getId)
-                        .max(Long::compareTo)
-                        .orElse(0L);
-                feedback.setId(maxId + 1);
-                allFeedback.add(feedback);
-            } else {
-                allFeedback.removeIf(f -> f.getId().equals(feedback.getId()));
-                allFeedback.add(feedback);
+            for (FeedbackEntry entry : feedback) {
+                if (entry.getId() == null) {
+                    entry.setId(++maxId);
+                } else {
+                    // A re-saved entry moves to the end of the file, as it always has
+                    allFeedback.remove(entry.getId());
+                    maxId = Math.max(maxId, entry.getId());
+                }
+                allFeedback.put(entry.getId(), entry);
             }
             
-            writeFeedbackToFile(allFeedback);
-            log.info("Saved feedback with ID: {}", feedback.getId());
+            writeFeedbackToFile(allFeedback.values());
+            log.debug("Saved {} feedback entries in one write", feedback.size());
             return feedback;
         } finally {
             lock.writeLock().unlock();
@@ -147,62 +226,99 @@ public class FileFeedbackRepository implements FeedbackRepository {
     }
 
     private List<FeedbackEntry> readFeedbackFromFile() throws IOException {
+        StageMetrics.Sample read = stageMetrics.start(StageMetrics.Stage.REPOSITORY_READ);
+        boolean success = false;
+        try {
+            List<FeedbackEntry> entries = new ArrayList<>();
+            BufferedReader reader = openFeedbackFile();
+            if (reader != null) {
+                try (reader) {
+                    parseEntries(reader, entries::add);
+                }
+            }
+            success = true;
+            return entries;
+        } finally {
+            read.stop(success);
+        }
+    }
+
+    private BufferedReader openFeedbackFile() throws IOException {
         Resource resource = resourceLoader.getResource(feedbackFilePath);
         
         if (!resource.exists()) {
             log.warn("Feedback file not found: {}", feedbackFilePath);
-            return new ArrayList<>();
+            return null;
         }
         
-        List<FeedbackEntry> entries = new ArrayList<>();
-
-        try (BufferedReader reader = new BufferedReader(
-                new InputStreamReader(resource.getInputStream()))) {
-            StringBuilder entryText = new StringBuilder();
-            String line;
-
-            boolean inDetailedSection = false;
-            while ((line = reader.readLine()) != null) {
-                if (line.contains("## Detailed Feedback Entries")) {
-                    inDetailedSection = true;
-                    continue;
-                }
+        return new BufferedReader(new InputStreamReader(resource.getInputStream()));
+    }
 
-                if (!inDetailedSection) {
-                    continue;
-                }
+    private void parseEntries(BufferedReader reader, Consumer<? super FeedbackEntry> action) throws IOException {
+        StageMetrics.Accumulator parse = stageMetrics.accumulate(StageMetrics.Stage.REPOSITORY_PARSE);
+        StringBuilder entryText = new StringBuilder();
+        String line;
 
-                if (line.trim().isEmpty() && entryText.length() > 0) {
-                    FeedbackEntry entry = parseFeedbackEntry(entryText.toString());
-                    if (entry != null) {
-                        entries.add(entry);
-                    }
-                    entryText = new StringBuilder();
-                } else {
-                    entryText.append(line).append("\n");
-                }
+        boolean inDetailedSection = false;
+        while ((line = reader.readLine()) != null) {
+            if (line.contains("## Detailed Feedback Entries")) {
+                inDetailedSection = true;
+                continue;
+            }
+
+            if (!inDetailedSection) {
+                continue;
             }
 
-            if (entryText.length() > 0) {
+            if (line.trim().isEmpty() && entryText.length() > 0) {
+                long begunAt = parse.begin();
                 FeedbackEntry entry = parseFeedbackEntry(entryText.toString());
+                parse.end(begunAt);
                 if (entry != null) {
-                    entries.add(entry);
+                    action.accept(entry);
                 }
+                entryText = new StringBuilder();
+            } else {
+                entryText.append(line).append("\n");
+            }
+        }
+
+        if (entryText.length() > 0) {
+            long begunAt = parse.begin();
+            FeedbackEntry entry = parseFeedbackEntry(entryText.toString());
+            parse.end(begunAt);
+            if (entry != null) {
+                action.accept(entry);
             }
         }
+        parse.finish(true);
+    }
+
+    private void writeFeedbackToFile(Collection<FeedbackEntry> entries) throws IOException {
+        StageMetrics.Sample write = stageMetrics.start(StageMetrics.Stage.REPOSITORY_WRITE);
+        boolean success = false;
+        try {
+            writeEntries(entries);
+            success = true;
+        } finally {
+            write.stop(success);
+        }
+    }
 
-        return entries;
+    private Path filePath() {
+        return Paths.get(feedbackFilePath.replace("classpath:", "").replace("file:", ""));
     }
 
-    private void writeFeedbackToFile(List<FeedbackEntry> entries) throws IOException {
-        String path = feedbackFilePath.replace("classpath:", "").replace("file:", "");
-        Path filePath = Paths.get(path);
+    private void writeEntries(Collection<FeedbackEntry> entries) throws IOException {
+        Path filePath = filePath();
         
         if (filePath.getParent() != null) {
             Files.createDirectories(filePath.getParent());
         }
         
-        try (BufferedWriter writer = Files.newBufferedWriter(filePath, 
+        // Written aside and moved into place, so readers that already opened the file are unaffected
+        Path tempPath = filePath.resolveSibling(filePath.getFileName() + ".tmp");
+        try (BufferedWriter writer = Files.newBufferedWriter(tempPath, 
                 StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
             
             writer.write("# Customer Feedback Analysis\n\n");
@@ -218,6 +334,7 @@ public class FileFeedbackRepository implements FeedbackRepository {
                 writer.write("\n");
             }
         }
+        Files.move(tempPath, filePath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
     }
 
     private FeedbackEntry parseFeedbackEntry(String text) {
@@ -0,0 +1,47 @@
+package com.retailstore.feedback.service;
+
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hands out time-based feedback ids, like the controllers always used, but
+ * never the same one twice: entries of one batch are created within the same
+ * millisecond and would otherwise overwrite each other when persisted.
+ *
+ * <p>Bulk imports draw from a separate range marked by {@link #IMPORT_ID_FLAG},
+ * which millisecond ids never reach, so an import of any size cannot collide
+ * with feedback the service creates meanwhile.
+ */
+@Component
+public class FeedbackIdGenerator {
+
+    /**
+     * Set on every bulk import id. Bit 52 keeps import ids below 2^53, so they
+     * survive JSON clients that read numbers as doubles.
+     */
+    public static final long IMPORT_ID_FLAG = 1L << 52;
+    private static final int IMPORT_RECORD_BITS = 25;
+    /** Records one import can number; the import's start minute fills the bits above them. */
+    public static final long MAX_IMPORT_RECORDS = 1L << IMPORT_RECORD_BITS;
+    private static final long IMPORT_EPOCH_MINUTE = Instant.parse("2020-01-01T00:00:00Z").getEpochSecond() / 60;
+
+    private final AtomicLong lastId = new AtomicLong();
+    private final AtomicLong lastImportMinute = new AtomicLong();
+
+    public long nextId() {
+        return lastId.updateAndGet(last -> Math.max(last + 1, System.currentTimeMillis()));
+    }
+
+    /**
+     * Base for the ids of one import; record {@code n} gets {@code base + n}
+     * for {@code n < MAX_IMPORT_RECORDS}. Distinct per call within a process;
+     * imports started in the same minute by separate processes share a base.
+     */
+    public long nextImportIdBase() {
+        long minute = lastImportMinute.updateAndGet(
+                last -> Math.max(last + 1, System.currentTimeMillis() / 60_000 - IMPORT_EPOCH_MINUTE));
+        return IMPORT_ID_FLAG | (minute << IMPORT_RECORD_BITS);
+    }
+}
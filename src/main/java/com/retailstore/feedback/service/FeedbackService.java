@@ -1,22 +1,54 @@
 package com.retailstore.feedback.service;
 
+import com.retailstore.feedback.config.FeedbackConfig;
+import com.retailstore.feedback.exception.FeedbackNotFoundException;
 import com.retailstore.feedback.mapper.EnhancedFeedbackMapper;
 import com.retailstore.feedback.model.EnhancedFeedback;
 import com.retailstore.feedback.model.FeedbackEntry;
 import com.retailstore.feedback.model.FeedbackSummary;
+import com.retailstore.feedback.model.dto.CacheRebuildStatus;
+import com.retailstore.feedback.model.dto.SketchSummaryDto;
+import com.retailstore.feedback.model.dto.TrendResponse;
 import com.retailstore.feedback.repository.FeedbackRepository;
+import com.retailstore.feedback.service.analytics.FeedbackSketchView;
+import com.retailstore.feedback.service.dedup.NearDuplicateIndex;
+import com.retailstore.feedback.service.metrics.StageMetrics;
+import com.retailstore.feedback.service.prompt.PromptTemplateRegistry;
+import com.retailstore.feedback.service.search.SearchIndex;
+import com.retailstore.feedback.service.view.DataVersion;
+import com.retailstore.feedback.service.view.FeedbackChangeListener;
+import com.retailstore.feedback.service.view.FeedbackQueryView;
+import com.retailstore.feedback.service.view.FeedbackSort;
+import com.retailstore.feedback.service.view.FeedbackSummaryView;
+import com.retailstore.feedback.service.view.TrendGranularity;
+import com.retailstore.feedback.service.view.TrendRollupView;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
-import java.util.stream.Collectors;
 
 @Service
 @Slf4j
@@ -25,142 +57,527 @@ public class FeedbackService {
     
     private final FeedbackRepository feedbackRepository;
     private final GeminiService geminiService;
+    private final PromptTemplateRegistry promptTemplateRegistry;
+    private final FeedbackConfig feedbackConfig;
+    @Qualifier("storageExecutor")
+    private final Executor storageExecutor;
+    @Qualifier("aiExecutor")
+    private final Executor aiExecutor;
+    private final MeterRegistry meterRegistry;
+    private final StageMetrics stageMetrics;
+    @Qualifier("aiEnhancementCounter")
+    private final Counter aiEnhancementCounter;
+    @Qualifier("aiEnhancementTimer")
+    private final Timer aiEnhancementTimer;
+    @Qualifier("feedbackProcessedCounter")
+    private final Counter feedbackProcessedCounter;
+    private final FeedbackSummaryView summaryView;
+    private final TrendRollupView trendRollupView;
+    private final FeedbackSketchView sketchView;
+    private final FeedbackQueryView queryView;
+    private final SearchIndex searchIndex;
+    private final NearDuplicateIndex nearDuplicates;
+    private final DataVersion dataVersion;
+    private final List<FeedbackChangeListener> changeListeners;
 
-    private List<EnhancedFeedback> enhancedFeedbackCache = null;
+    private static final Pattern CATEGORY_PATTERN = Pattern.compile("\"category\"\\s*:\\s*\"([^\"]+)\"");
+    private static final Pattern INSIGHT_PATTERN = Pattern.compile("\"actionableInsight\"\\s*:\\s*\"([^\"]+)\"");
 
-    public synchronized List<EnhancedFeedback> getEnhancedFeedback() throws IOException {
-        if (enhancedFeedbackCache != null) {
-            return enhancedFeedbackCache;
+    static final String ENHANCEMENT_ERROR_CATEGORY = "Error in processing";
+
+    /**
+     * Working set of enhanced entries keyed by feedback id. Saves and deletes
+     * update single entries; only {@link #refreshCache()} forces every entry to
+     * be re-enhanced. Readers never see this map directly, they get the last
+     * published {@link FeedbackSnapshot}.
+     */
+    private final ConcurrentNavigableMap<Long, EnhancedFeedback> enhancedFeedbackCache = new ConcurrentSkipListMap<>();
+    private final Set<Long> deletedDuringRefresh = new HashSet<>();
+
+    private volatile FeedbackSnapshot snapshot = FeedbackSnapshot.EMPTY;
+    private volatile RebuildProgress rebuildProgress = null;
+
+    /** Single-flight guard: at most one background refresh runs at a time. */
+    private final AtomicBoolean refreshing = new AtomicBoolean(false);
+    private volatile boolean dirty = false;
+    private volatile boolean revalidationRequested = false;
+    private volatile boolean forceRequested = false;
+    /** When the last background refresh failed; reads wait out the error retry interval before another. */
+    private volatile Instant refreshFailedAt = null;
+
+    @PostConstruct
+    void registerMetrics() {
+        Gauge.builder("feedback.cache.snapshot.age", this, service -> service.snapshot.age().toMillis() / 1000.0)
+                .description("Age of the enhanced feedback snapshot served to readers")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns the last published snapshot without blocking. A cold or stale
+     * snapshot (older than {@code feedback.cache.max-staleness}) is still
+     * returned as is, while a background refresh builds the next one. After
+     * a failed refresh, reads wait {@code feedback.cache.error-retry-interval}
+     * before triggering another.
+     */
+    public List<EnhancedFeedback> getEnhancedFeedback() {
+        return currentSnapshot().getEntries();
+    }
+
+    /**
+     * The working-set entry for {@code id}, or {@code null} if it has not been
+     * enhanced yet. A single lookup; nothing is copied.
+     */
+    public EnhancedFeedback findEnhanced(Long id) {
+        return enhancedFeedbackCache.get(id);
+    }
+
+    private FeedbackSnapshot currentSnapshot() {
+        FeedbackSnapshot current = snapshot;
+        if (!refreshing.get() && !isRefreshBackingOff() && (!current.isComplete()
+                || current.age().compareTo(feedbackConfig.getCache().getMaxStaleness()) > 0)) {
+            requestRefresh(true, false);
+        }
+        return current;
+    }
+
+    /**
+     * Explicit full refresh: re-enhances every repository entry in the
+     * background. Readers keep getting the current snapshot until entries are
+     * replaced.
+     */
+    public CacheRebuildStatus refreshCache() {
+        requestRefresh(true, true);
+        return getRebuildStatus();
+    }
+
+    /**
+     * Version of everything the read methods return. Cheap enough to check
+     * before serving each request; still triggers a refresh of a cold or
+     * stale snapshot so unchanged polls keep revalidating it.
+     */
+    public DataVersion.Stamp currentVersion() {
+        currentSnapshot();
+        return dataVersion.current();
+    }
+
+    public CacheRebuildStatus getRebuildStatus() {
+        RebuildProgress progress = rebuildProgress;
+        if (progress == null) {
+            return CacheRebuildStatus.builder()
+                    .running(refreshing.get())
+                    .build();
+        }
+        return progress.toStatus();
+    }
+
+    private void requestRefresh(boolean revalidate, boolean force) {
+        if (force) {
+            forceRequested = true;
+        }
+        if (revalidate) {
+            revalidationRequested = true;
         }
+        dirty = true;
+        if (refreshing.compareAndSet(false, true)) {
+            startRefresh();
+        }
+    }
 
-        List<FeedbackEntry> entries = feedbackRepository.findAll();
-        List<EnhancedFeedback> enhancedEntries = new ArrayList<>();
+    private void startRefresh() {
+        try {
+            storageExecutor.execute(this::runRefresh);
+        } catch (TaskRejectedException e) {
+            // Still dirty, so the next write or refresh request tries again
+            refreshing.set(false);
+            log.warn("Deferred enhanced feedback refresh, storage executor is saturated");
+        }
+    }
+
+    private void runRefresh() {
+        try {
+            while (dirty || revalidationRequested) {
+                dirty = false;
+                if (revalidationRequested) {
+                    boolean force = forceRequested;
+                    revalidationRequested = false;
+                    forceRequested = false;
+                    revalidate(force);
+                } else {
+                    publishSnapshot(snapshot.isComplete());
+                }
+            }
+            refreshFailedAt = null;
+        } catch (Exception e) {
+            refreshFailedAt = Instant.now();
+            log.error("Enhanced feedback refresh failed: {}", e.getMessage(), e);
+        } finally {
+            refreshing.set(false);
+        }
+        // A write may have landed between the last check and releasing the guard
+        if (dirty && refreshing.compareAndSet(false, true)) {
+            startRefresh();
+        }
+    }
+
+    /**
+     * Reconciles the working set with the repository: drops entries that no
+     * longer exist and enhances new or changed ones (all of them when
+     * {@code force} is set) over at most {@code feedback.cache.rebuild-concurrency}
+     * lanes. Each lane drains a shared queue, so no more than that many Gemini
+     * calls are in flight regardless of repository size.
+     */
+    private void revalidate(boolean force) throws IOException {
+        Queue<PendingEnhancement> pending = new ConcurrentLinkedQueue<>();
+
+        synchronized (this) {
+            List<FeedbackEntry> entries = feedbackRepository.findAll();
+            Set<Long> repositoryIds = new HashSet<>();
+            for (FeedbackEntry entry : entries) {
+                repositoryIds.add(entry.getId());
+                EnhancedFeedback cached = enhancedFeedbackCache.get(entry.getId());
+                if (force || cached == null || !isEnhancementOf(cached, entry) || isRetryDue(cached)) {
+                    pending.add(new PendingEnhancement(entry, cached));
+                }
+            }
+            for (Long id : new ArrayList<>(enhancedFeedbackCache.keySet())) {
+                if (!repositoryIds.contains(id)) {
+                    removeEntry(id);
+                }
+            }
+            for (FeedbackChangeListener listener : changeListeners) {
+                listener.onRevalidated(repositoryIds);
+            }
+            deletedDuringRefresh.clear();
+        }
+
+        RebuildProgress progress = new RebuildProgress(pending.size());
+        rebuildProgress = progress;
+        int lanes = Math.max(1, Math.min(feedbackConfig.getCache().getRebuildConcurrency(), pending.size()));
+        boolean complete = snapshot.isComplete();
+
+        if (!pending.isEmpty()) {
+            log.info("Enhancing {} feedback entries with {} lanes", pending.size(), lanes);
+            List<CompletableFuture<Void>> workers = new ArrayList<>(lanes);
+            for (int i = 0; i < lanes; i++) {
+                try {
+                    workers.add(CompletableFuture.runAsync(() -> drainPending(pending, progress, complete), aiExecutor));
+                } catch (TaskRejectedException e) {
+                    log.warn("AI executor is saturated, enhancing with {} of {} lanes", workers.size(), lanes);
+                    break;
+                }
+            }
+            if (workers.isEmpty()) {
+                // Already on a storage thread, so draining here still keeps request threads free
+                drainPending(pending, progress, complete);
+            }
+            CompletableFuture.allOf(workers.toArray(new CompletableFuture<?>[0])).join();
+        }
+
+        progress.finish();
+        publishSnapshot(true);
+        log.info("Enhanced feedback snapshot published: {} entries, {} re-enhanced, {} failed",
+                snapshot.getEntries().size(), progress.completed.get(), progress.failed.get());
+    }
+
+    private void drainPending(Queue<PendingEnhancement> pending, RebuildProgress progress, boolean snapshotComplete) {
+        PendingEnhancement next;
+        while ((next = pending.poll()) != null) {
+            EnhancedFeedback enhanced = enhanceFeedback(next.entry());
+
+            synchronized (this) {
+                // Skip if a save replaced the entry meanwhile (fresher result) or a delete removed it
+                Long id = enhanced.getId();
+                if (enhancedFeedbackCache.get(id) == next.previous() && !deletedDuringRefresh.contains(id)) {
+                    putEntry(enhanced);
+                }
+            }
+            progress.record(ENHANCEMENT_ERROR_CATEGORY.equals(enhanced.getCategory()));
+
+            // While cold, readers get partial results instead of an empty page
+            if (!snapshotComplete && snapshot.age().compareTo(feedbackConfig.getCache().getPartialPublishInterval()) >= 0) {
+                publishSnapshot(false);
+            }
+        }
+    }
+
+    /** All working-set writes go through here so change listeners see every one. */
+    private synchronized void putEntry(EnhancedFeedback enhanced) {
+        EnhancedFeedback previous = enhancedFeedbackCache.put(enhanced.getId(), enhanced);
+        for (FeedbackChangeListener listener : changeListeners) {
+            listener.onUpsert(previous, enhanced);
+        }
+        dataVersion.bump();
+    }
 
-        for (FeedbackEntry entry : entries) {
-            EnhancedFeedback enhancedEntry = enhanceFeedback(entry);
-            enhancedEntries.add(enhancedEntry);
+    private synchronized void removeEntry(Long id) {
+        EnhancedFeedback removed = enhancedFeedbackCache.remove(id);
+        if (removed == null) {
+            return;
+        }
+        for (FeedbackChangeListener listener : changeListeners) {
+            listener.onRemove(removed);
         }
+        dataVersion.bump();
+        if (summaryView.needsRecentBackfill()) {
+            summaryView.backfillRecent(enhancedFeedbackCache.descendingMap().values());
+        }
+    }
+
+    private synchronized void publishSnapshot(boolean complete) {
+        snapshot = new FeedbackSnapshot(List.copyOf(enhancedFeedbackCache.values()), Instant.now(), complete);
+        // The entry list lags the working set until here, so the version must move again
+        dataVersion.bump();
+    }
+
+    private static boolean isEnhancementOf(EnhancedFeedback cached, FeedbackEntry entry) {
+        return Objects.equals(cached.getCustomer(), entry.getCustomer())
+                && Objects.equals(cached.getDepartment(), entry.getDepartment())
+                && Objects.equals(cached.getDate(), entry.getDate())
+                && Objects.equals(cached.getComment(), entry.getComment())
+                && Objects.equals(cached.getSentiment(), entry.getSentiment());
+    }
+
+    /**
+     * A failed enhancement is not a result: it is retried on revalidation once
+     * it is older than {@code feedback.cache.error-retry-interval}, so a Gemini
+     * outage does not pin entries in the error category until a forced refresh.
+     */
+    private boolean isRefreshBackingOff() {
+        Instant failedAt = refreshFailedAt;
+        return failedAt != null
+                && failedAt.plus(feedbackConfig.getCache().getErrorRetryInterval()).isAfter(Instant.now());
+    }
 
-        enhancedFeedbackCache = enhancedEntries;
-        return enhancedEntries;
+    private boolean isRetryDue(EnhancedFeedback cached) {
+        if (!ENHANCEMENT_ERROR_CATEGORY.equals(cached.getCategory())) {
+            return false;
+        }
+        LocalDateTime enhancedAt = cached.getEnhancedAt();
+        return enhancedAt == null || enhancedAt.isBefore(
+                LocalDateTime.now().minus(feedbackConfig.getCache().getErrorRetryInterval()));
     }
 
-    private EnhancedFeedback enhanceFeedback(FeedbackEntry entry) {
+    /**
+     * Calls Gemini for one entry on the current thread, unless a near-identical
+     * comment was enhanced recently and its result can be reused. Never
+     * throws: API failures come back as an entry in the error category.
+     */
+    public EnhancedFeedback enhanceFeedback(FeedbackEntry entry) {
         EnhancedFeedback enhancedEntry = new EnhancedFeedback(entry);
 
-        String prompt = String.format("""
-            You are an AI assistant specialized in customer feedback analysis.
-            Analyze the following customer feedback and:
-            1. Categorize the feedback into one of these categories: Product Quality, Customer Service, Store Experience, Website/App, Delivery, Price/Value, Inventory/Stock, or Other.
-            2. Provide a specific actionable insight or recommendation based on the feedback.
-            
-            Format your response as JSON with two fields: "category" and "actionableInsight".
-            Keep your response concise but insightful.
-            
-            Customer Feedback:
-            Comment: %s
-            Department: %s
-            Sentiment: %s
-            
-            Provide the category and actionable insight as JSON:
-            """, entry.getComment(), entry.getDepartment(), entry.getSentiment());
+        NearDuplicateIndex.Lookup lookup = nearDuplicates.lookup(entry);
+        NearDuplicateIndex.Match match = lookup.match();
+        if (match != null) {
+            log.debug("Reusing enhancement of feedback ID {} for ID {} (similarity {})",
+                    match.feedbackId(), entry.getId(), match.similarity());
+            enhancedEntry.setCategory(match.category());
+            enhancedEntry.setActionableInsight(match.actionableInsight());
+            enhancedEntry.setEnhancedAt(LocalDateTime.now());
+            return enhancedEntry;
+        }
 
+        long start = System.nanoTime();
         try {
-            String response = geminiService.generateContent(prompt);
+            String response = geminiService.generateContent(promptTemplateRegistry.getEnhancementTemplate(),
+                    entry.getComment(), entry.getDepartment(), entry.getSentiment());
+            StageMetrics.Sample parse = stageMetrics.start(StageMetrics.Stage.AI_PARSE);
             String jsonResponse = response.trim();
 
-            Pattern categoryPattern = Pattern.compile("\"category\"\\s*:\\s*\"([^\"]+)\"");
-            Matcher categoryMatcher = categoryPattern.matcher(jsonResponse);
+            Matcher categoryMatcher = CATEGORY_PATTERN.matcher(jsonResponse);
             if (categoryMatcher.find()) {
                 enhancedEntry.setCategory(categoryMatcher.group(1));
             } else {
                 enhancedEntry.setCategory("Uncategorized");
             }
 
-            Pattern insightPattern = Pattern.compile("\"actionableInsight\"\\s*:\\s*\"([^\"]+)\"");
-            Matcher insightMatcher = insightPattern.matcher(jsonResponse);
+            Matcher insightMatcher = INSIGHT_PATTERN.matcher(jsonResponse);
             if (insightMatcher.find()) {
                 enhancedEntry.setActionableInsight(insightMatcher.group(1));
             } else {
                 enhancedEntry.setActionableInsight("No specific action recommended.");
             }
+            parse.stop(true);
+            nearDuplicates.record(lookup, enhancedEntry);
 
         } catch (Exception e) {
             log.warn("Failed to enhance feedback ID {}: {}", entry.getId(), e.getMessage());
-            enhancedEntry.setCategory("Error in processing");
+            enhancedEntry.setCategory(ENHANCEMENT_ERROR_CATEGORY);
             enhancedEntry.setActionableInsight("Could not generate insight due to API error: " + e.getMessage());
+        } finally {
+            aiEnhancementCounter.increment();
+            aiEnhancementTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
         }
 
         enhancedEntry.setEnhancedAt(LocalDateTime.now());
         return enhancedEntry;
     }
 
-    public FeedbackSummary generateFeedbackSummary() throws IOException {
-        List<EnhancedFeedback> allFeedback = getEnhancedFeedback();
+    /**
+     * Reads the incrementally maintained summary; cost does not depend on how
+     * much feedback exists.
+     */
+    public FeedbackSummary generateFeedbackSummary() {
+        currentSnapshot();
+        return summaryView.getSummary();
+    }
 
-        Map<String, Integer> sentimentCounts = new HashMap<>();
-        for (EnhancedFeedback feedback : allFeedback) {
-            String sentiment = feedback.getSentiment();
-            sentimentCounts.put(sentiment, sentimentCounts.getOrDefault(sentiment, 0) + 1);
-        }
+    /**
+     * Sketch-based analytics for a date range; {@code null} bounds mean all
+     * time.
+     */
+    public SketchSummaryDto getSketchSummary(LocalDate from, LocalDate to) {
+        currentSnapshot();
+        return sketchView.summarize(from, to);
+    }
 
-        Map<String, Integer> categoryCounts = new HashMap<>();
-        for (EnhancedFeedback feedback : allFeedback) {
-            String category = feedback.getCategory();
-            categoryCounts.put(category, categoryCounts.getOrDefault(category, 0) + 1);
+    public TrendResponse getTrends(TrendGranularity granularity, LocalDateTime from, LocalDateTime to,
+                                   String department, String sentiment, String category) {
+        if (!from.isBefore(to)) {
+            throw new IllegalArgumentException("'from' must be before 'to'");
         }
+        currentSnapshot();
+        return trendRollupView.query(granularity, from, to, department, sentiment, category);
+    }
 
-        Map<String, Integer> departmentCounts = new HashMap<>();
-        for (EnhancedFeedback feedback : allFeedback) {
-            String department = feedback.getDepartment();
-            departmentCounts.put(department, departmentCounts.getOrDefault(department, 0) + 1);
+    /**
+     * One page of filtered feedback read from the query indexes; only the
+     * entries on the page are visited, however large the working set.
+     */
+    public FeedbackQueryView.Page queryFeedback(FeedbackSort sort, String department, String sentiment,
+                                                String category, LocalDate from, LocalDate to, String cursor,
+                                                int limit) {
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new IllegalArgumentException("'from' must not be after 'to'");
         }
-
-        List<EnhancedFeedback> recentFeedback = allFeedback.stream()
-                .sorted(Comparator.comparing(EnhancedFeedback::getId).reversed())
-                .limit(5)
-                .collect(Collectors.toList());
-
-        return FeedbackSummary.builder()
-                .totalFeedback(allFeedback.size())
-                .sentimentCounts(sentimentCounts)
-                .categoryCounts(categoryCounts)
-                .departmentCounts(departmentCounts)
-                .recentFeedback(recentFeedback)
-                .build();
+        currentSnapshot();
+        return queryView.query(sort, department, sentiment, category, from, to, cursor, limit);
     }
 
-    @Async("feedbackExecutor")
-    public CompletableFuture<EnhancedFeedback> enhanceFeedbackAsync(FeedbackEntry entry) {
-        try {
-            EnhancedFeedback enhanced = enhanceFeedback(entry);
-            return CompletableFuture.completedFuture(enhanced);
-        } catch (Exception e) {
-            log.error("Error enhancing feedback asynchronously for ID {}: {}", entry.getId(), e.getMessage(), e);
-            return CompletableFuture.failedFuture(e);
-        }
+    /**
+     * Entries whose comments best match {@code query}, ranked by BM25. The
+     * index follows the working set, so entries not yet enhanced are not
+     * found.
+     */
+    public SearchIndex.Result searchFeedback(String query, String department, String sentiment, int limit) {
+        currentSnapshot();
+        return searchIndex.search(query, department, sentiment, limit);
     }
 
-    public void saveEnhancedFeedback(EnhancedFeedback enhanced) {
+    /**
+     * Persists the entries with a single repository write and publishes them
+     * to the working set.
+     */
+    public synchronized void saveAllEnhancedFeedback(List<EnhancedFeedback> enhancedEntries) {
         try {
-            FeedbackEntry entry = new FeedbackEntry();
-            entry.setId(enhanced.getId());
-            entry.setDate(enhanced.getDate() != null ? enhanced.getDate() : java.time.LocalDate.now());
-            entry.setCustomer(enhanced.getCustomer());
-            entry.setDepartment(enhanced.getDepartment());
-            entry.setComment(enhanced.getComment());
-            entry.setSentiment(enhanced.getSentiment());
+            List<FeedbackEntry> entries = new ArrayList<>(enhancedEntries.size());
+            for (EnhancedFeedback enhanced : enhancedEntries) {
+                FeedbackEntry entry = new FeedbackEntry();
+                entry.setId(enhanced.getId());
+                entry.setDate(enhanced.getDate() != null ? enhanced.getDate() : java.time.LocalDate.now());
+                entry.setCustomer(enhanced.getCustomer());
+                entry.setDepartment(enhanced.getDepartment());
+                entry.setComment(enhanced.getComment());
+                entry.setSentiment(enhanced.getSentiment());
+                entries.add(entry);
+            }
             
-            feedbackRepository.save(entry);
-            clearCache();
-            log.info("Saved enhanced feedback ID: {}", enhanced.getId());
+            feedbackRepository.saveAll(entries);
+            feedbackProcessedCounter.increment(entries.size());
+            enhancedEntries.forEach(this::putEntry);
+            requestRefresh(false, false);
+            log.info("Saved {} enhanced feedback entries", enhancedEntries.size());
         } catch (IOException e) {
             log.error("Error saving enhanced feedback: {}", e.getMessage(), e);
             throw new RuntimeException("Failed to save feedback", e);
         }
     }
 
-    public void clearCache() {
-        enhancedFeedbackCache = null;
+    public synchronized void deleteFeedback(Long id) {
+        if (feedbackRepository.findById(id).isEmpty()) {
+            throw new FeedbackNotFoundException(id);
+        }
+
+        try {
+            feedbackRepository.deleteById(id);
+            removeEntry(id);
+            deletedDuringRefresh.add(id);
+            requestRefresh(false, false);
+            log.info("Deleted feedback ID: {}", id);
+        } catch (IOException e) {
+            log.error("Error deleting feedback ID {}: {}", id, e.getMessage(), e);
+            throw new RuntimeException("Failed to delete feedback", e);
+        }
+    }
+
+    /** Immutable view handed to readers; replaced wholesale, never mutated. */
+    private static final class FeedbackSnapshot {
+        private static final FeedbackSnapshot EMPTY = new FeedbackSnapshot(List.of(), Instant.EPOCH, false);
+
+        private final List<EnhancedFeedback> entries;
+        private final Instant publishedAt;
+        private final boolean complete;
+
+        private FeedbackSnapshot(List<EnhancedFeedback> entries, Instant publishedAt, boolean complete) {
+            this.entries = entries;
+            this.publishedAt = publishedAt;
+            this.complete = complete;
+        }
+
+        private List<EnhancedFeedback> getEntries() {
+            return entries;
+        }
+
+        private boolean isComplete() {
+            return complete;
+        }
+
+        private Duration age() {
+            return Duration.between(publishedAt, Instant.now());
+        }
+    }
+
+    private record PendingEnhancement(FeedbackEntry entry, EnhancedFeedback previous) {
+    }
+
+    private static final class RebuildProgress {
+        private final int total;
+        private final AtomicInteger completed = new AtomicInteger();
+        private final AtomicInteger failed = new AtomicInteger();
+        private final LocalDateTime startedAt = LocalDateTime.now();
+        private volatile LocalDateTime finishedAt;
+
+        private RebuildProgress(int total) {
+            this.total = total;
+        }
+
+        private void record(boolean failure) {
+            int done = completed.incrementAndGet();
+            if (failure) {
+                failed.incrementAndGet();
+            }
+            // Log roughly every 10% so long rebuilds stay visible without flooding the log
+            int step = Math.max(1, total / 10);
+            if (done % step == 0 && done < total) {
+                log.info("Enhanced feedback cache rebuild progress: {}/{}", done, total);
+            }
+        }
+
+        private void finish() {
+            finishedAt = LocalDateTime.now();
+        }
+
+        private CacheRebuildStatus toStatus() {
+            int done = completed.get();
+            return CacheRebuildStatus.builder()
+                    .running(finishedAt == null)
+                    .total(total)
+                    .completed(done)
+                    .failed(failed.get())
+                    .percentage(total == 0 ? 100.0 : (double) done / total * 100)
+                    .startedAt(startedAt)
+                    .finishedAt(finishedAt)
+                    .build();
+        }
     }
 }
@@ -4,13 +4,20 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.retailstore.feedback.config.GeminiConfig;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.retailstore.feedback.exception.ExternalApiException;
+import com.retailstore.feedback.service.metrics.StageMetrics;
+import com.retailstore.feedback.service.prompt.PromptTemplate;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import okhttp3.*;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
+import java.util.concurrent.TimeUnit;
 
 @Service
 @Slf4j
@@ -20,10 +27,33 @@ public class GeminiService {
     private final OkHttpClient httpClient;
     private final ObjectMapper objectMapper;
     private final GeminiConfig geminiConfig;
+    private final MeterRegistry meterRegistry;
+    private final StageMetrics stageMetrics;
     
     private static final MediaType JSON = MediaType.get("application/json; charset=utf-8");
 
+    private static final PromptTemplate.GenerationSettings DEFAULT_SETTINGS = PromptTemplate.GenerationSettings.builder()
+            .temperature(0.7)
+            .maxOutputTokens(1024)
+            .build();
+
+    private static final String ADHOC_PROMPT_ID = "adhoc";
+
     public String generateContent(String prompt) {
+        return generateContent(prompt, DEFAULT_SETTINGS, ADHOC_PROMPT_ID);
+    }
+
+    /**
+     * Renders {@code template} with {@code parameters} and sends it with the
+     * template's own generation settings. Token usage reported by the API is
+     * recorded under the template id.
+     */
+    public String generateContent(PromptTemplate template, String... parameters) {
+        return generateContent(template.render(parameters), template.getGenerationSettings(), template.getId());
+    }
+
+    private String generateContent(String prompt, PromptTemplate.GenerationSettings settings, String promptId) {
+        long start = System.nanoTime();
         try {
             ObjectNode requestBody = objectMapper.createObjectNode();
             ArrayNode contents = objectMapper.createArrayNode();
@@ -38,8 +68,11 @@ public class GeminiService {
             requestBody.set("contents", contents);
 
             ObjectNode generationConfig = objectMapper.createObjectNode();
-            generationConfig.put("temperature", 0.7);
-            generationConfig.put("maxOutputTokens", 1024);
+            generationConfig.put("temperature", settings.getTemperature());
+            generationConfig.put("maxOutputTokens", settings.getMaxOutputTokens());
+            if (settings.getResponseMimeType() != null) {
+                generationConfig.put("responseMimeType", settings.getResponseMimeType());
+            }
             requestBody.set("generationConfig", generationConfig);
 
             String url = geminiConfig.getApi().getUrl() + "?key=" + geminiConfig.getApiKey();
@@ -49,7 +82,7 @@ public class GeminiService {
                     .post(RequestBody.create(requestBody.toString(), JSON))
                     .build();
 
-            try (Response response = httpClient.newCall(request).execute()) {
+            try (Response response = execute(request)) {
                 if (!response.isSuccessful()) {
                     String errorBody = response.body() != null ? response.body().string() : "No error body";
                     log.error("Gemini API call failed with status: {} - Response: {}", response.code(), errorBody);
@@ -59,18 +92,46 @@ public class GeminiService {
                     );
                 }
 
-                String responseBody = response.body().string();
-                return parseResponse(responseBody);
+                StageMetrics.Sample read = stageMetrics.start(StageMetrics.Stage.AI_RESPONSE);
+                boolean success = false;
+                try {
+                    String text = parseResponse(response.body().string(), promptId);
+                    success = true;
+                    return text;
+                } finally {
+                    read.stop(success);
+                }
             }
 
         } catch (IOException e) {
             log.error("Error calling Gemini API: {}", e.getMessage(), e);
             throw new ExternalApiException("Failed to call Gemini API: " + e.getMessage(), 502);
+        } finally {
+            Timer.builder("ai.prompt.duration")
+                    .description("Gemini round-trip time per prompt version")
+                    .tag("prompt", promptId)
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
         }
     }
 
-    private String parseResponse(String responseBody) throws IOException {
+    /** Sends the request and waits for the response headers; the body is read by the caller. */
+    private Response execute(Request request) throws IOException {
+        StageMetrics.Sample sample = stageMetrics.start(StageMetrics.Stage.AI_REQUEST);
+        boolean success = false;
+        try {
+            Response response = httpClient.newCall(request).execute();
+            success = response.isSuccessful();
+            return response;
+        } finally {
+            sample.stop(success);
+        }
+    }
+
+    private String parseResponse(String responseBody, String promptId) throws IOException {
         ObjectNode responseJson = (ObjectNode) objectMapper.readTree(responseBody);
+        recordUsage(responseJson.get("usageMetadata"), promptId);
+
         ArrayNode candidates = (ArrayNode) responseJson.get("candidates");
 
         if (candidates != null && candidates.size() > 0) {
@@ -87,6 +148,28 @@ public class GeminiService {
         return "No response from Gemini";
     }
 
+    private void recordUsage(JsonNode usageMetadata, String promptId) {
+        if (usageMetadata == null) {
+            return;
+        }
+        recordTokens(promptId, "prompt", usageMetadata.get("promptTokenCount"));
+        recordTokens(promptId, "output", usageMetadata.get("candidatesTokenCount"));
+        recordTokens(promptId, "total", usageMetadata.get("totalTokenCount"));
+    }
+
+    private void recordTokens(String promptId, String type, JsonNode count) {
+        if (count == null || !count.canConvertToLong()) {
+            return;
+        }
+        DistributionSummary.builder("ai.tokens")
+                .description("Gemini token usage per call")
+                .baseUnit("tokens")
+                .tag("prompt", promptId)
+                .tag("type", type)
+                .register(meterRegistry)
+                .record(count.asLong());
+    }
+
     public boolean testConnection() {
         try {
             String testPrompt = "Say 'Hello, World!' if you can hear me.";
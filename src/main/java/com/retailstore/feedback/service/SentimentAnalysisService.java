@@ -1,11 +1,15 @@
 package com.retailstore.feedback.service;
 
+import com.retailstore.feedback.service.metrics.StageMetrics;
 import edu.stanford.nlp.pipeline.CoreDocument;
 import edu.stanford.nlp.pipeline.CoreSentence;
 import edu.stanford.nlp.pipeline.StanfordCoreNLP;
+import io.micrometer.core.instrument.Counter;
 import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 
 import java.util.HashMap;
@@ -15,8 +19,13 @@ import java.util.Properties;
 
 @Service
 @Slf4j
+@RequiredArgsConstructor
 public class SentimentAnalysisService {
 
+    @Qualifier("sentimentAnalysisCounter")
+    private final Counter sentimentAnalysisCounter;
+    private final StageMetrics stageMetrics;
+
     private StanfordCoreNLP pipeline;
 
     @PostConstruct
@@ -32,7 +41,15 @@ public class SentimentAnalysisService {
         }
 
         CoreDocument doc = new CoreDocument(comment);
-        pipeline.annotate(doc);
+        StageMetrics.Sample annotate = stageMetrics.start(StageMetrics.Stage.NLP_ANNOTATE);
+        boolean success = false;
+        try {
+            pipeline.annotate(doc);
+            success = true;
+        } finally {
+            annotate.stop(success);
+        }
+        sentimentAnalysisCounter.increment();
         List<CoreSentence> sentences = doc.sentences();
 
         if (sentences.isEmpty()) {
@@ -0,0 +1,188 @@
+package com.retailstore.feedback.service.admission;
+
+import com.retailstore.feedback.config.FeedbackConfig;
+import com.retailstore.feedback.service.ingest.DurableIngestQueue;
+import com.retailstore.feedback.service.pipeline.FeedbackPipeline;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decides at the door whether an ingestion request can be served in time,
+ * so overload turns into fast 429/503 responses with {@code Retry-After}
+ * instead of request threads piling up behind the pipeline.
+ *
+ * <p>The queue wait is estimated as backlog divided by service rate, where
+ * the rate is a moving average of pipeline completions per second sampled
+ * every {@code rate-sample-interval}. Until the first completion there is no
+ * estimate and only the concurrency limits and pipeline capacity apply.
+ */
+@Component
+@Slf4j
+public class AdmissionControl {
+
+    /** Weight of the newest rate sample. */
+    private static final double RATE_SMOOTHING = 0.3;
+
+    private final FeedbackConfig.Admission config;
+    private final FeedbackPipeline feedbackPipeline;
+    private final DurableIngestQueue ingestQueue;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<IngestEndpoint, Semaphore> slots = new EnumMap<>(IngestEndpoint.class);
+    private final Map<IngestEndpoint, Counter> admittedCounters = new EnumMap<>(IngestEndpoint.class);
+    private final Map<IngestEndpoint, Counter> concurrencyShed = new EnumMap<>(IngestEndpoint.class);
+    private final Map<IngestEndpoint, Counter> queueWaitShed = new EnumMap<>(IngestEndpoint.class);
+
+    private ScheduledExecutorService sampler;
+    private long lastCompleted;
+    private long lastSampleNanos;
+    /** Completions per second; negative until the pipeline has completed anything. */
+    private volatile double serviceRate = -1;
+
+    public AdmissionControl(FeedbackConfig feedbackConfig, FeedbackPipeline feedbackPipeline,
+                            DurableIngestQueue ingestQueue, MeterRegistry meterRegistry) {
+        this.config = feedbackConfig.getAdmission();
+        this.feedbackPipeline = feedbackPipeline;
+        this.ingestQueue = ingestQueue;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    void start() {
+        for (IngestEndpoint endpoint : IngestEndpoint.values()) {
+            slots.put(endpoint, new Semaphore(Math.max(1, endpoint.limit(config).getMaxConcurrent())));
+            admittedCounters.put(endpoint, Counter.builder("feedback.admission.admitted")
+                    .description("Ingestion requests let through admission control")
+                    .tag("endpoint", endpoint.tag())
+                    .register(meterRegistry));
+            concurrencyShed.put(endpoint, shedCounter(endpoint, "concurrency"));
+            queueWaitShed.put(endpoint, shedCounter(endpoint, "queue-wait"));
+        }
+        Gauge.builder("feedback.admission.service.rate", this, control -> Math.max(0, control.serviceRate))
+                .description("Smoothed pipeline completions per second used for the wait estimate")
+                .register(meterRegistry);
+        Gauge.builder("feedback.admission.estimated.wait", this,
+                        control -> control.estimatedWaitSeconds(control.feedbackPipeline.inFlight()))
+                .description("Estimated seconds a newly admitted entry waits for the pipeline")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+
+        lastCompleted = feedbackPipeline.completedCount();
+        lastSampleNanos = System.nanoTime();
+        CustomizableThreadFactory threads = new CustomizableThreadFactory("admission-rate-");
+        threads.setDaemon(true);
+        sampler = Executors.newSingleThreadScheduledExecutor(threads);
+        long interval = config.getRateSampleInterval().toMillis();
+        sampler.scheduleAtFixedRate(this::sampleRate, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        sampler.shutdownNow();
+    }
+
+    /**
+     * Admits or sheds one request to {@code endpoint}. An admitted decision
+     * must be closed when the request finishes.
+     */
+    public AdmissionDecision tryAdmit(IngestEndpoint endpoint) {
+        if (!config.isEnabled()) {
+            return AdmissionDecision.unlimited();
+        }
+
+        Semaphore endpointSlots = slots.get(endpoint);
+        if (!endpointSlots.tryAcquire()) {
+            concurrencyShed.get(endpoint).increment();
+            log.debug("Shedding {} request: concurrency limit reached", endpoint.tag());
+            return AdmissionDecision.rejected(HttpStatus.TOO_MANY_REQUESTS, 1);
+        }
+
+        double waitSeconds = estimatedWaitSeconds(backlog(endpoint));
+        double maxWaitSeconds = endpoint.limit(config).getMaxQueueWait().toMillis() / 1000.0;
+        if (waitSeconds > maxWaitSeconds) {
+            endpointSlots.release();
+            queueWaitShed.get(endpoint).increment();
+            log.debug("Shedding {} request: estimated wait {}s exceeds {}s",
+                    endpoint.tag(), Math.round(waitSeconds), Math.round(maxWaitSeconds));
+            return AdmissionDecision.rejected(HttpStatus.SERVICE_UNAVAILABLE,
+                    retryAfterSeconds(waitSeconds - maxWaitSeconds));
+        }
+
+        admittedCounters.get(endpoint).increment();
+        return AdmissionDecision.admitted(endpointSlots::release);
+    }
+
+    /** Seconds until the current pipeline backlog should have drained, for {@code Retry-After}. */
+    public long retryAfterSeconds() {
+        return retryAfterSeconds(estimatedWaitSeconds(feedbackPipeline.inFlight()));
+    }
+
+    private int backlog(IngestEndpoint endpoint) {
+        int backlog = feedbackPipeline.inFlight();
+        if (endpoint == IngestEndpoint.RAW_ASYNC) {
+            // Queued submissions are processed before a new one
+            backlog += ingestQueue.waiting();
+        }
+        return backlog;
+    }
+
+    private double estimatedWaitSeconds(int backlog) {
+        double rate = serviceRate;
+        if (rate < 0 || backlog == 0) {
+            return 0;
+        }
+        return rate == 0 ? Double.POSITIVE_INFINITY : backlog / rate;
+    }
+
+    private static long retryAfterSeconds(double seconds) {
+        if (Double.isInfinite(seconds)) {
+            return 60;
+        }
+        return Math.max(1, (long) Math.ceil(seconds));
+    }
+
+    private void sampleRate() {
+        long completed = feedbackPipeline.completedCount();
+        long now = System.nanoTime();
+        long delta = completed - lastCompleted;
+        double elapsedSeconds = (now - lastSampleNanos) / 1e9;
+        lastCompleted = completed;
+        lastSampleNanos = now;
+
+        // An idle pipeline says nothing about its speed; a busy one that completes nothing is stalled
+        if (delta == 0 && feedbackPipeline.inFlight() == 0) {
+            return;
+        }
+        double sample = delta / elapsedSeconds;
+        double rate = serviceRate;
+        if (rate < 0) {
+            if (delta > 0) {
+                serviceRate = sample;
+            }
+            return;
+        }
+        serviceRate = RATE_SMOOTHING * sample + (1 - RATE_SMOOTHING) * rate;
+    }
+
+    private Counter shedCounter(IngestEndpoint endpoint, String reason) {
+        return Counter.builder("feedback.admission.shed")
+                .description("Ingestion requests refused by admission control")
+                .tag("endpoint", endpoint.tag())
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,55 @@
+package com.retailstore.feedback.service.admission;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * Outcome of {@link AdmissionControl#tryAdmit}. An admitted request holds a
+ * slot of its endpoint until {@link #close()}.
+ */
+public final class AdmissionDecision implements AutoCloseable {
+
+    private static final AdmissionDecision UNLIMITED = new AdmissionDecision(null, 0, null);
+
+    private final HttpStatus rejectionStatus;
+    private final long retryAfterSeconds;
+    private Runnable release;
+
+    private AdmissionDecision(HttpStatus rejectionStatus, long retryAfterSeconds, Runnable release) {
+        this.rejectionStatus = rejectionStatus;
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.release = release;
+    }
+
+    static AdmissionDecision admitted(Runnable release) {
+        return new AdmissionDecision(null, 0, release);
+    }
+
+    static AdmissionDecision unlimited() {
+        return UNLIMITED;
+    }
+
+    static AdmissionDecision rejected(HttpStatus status, long retryAfterSeconds) {
+        return new AdmissionDecision(status, retryAfterSeconds, null);
+    }
+
+    public boolean isAdmitted() {
+        return rejectionStatus == null;
+    }
+
+    /** 429 when the endpoint is at its concurrency limit, 503 when the queue wait is too long. */
+    public HttpStatus getRejectionStatus() {
+        return rejectionStatus;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (release != null) {
+            release.run();
+            release = null;
+        }
+    }
+}
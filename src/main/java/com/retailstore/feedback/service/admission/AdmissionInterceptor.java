@@ -0,0 +1,56 @@
+package com.retailstore.feedback.service.admission;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Applies {@link AdmissionControl} to the POST requests of one ingestion
+ * endpoint before the controller runs. Browser form posts are redirected back
+ * to the form instead of receiving a bare error status.
+ */
+public class AdmissionInterceptor implements HandlerInterceptor {
+
+    private static final String DECISION_ATTRIBUTE = AdmissionInterceptor.class.getName() + ".decision";
+
+    private final AdmissionControl admissionControl;
+    private final IngestEndpoint endpoint;
+    private final String busyRedirect;
+
+    public AdmissionInterceptor(AdmissionControl admissionControl, IngestEndpoint endpoint, String busyRedirect) {
+        this.admissionControl = admissionControl;
+        this.endpoint = endpoint;
+        this.busyRedirect = busyRedirect;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
+            throws Exception {
+        if (!"POST".equals(request.getMethod())) {
+            return true;
+        }
+
+        AdmissionDecision decision = admissionControl.tryAdmit(endpoint);
+        if (decision.isAdmitted()) {
+            request.setAttribute(DECISION_ATTRIBUTE, decision);
+            return true;
+        }
+
+        if (busyRedirect != null) {
+            response.sendRedirect(request.getContextPath() + busyRedirect);
+            return false;
+        }
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(decision.getRetryAfterSeconds()));
+        response.sendError(decision.getRejectionStatus().value(), "Ingestion is overloaded, retry later");
+        return false;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        if (request.getAttribute(DECISION_ATTRIBUTE) instanceof AdmissionDecision decision) {
+            decision.close();
+        }
+    }
+}
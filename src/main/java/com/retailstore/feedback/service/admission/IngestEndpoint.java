@@ -0,0 +1,33 @@
+package com.retailstore.feedback.service.admission;
+
+import com.retailstore.feedback.config.FeedbackConfig;
+
+/** Ingestion endpoints with their own admission limits. */
+public enum IngestEndpoint {
+    RAW("raw"),
+    RAW_ASYNC("raw-async"),
+    BATCH("batch"),
+    BATCH_ASYNC("batch-async"),
+    BATCH_STREAM("batch-stream");
+
+    private final String tag;
+
+    IngestEndpoint(String tag) {
+        this.tag = tag;
+    }
+
+    /** Metric tag value, matching the property name under {@code feedback.admission}. */
+    public String tag() {
+        return tag;
+    }
+
+    FeedbackConfig.EndpointLimit limit(FeedbackConfig.Admission config) {
+        return switch (this) {
+            case RAW -> config.getRaw();
+            case RAW_ASYNC -> config.getRawAsync();
+            case BATCH -> config.getBatch();
+            case BATCH_ASYNC -> config.getBatchAsync();
+            case BATCH_STREAM -> config.getBatchStream();
+        };
+    }
+}
@@ -0,0 +1,76 @@
+package com.retailstore.feedback.service.analytics;
+
+/**
+ * Count-Min sketch over strings. Estimates never undercount; with
+ * probability {@code 1 - e^-depth} they overcount by at most
+ * {@code (e / width) * totalCount}. Negative updates are accepted so counts
+ * can be withdrawn when feedback is deleted. Sketches of equal dimensions
+ * merge by cell-wise addition. Not thread-safe.
+ */
+public class CountMinSketch {
+
+    private final int width;
+    private final int depth;
+    private final long[][] counts;
+    private long totalCount;
+
+    public CountMinSketch(int width, int depth) {
+        if (width < 1 || depth < 1) {
+            throw new IllegalArgumentException("Count-Min sketch width and depth must be positive");
+        }
+        this.width = width;
+        this.depth = depth;
+        this.counts = new long[depth][width];
+    }
+
+    public void add(String item, long count) {
+        long hash = SketchHashing.hash64(item);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int row = 0; row < depth; row++) {
+            counts[row][bucket(h1, h2, row)] += count;
+        }
+        totalCount += count;
+    }
+
+    public long estimate(String item) {
+        long hash = SketchHashing.hash64(item);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        long min = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            min = Math.min(min, counts[row][bucket(h1, h2, row)]);
+        }
+        return Math.max(0, min);
+    }
+
+    public void merge(CountMinSketch other) {
+        if (other.width != width || other.depth != depth) {
+            throw new IllegalArgumentException("Cannot merge Count-Min sketches of different dimensions");
+        }
+        for (int row = 0; row < depth; row++) {
+            for (int column = 0; column < width; column++) {
+                counts[row][column] += other.counts[row][column];
+            }
+        }
+        totalCount += other.totalCount;
+    }
+
+    public long getTotalCount() {
+        return totalCount;
+    }
+
+    /** Additive error bound that holds with probability {@link #confidence()}. */
+    public long maxOverestimate() {
+        return (long) Math.ceil(Math.E / width * totalCount);
+    }
+
+    public double confidence() {
+        return 1 - Math.exp(-depth);
+    }
+
+    private int bucket(int h1, int h2, int row) {
+        // Kirsch-Mitzenmacher: derive each row's hash from two base hashes
+        return Math.floorMod(h1 + row * h2, width);
+    }
+}
@@ -0,0 +1,203 @@
+package com.retailstore.feedback.service.analytics;
+
+import com.retailstore.feedback.config.FeedbackConfig;
+import com.retailstore.feedback.model.EnhancedFeedback;
+import com.retailstore.feedback.model.dto.SketchSummaryDto;
+import com.retailstore.feedback.model.dto.TermFrequency;
+import com.retailstore.feedback.service.text.FeedbackTokenizer;
+import com.retailstore.feedback.service.view.FeedbackChangeListener;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+/**
+ * Sketch-based analytics fed from every change to the working set: a
+ * HyperLogLog of customers per department and heavy-hitter terms from
+ * negative comments. Sketches are kept per day so any date range can be
+ * answered by merging buckets; days older than the retention window are
+ * folded into a single archive bucket.
+ *
+ * <p>Term counts are withdrawn when feedback is deleted or its comment
+ * changes. Distinct-customer counts are not, since HyperLogLog cannot remove
+ * values.
+ */
+@Component
+@RequiredArgsConstructor
+public class FeedbackSketchView implements FeedbackChangeListener {
+
+    private final FeedbackConfig feedbackConfig;
+    private final FeedbackTokenizer tokenizer;
+
+    private final TreeMap<LocalDate, DaySketches> daily = new TreeMap<>();
+    private DaySketches archive;
+    private DaySketches allTime;
+
+    private long version;
+    private long publishedVersion = -1;
+    private SketchSummaryDto published;
+
+    @Override
+    public synchronized void onUpsert(EnhancedFeedback previous, EnhancedFeedback current) {
+        LocalDate today = LocalDate.now();
+        LocalDate day = dayOf(current, today);
+
+        if (current.getCustomer() != null) {
+            bucketFor(day, today).addCustomer(current.getDepartment(), current.getCustomer());
+            allTime().addCustomer(current.getDepartment(), current.getCustomer());
+        }
+
+        boolean countedBefore = previous != null && isComplaint(previous);
+        boolean countNow = isComplaint(current);
+        boolean sameText = previous != null
+                && Objects.equals(previous.getComment(), current.getComment())
+                && dayOf(previous, today).equals(day);
+        if (countedBefore && (!countNow || !sameText)) {
+            addTerms(previous, -1, today);
+        }
+        if (countNow && (!countedBefore || !sameText)) {
+            addTerms(current, 1, today);
+        }
+
+        evictExpired(today);
+        version++;
+    }
+
+    @Override
+    public synchronized void onRemove(EnhancedFeedback removed) {
+        if (isComplaint(removed)) {
+            addTerms(removed, -1, LocalDate.now());
+            version++;
+        }
+    }
+
+    /**
+     * Summarizes the given date range by merging daily sketches; {@code null}
+     * bounds mean all time, which is served from a pre-merged sketch. A range
+     * reaching past the retention window is clamped to it.
+     */
+    public synchronized SketchSummaryDto summarize(LocalDate from, LocalDate to) {
+        if (from == null && to == null) {
+            if (publishedVersion != version) {
+                published = toDto(allTime(), null, null);
+                publishedVersion = version;
+            }
+            return published;
+        }
+
+        LocalDate today = LocalDate.now();
+        LocalDate start = from != null && !from.isBefore(cutoff(today)) ? from : cutoff(today);
+        LocalDate end = to != null ? to : today;
+        DaySketches merged = newSketches();
+        if (!start.isAfter(end)) {
+            daily.subMap(start, true, end, true).values().forEach(merged::merge);
+        }
+        return toDto(merged, start, end);
+    }
+
+    private void addTerms(EnhancedFeedback feedback, int delta, LocalDate today) {
+        DaySketches bucket = bucketFor(dayOf(feedback, today), today);
+        DaySketches total = allTime();
+        for (String term : tokenizer.tokenize(feedback.getComment())) {
+            bucket.complaintTerms.add(term, delta);
+            total.complaintTerms.add(term, delta);
+        }
+    }
+
+    private DaySketches bucketFor(LocalDate day, LocalDate today) {
+        if (day.isBefore(cutoff(today))) {
+            if (archive == null) {
+                archive = newSketches();
+            }
+            return archive;
+        }
+        return daily.computeIfAbsent(day, d -> newSketches());
+    }
+
+    private void evictExpired(LocalDate today) {
+        Map<LocalDate, DaySketches> expired = daily.headMap(cutoff(today));
+        if (expired.isEmpty()) {
+            return;
+        }
+        if (archive == null) {
+            archive = newSketches();
+        }
+        expired.values().forEach(archive::merge);
+        expired.clear();
+    }
+
+    private LocalDate cutoff(LocalDate today) {
+        return today.minusDays(feedbackConfig.getSketches().getRetentionDays());
+    }
+
+    private DaySketches allTime() {
+        if (allTime == null) {
+            allTime = newSketches();
+        }
+        return allTime;
+    }
+
+    private DaySketches newSketches() {
+        FeedbackConfig.Sketches config = feedbackConfig.getSketches();
+        return new DaySketches(config.getHllPrecision(),
+                new HeavyHitters(config.getTopTerms(), config.getCmsWidth(), config.getCmsDepth()));
+    }
+
+    private SketchSummaryDto toDto(DaySketches sketches, LocalDate from, LocalDate to) {
+        Map<String, Long> distinctCustomers = new HashMap<>();
+        sketches.customersByDepartment.forEach((department, hll) -> distinctCustomers.put(department, hll.estimate()));
+
+        List<TermFrequency> topTerms = sketches.complaintTerms.top().stream()
+                .map(entry -> new TermFrequency(entry.getKey(), entry.getValue()))
+                .toList();
+        CountMinSketch termSketch = sketches.complaintTerms.getSketch();
+
+        return SketchSummaryDto.builder()
+                .from(from)
+                .to(to)
+                .distinctCustomersByDepartment(distinctCustomers)
+                .distinctCustomersRelativeError(HyperLogLog.relativeStandardError(sketches.precision))
+                .topComplaintTerms(topTerms)
+                .termCountMaxOverestimate(termSketch.maxOverestimate())
+                .termCountConfidence(termSketch.confidence())
+                .build();
+    }
+
+    private static LocalDate dayOf(EnhancedFeedback feedback, LocalDate today) {
+        return feedback.getDate() != null ? feedback.getDate() : today;
+    }
+
+    private static boolean isComplaint(EnhancedFeedback feedback) {
+        return feedback.getSentiment() != null
+                && feedback.getSentiment().toUpperCase(Locale.ROOT).contains("NEGATIVE");
+    }
+
+    private static final class DaySketches {
+        private final int precision;
+        private final Map<String, HyperLogLog> customersByDepartment = new HashMap<>();
+        private final HeavyHitters complaintTerms;
+
+        private DaySketches(int precision, HeavyHitters complaintTerms) {
+            this.precision = precision;
+            this.complaintTerms = complaintTerms;
+        }
+
+        private void addCustomer(String department, String customer) {
+            String key = department != null ? department : "Unknown";
+            customersByDepartment.computeIfAbsent(key, k -> new HyperLogLog(precision))
+                    .add(customer.trim().toLowerCase(Locale.ROOT));
+        }
+
+        private void merge(DaySketches other) {
+            other.customersByDepartment.forEach((department, hll) ->
+                    customersByDepartment.computeIfAbsent(department, k -> new HyperLogLog(precision)).merge(hll));
+            complaintTerms.merge(other.complaintTerms);
+        }
+    }
+}
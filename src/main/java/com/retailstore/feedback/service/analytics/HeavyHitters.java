@@ -0,0 +1,94 @@
+package com.retailstore.feedback.service.analytics;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Approximate top-k frequent terms: a Count-Min sketch holds the counts and a
+ * min-heap keeps the k terms with the highest estimates seen so far. Only
+ * the heap's k terms are stored verbatim. Not thread-safe.
+ */
+public class HeavyHitters {
+
+    private final int k;
+    private final CountMinSketch sketch;
+    private final Map<String, Long> candidates = new HashMap<>();
+    private final PriorityQueue<String> heap = new PriorityQueue<>(Comparator.comparingLong(candidates::get));
+
+    public HeavyHitters(int k, int width, int depth) {
+        this.k = k;
+        this.sketch = new CountMinSketch(width, depth);
+    }
+
+    public void add(String term, long count) {
+        sketch.add(term, count);
+        long estimate = sketch.estimate(term);
+
+        if (candidates.containsKey(term)) {
+            heap.remove(term);
+            if (estimate <= 0) {
+                candidates.remove(term);
+            } else {
+                candidates.put(term, estimate);
+                heap.offer(term);
+            }
+            return;
+        }
+
+        if (count <= 0 || estimate <= 0) {
+            return;
+        }
+        if (candidates.size() < k) {
+            candidates.put(term, estimate);
+            heap.offer(term);
+        } else if (estimate > candidates.get(heap.peek())) {
+            candidates.remove(heap.poll());
+            candidates.put(term, estimate);
+            heap.offer(term);
+        }
+    }
+
+    /**
+     * Merges counts from {@code other} and re-ranks the union of both
+     * candidate sets against the merged sketch.
+     */
+    public void merge(HeavyHitters other) {
+        sketch.merge(other.sketch);
+
+        Set<String> terms = new HashSet<>(candidates.keySet());
+        terms.addAll(other.candidates.keySet());
+        heap.clear();
+        candidates.clear();
+        for (String term : terms) {
+            long estimate = sketch.estimate(term);
+            if (estimate <= 0) {
+                continue;
+            }
+            if (candidates.size() < k) {
+                candidates.put(term, estimate);
+                heap.offer(term);
+            } else if (estimate > candidates.get(heap.peek())) {
+                candidates.remove(heap.poll());
+                candidates.put(term, estimate);
+                heap.offer(term);
+            }
+        }
+    }
+
+    /** Terms ordered by estimated count, highest first. */
+    public List<Map.Entry<String, Long>> top() {
+        List<Map.Entry<String, Long>> top = new ArrayList<>(candidates.entrySet());
+        top.sort(Map.Entry.<String, Long>comparingByValue().reversed());
+        return top;
+    }
+
+    public CountMinSketch getSketch() {
+        return sketch;
+    }
+}
@@ -0,0 +1,36 @@
+package com.retailstore.feedback.service.analytics;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 64-bit string hash for sketches: FNV-1a over the UTF-8 bytes followed by
+ * the MurmurHash3 finalizer, which spreads FNV's weak low bits across the
+ * whole word.
+ */
+public final class SketchHashing {
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private SketchHashing() {
+    }
+
+    public static long hash64(String value) {
+        long hash = FNV_OFFSET;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= FNV_PRIME;
+        }
+        return mix64(hash);
+    }
+
+    /** The MurmurHash3 finalizer on its own, for values that are already 64 bits wide. */
+    public static long mix64(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -2,10 +2,9 @@ package com.retailstore.feedback.service.async;
 
 import com.retailstore.feedback.model.EnhancedFeedback;
 import com.retailstore.feedback.model.FeedbackEntry;
-import com.retailstore.feedback.service.FeedbackService;
+import com.retailstore.feedback.service.pipeline.FeedbackPipeline;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
@@ -18,13 +17,18 @@ public class AsyncFeedbackProcessor {
     
     private static final Logger log = LoggerFactory.getLogger(AsyncFeedbackProcessor.class);
     
-    private final FeedbackService feedbackService;
+    private final FeedbackPipeline feedbackPipeline;
     
-    public AsyncFeedbackProcessor(FeedbackService feedbackService) {
-        this.feedbackService = feedbackService;
+    public AsyncFeedbackProcessor(FeedbackPipeline feedbackPipeline) {
+        this.feedbackPipeline = feedbackPipeline;
     }
     
-    @Async("feedbackExecutor")
+    /**
+     * Admits the whole batch to the ingestion pipeline on the calling thread
+     * and returns a future completing once every entry is persisted or failed.
+     *
+     * @throws com.retailstore.feedback.exception.PipelineSaturatedException if the pipeline is full
+     */
     public CompletableFuture<BatchProcessingResult> processBatchAsync(
             List<FeedbackEntry> feedbackEntries,
             ProgressCallback progressCallback) {
@@ -41,9 +45,11 @@ public class AsyncFeedbackProcessor {
         List<CompletableFuture<EnhancedFeedback>> futures = new ArrayList<>();
         List<EnhancedFeedback> successfulResults = new ArrayList<>();
         List<String> errors = new ArrayList<>();
+        List<CompletableFuture<EnhancedFeedback>> admitted = feedbackPipeline.submitAll(feedbackEntries);
         
-        for (FeedbackEntry entry : feedbackEntries) {
-            CompletableFuture<EnhancedFeedback> future = feedbackService.enhanceFeedbackAsync(entry)
+        for (int i = 0; i < feedbackEntries.size(); i++) {
+            FeedbackEntry entry = feedbackEntries.get(i);
+            CompletableFuture<EnhancedFeedback> future = admitted.get(i)
                 .whenComplete((enhanced, throwable) -> {
                     int processed = processedCount.incrementAndGet();
                     
@@ -61,12 +67,14 @@ public class AsyncFeedbackProcessor {
                     }
                     
                     if (progressCallback != null) {
+                        progressCallback.onItemResult(entry, enhanced, throwable);
                         double progress = (double) processed / feedbackEntries.size() * 100;
                         progressCallback.onProgress(processed, feedbackEntries.size(), progress);
                     }
                 });
             
-            futures.add(future);
+            // Failures are already counted above; keep them from failing the whole batch
+            futures.add(future.exceptionally(ex -> null));
         }
         
         CompletableFuture<Void> allFutures = CompletableFuture.allOf(
@@ -100,6 +108,13 @@ public class AsyncFeedbackProcessor {
     public interface ProgressCallback {
         void onProgress(int processed, int total, double percentage);
         
+        /**
+         * Called once per entry before {@link #onProgress}; exactly one of
+         * {@code enhanced} and {@code error} is non-null.
+         */
+        default void onItemResult(FeedbackEntry entry, EnhancedFeedback enhanced, Throwable error) {
+        }
+        
         void onComplete(BatchProcessingResult result);
     }
     
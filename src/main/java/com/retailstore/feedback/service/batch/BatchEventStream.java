@@ -0,0 +1,212 @@
+package com.retailstore.feedback.service.batch;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.retailstore.feedback.config.FeedbackConfig;
+import com.retailstore.feedback.model.dto.BatchItemResult;
+import com.retailstore.feedback.model.dto.BatchItemsEvent;
+import com.retailstore.feedback.model.dto.BatchJobResponse;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pushes batch progress to SSE subscribers. Updates only mark a subscriber
+ * dirty and buffer item results; a single flusher sends at most one
+ * {@code progress} and one {@code items} event per subscriber every
+ * {@code feedback.batch.event-interval}, however fast items complete.
+ */
+@Component
+@Slf4j
+public class BatchEventStream {
+
+    private final FeedbackConfig feedbackConfig;
+    private final ObjectWriter eventWriter;
+    private final Map<String, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private ScheduledExecutorService flusher;
+
+    public BatchEventStream(FeedbackConfig feedbackConfig, ObjectMapper objectMapper) {
+        this.feedbackConfig = feedbackConfig;
+        // Each event's data must stay on a single line
+        this.eventWriter = objectMapper.writer().without(SerializationFeature.INDENT_OUTPUT);
+    }
+
+    @PostConstruct
+    void start() {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("batch-events-");
+        threadFactory.setDaemon(true);
+        flusher = Executors.newSingleThreadScheduledExecutor(threadFactory);
+        long interval = feedbackConfig.getBatch().getEventInterval().toMillis();
+        flusher.scheduleAtFixedRate(this::flushAll, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        flusher.shutdownNow();
+        subscribers.values().forEach(set -> set.forEach(subscriber -> subscriber.emitter.complete()));
+    }
+
+    /**
+     * Opens a stream for {@code job}. The current progress is sent right
+     * away; a job that already finished gets it followed by {@code complete}.
+     */
+    public SseEmitter subscribe(BatchJob job) {
+        SseEmitter emitter = new SseEmitter(feedbackConfig.getBatch().getEventTimeout().toMillis());
+        Subscriber subscriber = new Subscriber(job, emitter);
+
+        Set<Subscriber> forJob = subscribers.computeIfAbsent(job.getId(), id -> ConcurrentHashMap.newKeySet());
+        forJob.add(subscriber);
+        Runnable unsubscribe = () -> remove(subscriber);
+        emitter.onCompletion(unsubscribe);
+        emitter.onTimeout(unsubscribe);
+        emitter.onError(error -> unsubscribe.run());
+
+        subscriber.markDirty();
+        flush(subscriber);
+        return emitter;
+    }
+
+    void onItem(BatchJob job, BatchItemResult result) {
+        Set<Subscriber> forJob = subscribers.get(job.getId());
+        if (forJob != null) {
+            int maxItems = feedbackConfig.getBatch().getEventMaxItems();
+            forJob.forEach(subscriber -> subscriber.addItem(result, maxItems));
+        }
+    }
+
+    void onFinished(BatchJob job) {
+        Set<Subscriber> forJob = subscribers.get(job.getId());
+        if (forJob != null) {
+            // Pushed right away rather than on the next tick, but still from the flusher thread
+            forJob.forEach(subscriber -> {
+                subscriber.markDirty();
+                flusher.execute(() -> flush(subscriber));
+            });
+        }
+    }
+
+    private void flushAll() {
+        try {
+            subscribers.values().forEach(set -> set.forEach(this::flush));
+        } catch (RuntimeException e) {
+            // Never let one failure cancel the fixed-rate task
+            log.warn("Failed to push batch events: {}", e.getMessage(), e);
+        }
+    }
+
+    private void flush(Subscriber subscriber) {
+        // The emitter lock serializes sends; the subscriber lock is only held to swap the buffer,
+        // so pipeline threads adding items never wait on a slow client
+        synchronized (subscriber.emitter) {
+            BatchItemsEvent items;
+            synchronized (subscriber) {
+                if (!subscriber.dirty || subscriber.closed) {
+                    return;
+                }
+                subscriber.dirty = false;
+                items = subscriber.takeItems();
+            }
+
+            try {
+                if (items != null) {
+                    send(subscriber, "items", items);
+                }
+
+                BatchJobResponse progress = subscriber.job.toResponse();
+                // Errors already went out with their items; repeating them every push would grow each event
+                progress.setErrors(null);
+                send(subscriber, "progress", progress);
+
+                if (subscriber.job.getStatus().isFinished()) {
+                    send(subscriber, "complete", progress);
+                    close(subscriber);
+                    subscriber.emitter.complete();
+                }
+            } catch (IOException | IllegalStateException e) {
+                log.debug("Dropping batch event subscriber for {}: {}", subscriber.job.getId(), e.getMessage());
+                close(subscriber);
+                subscriber.emitter.completeWithError(e);
+                remove(subscriber);
+            }
+        }
+    }
+
+    private void close(Subscriber subscriber) {
+        synchronized (subscriber) {
+            subscriber.closed = true;
+        }
+    }
+
+    private void send(Subscriber subscriber, String name, Object data) throws IOException {
+        String json;
+        try {
+            json = eventWriter.writeValueAsString(data);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize batch event", e);
+        }
+        subscriber.emitter.send(SseEmitter.event().name(name).data(json));
+    }
+
+    private void remove(Subscriber subscriber) {
+        subscribers.computeIfPresent(subscriber.job.getId(), (id, set) -> {
+            set.remove(subscriber);
+            return set.isEmpty() ? null : set;
+        });
+    }
+
+    private static final class Subscriber {
+        private final BatchJob job;
+        private final SseEmitter emitter;
+        private List<BatchItemResult> items = new ArrayList<>();
+        private long dropped;
+        private boolean dirty;
+        private boolean closed;
+
+        private Subscriber(BatchJob job, SseEmitter emitter) {
+            this.job = job;
+            this.emitter = emitter;
+        }
+
+        private synchronized void markDirty() {
+            dirty = true;
+        }
+
+        /** Returns the buffered results and resets the buffer, or {@code null} if there are none. */
+        private BatchItemsEvent takeItems() {
+            if (items.isEmpty() && dropped == 0) {
+                return null;
+            }
+            BatchItemsEvent event = BatchItemsEvent.builder()
+                    .items(items)
+                    .dropped(dropped)
+                    .build();
+            items = new ArrayList<>();
+            dropped = 0;
+            return event;
+        }
+
+        private synchronized void addItem(BatchItemResult result, int maxItems) {
+            if (items.size() < maxItems) {
+                items.add(result);
+            } else {
+                dropped++;
+            }
+            dirty = true;
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.retailstore.feedback.service.batch;
+
+import com.retailstore.feedback.model.dto.BatchJobResponse;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Live state of one batch job. Counters are updated from executor threads
+ * while readers poll, so every field is either atomic or volatile.
+ */
+public class BatchJob {
+
+    /** Keeps a batch of bad entries from growing the job without bound. */
+    private static final int MAX_ERRORS = 100;
+
+    private final String id;
+    private final int totalSubmitted;
+    private final LocalDateTime createdAt;
+
+    private volatile BatchJobStatus status;
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime completedAt;
+
+    private final AtomicInteger processed = new AtomicInteger();
+    private final AtomicInteger successful = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+    private final List<String> errors = new ArrayList<>();
+
+    BatchJob(String id, int totalSubmitted, LocalDateTime createdAt, BatchJobStatus status) {
+        this.id = id;
+        this.totalSubmitted = totalSubmitted;
+        this.createdAt = createdAt;
+        this.status = status;
+    }
+
+    static BatchJob restore(BatchJobResponse record) {
+        BatchJob job = new BatchJob(record.getBatchId(), record.getTotalSubmitted(), record.getCreatedAt(),
+                BatchJobStatus.valueOf(record.getStatus()));
+        job.startedAt = record.getStartedAt();
+        job.completedAt = record.getCompletedAt();
+        job.processed.set(record.getProcessed());
+        job.successful.set(record.getSuccessful());
+        job.failed.set(record.getFailed());
+        if (record.getErrors() != null) {
+            job.errors.addAll(record.getErrors());
+        }
+        return job;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public int getTotalSubmitted() {
+        return totalSubmitted;
+    }
+
+    public BatchJobStatus getStatus() {
+        return status;
+    }
+
+    public int getProcessed() {
+        return processed.get();
+    }
+
+    void start() {
+        startedAt = LocalDateTime.now();
+        status = BatchJobStatus.RUNNING;
+    }
+
+    void finish(BatchJobStatus finalStatus) {
+        completedAt = LocalDateTime.now();
+        status = finalStatus;
+    }
+
+    void updateProcessed(int count) {
+        processed.accumulateAndGet(count, Math::max);
+    }
+
+    void recordSuccess() {
+        successful.incrementAndGet();
+    }
+
+    void recordFailure(String error) {
+        failed.incrementAndGet();
+        addError(error);
+    }
+
+    void addError(String error) {
+        synchronized (errors) {
+            if (errors.size() < MAX_ERRORS) {
+                errors.add(error);
+            }
+        }
+    }
+
+    public BatchJobResponse toResponse() {
+        int done = processed.get();
+        List<String> errorSnapshot;
+        synchronized (errors) {
+            errorSnapshot = List.copyOf(errors);
+        }
+        return BatchJobResponse.builder()
+                .batchId(id)
+                .status(status.name())
+                .totalSubmitted(totalSubmitted)
+                .processed(done)
+                .successful(successful.get())
+                .failed(failed.get())
+                .percentage(totalSubmitted == 0 ? 100.0 : (double) done / totalSubmitted * 100)
+                .errors(errorSnapshot)
+                .createdAt(createdAt)
+                .startedAt(startedAt)
+                .completedAt(completedAt)
+                .build();
+    }
+}
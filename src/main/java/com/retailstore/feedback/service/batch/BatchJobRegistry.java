@@ -0,0 +1,195 @@
+package com.retailstore.feedback.service.batch;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.retailstore.feedback.config.FeedbackConfig;
+import com.retailstore.feedback.model.dto.BatchJobResponse;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Bounded in-memory store of batch jobs backed by an append-only journal.
+ * Every state change appends the job's full state as one JSON line, so the
+ * last line per id wins on replay. Jobs that were queued or running when the
+ * service stopped come back as {@link BatchJobStatus#INTERRUPTED}. A bulk
+ * import run leaves the journal alone, since it belongs to the service.
+ */
+@Component
+@Slf4j
+public class BatchJobRegistry {
+
+    private final FeedbackConfig feedbackConfig;
+    private final ObjectWriter journalWriter;
+    private final ObjectReader journalReader;
+
+    /** Insertion-ordered so the oldest finished jobs are evicted first. */
+    private final Map<String, BatchJob> jobs = new LinkedHashMap<>();
+    private Path journalPath;
+    private int journalLines;
+
+    public BatchJobRegistry(FeedbackConfig feedbackConfig, ObjectMapper objectMapper) {
+        this.feedbackConfig = feedbackConfig;
+        this.journalWriter = objectMapper.writerFor(BatchJobResponse.class).without(SerializationFeature.INDENT_OUTPUT);
+        this.journalReader = objectMapper.readerFor(BatchJobResponse.class);
+    }
+
+    @PostConstruct
+    synchronized void recover() {
+        if (feedbackConfig.getBulkImport().getFile() != null) {
+            return;
+        }
+        journalPath = Paths.get(feedbackConfig.getBatch().getJournalPath());
+        if (!Files.exists(journalPath)) {
+            return;
+        }
+
+        Map<String, BatchJobResponse> latest = new LinkedHashMap<>();
+        try {
+            for (String line : Files.readAllLines(journalPath, StandardCharsets.UTF_8)) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    BatchJobResponse record = journalReader.readValue(line);
+                    latest.remove(record.getBatchId());
+                    latest.put(record.getBatchId(), record);
+                } catch (IOException e) {
+                    // A torn last line from a crash mid-append; everything before it is intact
+                    log.warn("Skipping unreadable batch journal line: {}", e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            log.error("Failed to read batch job journal {}: {}", journalPath, e.getMessage(), e);
+            return;
+        }
+
+        int interrupted = 0;
+        for (BatchJobResponse record : latest.values()) {
+            BatchJob job = BatchJob.restore(record);
+            if (!job.getStatus().isFinished()) {
+                job.addError("Service restarted before the batch finished");
+                job.finish(BatchJobStatus.INTERRUPTED);
+                interrupted++;
+            }
+            jobs.put(job.getId(), job);
+        }
+        evictFinished();
+        compactJournal();
+        log.info("Recovered {} batch jobs from journal ({} interrupted)", jobs.size(), interrupted);
+    }
+
+    public synchronized BatchJob create(int totalSubmitted) {
+        String id = "BATCH-" + UUID.randomUUID();
+        BatchJob job = new BatchJob(id, totalSubmitted, LocalDateTime.now(), BatchJobStatus.QUEUED);
+        jobs.put(id, job);
+        evictFinished();
+        append(job);
+        return job;
+    }
+
+    public synchronized Optional<BatchJob> find(String batchId) {
+        return Optional.ofNullable(jobs.get(batchId));
+    }
+
+    public synchronized void markRunning(BatchJob job) {
+        job.start();
+        append(job);
+    }
+
+    /**
+     * Journals progress roughly every 10% so a restart reports how far the job
+     * got without writing a line per entry.
+     */
+    public void recordProgress(BatchJob job, int processed) {
+        job.updateProcessed(processed);
+        int step = Math.max(1, job.getTotalSubmitted() / 10);
+        if (processed % step == 0) {
+            synchronized (this) {
+                append(job);
+            }
+        }
+    }
+
+    public synchronized void markFinished(BatchJob job, BatchJobStatus status) {
+        job.finish(status);
+        append(job);
+    }
+
+    /**
+     * Forgets a job that was never admitted. The journal is compacted right
+     * away so the job does not come back as interrupted after a restart.
+     */
+    public synchronized void discard(BatchJob job) {
+        if (jobs.remove(job.getId()) != null && journalPath != null) {
+            compactJournal();
+        }
+    }
+
+    private void evictFinished() {
+        int maxJobs = feedbackConfig.getBatch().getMaxJobs();
+        Iterator<BatchJob> iterator = jobs.values().iterator();
+        while (jobs.size() > maxJobs && iterator.hasNext()) {
+            if (iterator.next().getStatus().isFinished()) {
+                iterator.remove();
+            }
+        }
+    }
+
+    private void append(BatchJob job) {
+        if (journalPath == null) {
+            return;
+        }
+        try {
+            if (journalPath.getParent() != null) {
+                Files.createDirectories(journalPath.getParent());
+            }
+            try (BufferedWriter writer = Files.newBufferedWriter(journalPath, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                writer.write(journalWriter.writeValueAsString(job.toResponse()));
+                writer.write('\n');
+            }
+            journalLines++;
+            if (journalLines > feedbackConfig.getBatch().getMaxJobs() * 4) {
+                compactJournal();
+            }
+        } catch (IOException e) {
+            log.error("Failed to journal batch job {}: {}", job.getId(), e.getMessage(), e);
+        }
+    }
+
+    /** Rewrites the journal with one line per retained job. */
+    private void compactJournal() {
+        Path temp = journalPath.resolveSibling(journalPath.getFileName() + ".tmp");
+        try {
+            List<String> lines = new ArrayList<>(jobs.size());
+            for (BatchJob job : jobs.values()) {
+                lines.add(journalWriter.writeValueAsString(job.toResponse()));
+            }
+            Files.write(temp, lines, StandardCharsets.UTF_8);
+            Files.move(temp, journalPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            journalLines = lines.size();
+        } catch (IOException e) {
+            log.error("Failed to compact batch job journal {}: {}", journalPath, e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.retailstore.feedback.service.batch;
+
+import com.retailstore.feedback.model.EnhancedFeedback;
+import com.retailstore.feedback.model.FeedbackEntry;
+import com.retailstore.feedback.model.dto.BatchItemResult;
+import com.retailstore.feedback.service.async.AsyncFeedbackProcessor;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Runs submitted batches through the ingestion pipeline and keeps their
+ * state in the {@link BatchJobRegistry} for polling.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class BatchJobService {
+
+    private final AsyncFeedbackProcessor asyncFeedbackProcessor;
+    private final BatchJobRegistry batchJobRegistry;
+    private final BatchEventStream batchEventStream;
+
+    /**
+     * Registers the job as running before admission, since the first items
+     * may finish before admission returns. A batch refused with
+     * {@link com.retailstore.feedback.exception.PipelineSaturatedException}
+     * is discarded from the registry again before the exception propagates.
+     */
+    public BatchJob submit(List<FeedbackEntry> entries) {
+        BatchJob job = batchJobRegistry.create(entries.size());
+        batchJobRegistry.markRunning(job);
+        try {
+            asyncFeedbackProcessor.processBatchAsync(entries, new JobProgressCallback(job))
+                    .thenAccept(result -> {
+                        // processBatchAsync skips onComplete when the batch itself failed
+                        if (!result.isCompleted()) {
+                            result.getErrors().forEach(job::addError);
+                            finish(job, BatchJobStatus.FAILED);
+                        }
+                    });
+        } catch (RuntimeException e) {
+            batchJobRegistry.discard(job);
+            throw e;
+        }
+        log.info("Started batch {} with {} entries", job.getId(), entries.size());
+        return job;
+    }
+
+    private void finish(BatchJob job, BatchJobStatus status) {
+        batchJobRegistry.markFinished(job, status);
+        batchEventStream.onFinished(job);
+        log.info("Batch {} finished: {}", job.getId(), job.getStatus());
+    }
+
+    private class JobProgressCallback implements AsyncFeedbackProcessor.ProgressCallback {
+
+        private final BatchJob job;
+
+        private JobProgressCallback(BatchJob job) {
+            this.job = job;
+        }
+
+        @Override
+        public void onItemResult(FeedbackEntry entry, EnhancedFeedback enhanced, Throwable error) {
+            if (error == null) {
+                job.recordSuccess();
+                batchEventStream.onItem(job, BatchItemResult.builder()
+                        .feedbackId(entry.getId())
+                        .status("SUCCESS")
+                        .sentiment(enhanced.getSentiment())
+                        .category(enhanced.getCategory())
+                        .build());
+            } else {
+                job.recordFailure("Error processing feedback ID " + entry.getId() + ": " + error.getMessage());
+                batchEventStream.onItem(job, BatchItemResult.builder()
+                        .feedbackId(entry.getId())
+                        .status("FAILED")
+                        .error(error.getMessage())
+                        .build());
+            }
+        }
+
+        @Override
+        public void onProgress(int processed, int total, double percentage) {
+            batchJobRegistry.recordProgress(job, processed);
+        }
+
+        @Override
+        public void onComplete(AsyncFeedbackProcessor.BatchProcessingResult result) {
+            finish(job, BatchJobStatus.COMPLETED);
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.retailstore.feedback.service.batch;
+
+public enum BatchJobStatus {
+    QUEUED,
+    RUNNING,
+    COMPLETED,
+    FAILED,
+    /** The service stopped while the job was queued or running. */
+    INTERRUPTED;
+
+    public boolean isFinished() {
+        return this == COMPLETED || this == FAILED || this == INTERRUPTED;
+    }
+}
@@ -0,0 +1,315 @@
+package com.retailstore.feedback.service.dedup;
+
+import com.retailstore.feedback.config.FeedbackConfig;
+import com.retailstore.feedback.model.EnhancedFeedback;
+import com.retailstore.feedback.model.FeedbackEntry;
+import com.retailstore.feedback.service.analytics.SketchHashing;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Remembers recent Gemini enhancements by a MinHash signature of their
+ * comment, so a near-identical comment (a templated complaint, or the same
+ * text naming another store) can reuse the category and insight instead of
+ * costing another call.
+ *
+ * <p>Comments are normalised and split into overlapping character 5-grams.
+ * The 120-value signature is cut into 20 bands of 6 rows. Two comments become
+ * candidates when any band matches exactly, which is likely from a Jaccard
+ * similarity of about 0.6 up; one changed store name in a two-line comment
+ * still leaves about 0.75. Candidates are then checked against
+ * {@code feedback.dedup.similarity-threshold} using the share of equal
+ * signature values. Band keys include department and sentiment, because the
+ * prompt sees both and the answer may depend on them.
+ */
+@Component
+public class NearDuplicateIndex {
+
+    static final int SHINGLE_LENGTH = 5;
+    static final int BANDS = 20;
+    static final int ROWS = 6;
+    static final int SIGNATURE_LENGTH = BANDS * ROWS;
+
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+    private final FeedbackConfig.Dedup config;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    /** Oldest first; an entry that is enhanced again moves to the end. */
+    private final LinkedHashMap<Long, Remembered> byFeedbackId = new LinkedHashMap<>();
+    private final Map<Long, List<Remembered>> buckets = new HashMap<>();
+
+    private final Counter reused;
+    private final Counter missed;
+    private final DistributionSummary similarity;
+
+    public NearDuplicateIndex(FeedbackConfig feedbackConfig, MeterRegistry meterRegistry) {
+        this.config = feedbackConfig.getDedup();
+        this.reused = lookupCounter(meterRegistry, "reused");
+        this.missed = lookupCounter(meterRegistry, "miss");
+        this.similarity = DistributionSummary.builder("feedback.dedup.similarity")
+                .description("Estimated Jaccard similarity of the closest earlier comment, per lookup with a candidate")
+                .serviceLevelObjectives(0.5, 0.6, 0.7, 0.8, 0.85, 0.9, 0.95, 0.99)
+                .minimumExpectedValue(0.01)
+                .maximumExpectedValue(1.0)
+                .register(meterRegistry);
+        Gauge.builder("feedback.dedup.entries", this, NearDuplicateIndex::size)
+                .description("Enhancements remembered for near-duplicate reuse")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Signs {@code entry}'s comment and looks for a remembered enhancement of
+     * another entry that is similar enough to reuse. Pass the result to
+     * {@link #record} if Gemini is called after all.
+     */
+    public Lookup lookup(FeedbackEntry entry) {
+        if (!config.isEnabled()) {
+            return Lookup.DISABLED;
+        }
+        long[] signature = signature(entry.getComment());
+        if (signature == null) {
+            return Lookup.DISABLED;
+        }
+        String scope = scope(entry);
+        long ownId = entry.getId() != null ? entry.getId() : Long.MIN_VALUE;
+        long[] bandKeys = bandKeys(signature, scope);
+
+        Remembered best = null;
+        int bestEqual = -1;
+        lock.readLock().lock();
+        try {
+            Set<Remembered> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+            for (long bandKey : bandKeys) {
+                List<Remembered> bucket = buckets.get(bandKey);
+                if (bucket == null) {
+                    continue;
+                }
+                for (Remembered candidate : bucket) {
+                    // Never an entry's own earlier result, or a forced refresh would reuse it
+                    if (candidate.feedbackId == ownId || !candidate.scope.equals(scope)
+                            || !seen.add(candidate)) {
+                        continue;
+                    }
+                    int equal = equalValues(signature, candidate.signature);
+                    if (equal > bestEqual) {
+                        best = candidate;
+                        bestEqual = equal;
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        Match match = null;
+        if (best != null) {
+            double estimate = (double) bestEqual / SIGNATURE_LENGTH;
+            similarity.record(estimate);
+            if (estimate >= config.getSimilarityThreshold()) {
+                match = new Match(best.feedbackId, best.category, best.actionableInsight, estimate);
+            }
+        }
+        (match != null ? reused : missed).increment();
+        return new Lookup(signature, bandKeys, scope, match);
+    }
+
+    /** Makes a fresh Gemini result available for reuse, replacing any earlier one for the same entry. */
+    public void record(Lookup lookup, EnhancedFeedback enhanced) {
+        if (lookup.signature == null || enhanced.getId() == null) {
+            return;
+        }
+        Remembered remembered = new Remembered(enhanced.getId(), lookup.scope, lookup.signature, lookup.bandKeys,
+                enhanced.getCategory(), enhanced.getActionableInsight());
+        lock.writeLock().lock();
+        try {
+            Remembered previous = byFeedbackId.remove(remembered.feedbackId);
+            if (previous != null) {
+                forget(previous);
+            }
+            byFeedbackId.put(remembered.feedbackId, remembered);
+            for (long bandKey : remembered.bandKeys) {
+                buckets.computeIfAbsent(bandKey, key -> new ArrayList<>(1)).add(remembered);
+            }
+            Iterator<Remembered> oldest = byFeedbackId.values().iterator();
+            while (byFeedbackId.size() > config.getMaxEntries()) {
+                forget(oldest.next());
+                oldest.remove();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return byFeedbackId.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void forget(Remembered remembered) {
+        for (long bandKey : remembered.bandKeys) {
+            List<Remembered> bucket = buckets.get(bandKey);
+            if (bucket != null) {
+                bucket.removeIf(candidate -> candidate == remembered);
+                if (bucket.isEmpty()) {
+                    buckets.remove(bandKey);
+                }
+            }
+        }
+    }
+
+    /**
+     * MinHash over the character shingles of the normalised comment, or
+     * {@code null} for a comment with no letters or digits. Each of the 120
+     * hash functions is {@code h1 + i * h2} of the shingle's two base hashes.
+     */
+    static long[] signature(String comment) {
+        String text = normalize(comment);
+        if (text.isEmpty()) {
+            return null;
+        }
+        long[] signature = new long[SIGNATURE_LENGTH];
+        Arrays.fill(signature, Long.MAX_VALUE);
+        int shingles = Math.max(1, text.length() - SHINGLE_LENGTH + 1);
+        for (int start = 0; start < shingles; start++) {
+            int end = Math.min(text.length(), start + SHINGLE_LENGTH);
+            long hash = 0;
+            for (int i = start; i < end; i++) {
+                hash = hash * 31 + text.charAt(i);
+            }
+            long h1 = SketchHashing.mix64(hash);
+            long h2 = SketchHashing.mix64(h1 + GOLDEN_GAMMA) | 1;
+            long value = h1;
+            for (int i = 0; i < SIGNATURE_LENGTH; i++) {
+                if (value < signature[i]) {
+                    signature[i] = value;
+                }
+                value += h2;
+            }
+        }
+        return signature;
+    }
+
+    /** Lower case, with every run of punctuation and whitespace collapsed to one space. */
+    static String normalize(String comment) {
+        if (comment == null) {
+            return "";
+        }
+        StringBuilder text = new StringBuilder(comment.length());
+        boolean space = false;
+        for (int i = 0; i < comment.length(); i++) {
+            char c = Character.toLowerCase(comment.charAt(i));
+            if (Character.isLetterOrDigit(c)) {
+                if (space && !text.isEmpty()) {
+                    text.append(' ');
+                }
+                text.append(c);
+                space = false;
+            } else {
+                space = true;
+            }
+        }
+        return text.toString();
+    }
+
+    private static long[] bandKeys(long[] signature, String scope) {
+        long scopeHash = SketchHashing.hash64(scope);
+        long[] keys = new long[BANDS];
+        for (int band = 0; band < BANDS; band++) {
+            long key = scopeHash + band * GOLDEN_GAMMA;
+            for (int row = 0; row < ROWS; row++) {
+                key = SketchHashing.mix64(key ^ signature[band * ROWS + row]);
+            }
+            keys[band] = key;
+        }
+        return keys;
+    }
+
+    private static int equalValues(long[] a, long[] b) {
+        int equal = 0;
+        for (int i = 0; i < SIGNATURE_LENGTH; i++) {
+            if (a[i] == b[i]) {
+                equal++;
+            }
+        }
+        return equal;
+    }
+
+    private static String scope(FeedbackEntry entry) {
+        return (entry.getDepartment() != null ? entry.getDepartment().toLowerCase(Locale.ROOT) : "") + '\u0000'
+                + (entry.getSentiment() != null ? entry.getSentiment().toLowerCase(Locale.ROOT) : "");
+    }
+
+    private static Counter lookupCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("feedback.dedup.lookups")
+                .description("Enhancements answered from a near-duplicate comment, or sent to Gemini")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    /** @param feedbackId the entry whose enhancement is reused */
+    public record Match(long feedbackId, String category, String actionableInsight, double similarity) {
+    }
+
+    /** A comment's signature plus the reusable match, if there is one. */
+    public static final class Lookup {
+
+        static final Lookup DISABLED = new Lookup(null, null, null, null);
+
+        private final long[] signature;
+        private final long[] bandKeys;
+        private final String scope;
+        private final Match match;
+
+        private Lookup(long[] signature, long[] bandKeys, String scope, Match match) {
+            this.signature = signature;
+            this.bandKeys = bandKeys;
+            this.scope = scope;
+            this.match = match;
+        }
+
+        /** {@code null} when Gemini has to be called. */
+        public Match match() {
+            return match;
+        }
+    }
+
+    private static final class Remembered {
+        private final long feedbackId;
+        private final String scope;
+        private final long[] signature;
+        private final long[] bandKeys;
+        private final String category;
+        private final String actionableInsight;
+
+        private Remembered(long feedbackId, String scope, long[] signature, long[] bandKeys, String category,
+                           String actionableInsight) {
+            this.feedbackId = feedbackId;
+            this.scope = scope;
+            this.signature = signature;
+            this.bandKeys = bandKeys;
+            this.category = category;
+            this.actionableInsight = actionableInsight;
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package com.retailstore.feedback.service.export;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.retailstore.feedback.model.EnhancedFeedback;
+import com.retailstore.feedback.model.FeedbackEntry;
+import com.retailstore.feedback.model.dto.FeedbackResponse;
+import com.retailstore.feedback.repository.FeedbackRepository;
+import com.retailstore.feedback.service.FeedbackService;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Writes every matching entry to a stream as it is read from the repository,
+ * so memory use does not grow with the number of entries. Category and
+ * insight come from the enhanced working set when the entry has been
+ * enhanced and are empty otherwise.
+ */
+@Service
+public class FeedbackExportService {
+
+    /** Same column names the bulk import reads, so a CSV export can be imported again. */
+    static final List<String> CSV_COLUMNS = List.of("id", "customer", "department", "date", "sentiment", "category",
+            "comment", "actionableInsight");
+
+    private static final String UNKNOWN = "Unknown";
+
+    private final FeedbackRepository feedbackRepository;
+    private final FeedbackService feedbackService;
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter lineWriter;
+
+    public FeedbackExportService(FeedbackRepository feedbackRepository, FeedbackService feedbackService,
+                                 ObjectMapper objectMapper) {
+        this.feedbackRepository = feedbackRepository;
+        this.feedbackService = feedbackService;
+        this.objectMapper = objectMapper;
+        // Flushing per record would turn every line into its own socket write
+        this.lineWriter = objectMapper.writer()
+                .without(SerializationFeature.INDENT_OUTPUT)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    /**
+     * Streams the matching entries to {@code output}, which is flushed but
+     * left open.
+     *
+     * @return the number of records written
+     */
+    public long export(ExportFormat format, Filter filter, OutputStream output) throws IOException {
+        RecordWriter writer = format == ExportFormat.CSV ? new CsvWriter(output) : new NdjsonWriter(output);
+        try {
+            feedbackRepository.forEach(entry -> {
+                if (!filter.matches(entry)) {
+                    return;
+                }
+                EnhancedFeedback enhanced = feedbackService.findEnhanced(entry.getId());
+                if (!Filter.matches(filter.category(), enhanced != null ? enhanced.getCategory() : null)) {
+                    return;
+                }
+                try {
+                    writer.write(toResponse(entry, enhanced));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.finish();
+        return writer.written();
+    }
+
+    /** Repository fields are the source of truth; only the enhancement is taken from the working set. */
+    private static FeedbackResponse toResponse(FeedbackEntry entry, EnhancedFeedback enhanced) {
+        return FeedbackResponse.builder()
+                .id(entry.getId())
+                .customer(entry.getCustomer())
+                .department(entry.getDepartment())
+                .date(entry.getDate())
+                .comment(entry.getComment())
+                .sentiment(entry.getSentiment())
+                .category(enhanced != null ? enhanced.getCategory() : null)
+                .actionableInsight(enhanced != null ? enhanced.getActionableInsight() : null)
+                .enhancedAt(enhanced != null ? enhanced.getEnhancedAt() : null)
+                .build();
+    }
+
+    /**
+     * Blank filters match everything; values compare case-insensitively and
+     * a missing value matches {@code Unknown}, as in the trend view.
+     */
+    public record Filter(String department, String sentiment, String category, LocalDate from, LocalDate to) {
+
+        boolean matches(FeedbackEntry entry) {
+            LocalDate date = entry.getDate();
+            return matches(department, entry.getDepartment())
+                    && matches(sentiment, entry.getSentiment())
+                    && (from == null || date != null && !date.isBefore(from))
+                    && (to == null || date != null && !date.isAfter(to));
+        }
+
+        static boolean matches(String filter, String value) {
+            return filter == null || filter.isBlank() || filter.equalsIgnoreCase(value != null ? value : UNKNOWN);
+        }
+    }
+
+    private abstract static class RecordWriter {
+        private long written;
+
+        final void write(FeedbackResponse record) throws IOException {
+            writeRecord(record);
+            written++;
+        }
+
+        long written() {
+            return written;
+        }
+
+        abstract void writeRecord(FeedbackResponse record) throws IOException;
+
+        abstract void finish() throws IOException;
+    }
+
+    private final class NdjsonWriter extends RecordWriter {
+        private final JsonGenerator generator;
+
+        NdjsonWriter(OutputStream output) throws IOException {
+            generator = objectMapper.getFactory().createGenerator(output, JsonEncoding.UTF8);
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            // Lines are separated explicitly below, not by Jackson's default space between root values
+            generator.setRootValueSeparator(null);
+        }
+
+        @Override
+        void writeRecord(FeedbackResponse record) throws IOException {
+            lineWriter.writeValue(generator, record);
+            generator.writeRaw('\n');
+        }
+
+        @Override
+        void finish() throws IOException {
+            generator.close();
+        }
+    }
+
+    /** RFC 4180: fields with commas, quotes or line breaks are quoted, quotes doubled. */
+    private static final class CsvWriter extends RecordWriter {
+        private final Writer writer;
+
+        CsvWriter(OutputStream output) throws IOException {
+            writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8), 8192);
+            writer.write(String.join(",", CSV_COLUMNS));
+            writer.write("\r\n");
+        }
+
+        @Override
+        void writeRecord(FeedbackResponse record) throws IOException {
+            field(record.getId() != null ? record.getId().toString() : null);
+            writer.write(',');
+            field(record.getCustomer());
+            writer.write(',');
+            field(record.getDepartment());
+            writer.write(',');
+            field(record.getDate() != null ? record.getDate().toString() : null);
+            writer.write(',');
+            field(record.getSentiment());
+            writer.write(',');
+            field(record.getCategory());
+            writer.write(',');
+            field(record.getComment());
+            writer.write(',');
+            field(record.getActionableInsight());
+            writer.write("\r\n");
+        }
+
+        private void field(String value) throws IOException {
+            if (value == null) {
+                return;
+            }
+            boolean quote = false;
+            for (int i = 0; i < value.length() && !quote; i++) {
+                char c = value.charAt(i);
+                quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+            }
+            if (!quote) {
+                writer.write(value);
+                return;
+            }
+            writer.write('"');
+            writer.write(value.replace("\"", "\"\""));
+            writer.write('"');
+        }
+
+        @Override
+        void finish() throws IOException {
+            writer.flush();
+        }
+    }
+}
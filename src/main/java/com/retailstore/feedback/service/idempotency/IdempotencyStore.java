@@ -0,0 +1,184 @@
+package com.retailstore.feedback.service.idempotency;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.retailstore.feedback.config.FeedbackConfig;
+import com.retailstore.feedback.exception.IdempotencyConflictException;
+import com.retailstore.feedback.exception.IdempotencyKeyReusedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Bounded, expiring map from {@code Idempotency-Key} to the result of the
+ * first request that used it. A retry with the same key gets that result
+ * back without redoing the work; one arriving while the first is still
+ * running waits for it. Reusing a key with a different payload is refused.
+ *
+ * <p>Results that say "try again" (5xx, 429) are handed to waiting duplicates
+ * but not kept, so a later retry executes. The store is in memory and per
+ * instance.
+ */
+@Component
+@Slf4j
+public class IdempotencyStore {
+
+    public static final String HEADER = "Idempotency-Key";
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final FeedbackConfig.Idempotency config;
+    private final ObjectWriter fingerprintWriter;
+    private final Counter replayed;
+
+    /** Insertion-ordered, so the oldest keys expire and are evicted first. */
+    private final Map<String, Execution> executions = new LinkedHashMap<>();
+
+    public IdempotencyStore(FeedbackConfig feedbackConfig, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.config = feedbackConfig.getIdempotency();
+        this.fingerprintWriter = objectMapper.writer().without(SerializationFeature.INDENT_OUTPUT);
+        this.replayed = Counter.builder("feedback.idempotency.replayed")
+                .description("Submissions answered from the idempotency store instead of being processed")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Runs {@code action} once per {@code scope} and key. Without a key the
+     * action simply runs.
+     *
+     * @param payload  the request, compared across uses of the key
+     * @param storable whether a result may be replayed to later retries
+     * @throws IllegalArgumentException       if the key is blank or too long
+     * @throws IdempotencyKeyReusedException  if the key was used with another payload
+     * @throws IdempotencyConflictException   if the first request is still running after {@code wait-timeout}
+     */
+    public <T> T execute(String scope, String key, Object payload, Predicate<? super T> storable, Supplier<T> action) {
+        if (key == null) {
+            return action.get();
+        }
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException(HEADER + " must be 1-" + MAX_KEY_LENGTH + " characters");
+        }
+
+        byte[] fingerprint = fingerprint(payload);
+        String storeKey = scope + ':' + key;
+        Execution execution;
+        boolean owner = false;
+        synchronized (this) {
+            expire();
+            execution = executions.get(storeKey);
+            if (execution == null) {
+                execution = new Execution(fingerprint);
+                executions.put(storeKey, execution);
+                evict();
+                owner = true;
+            }
+        }
+        if (!Arrays.equals(execution.fingerprint, fingerprint)) {
+            throw new IdempotencyKeyReusedException(key);
+        }
+        if (!owner) {
+            replayed.increment();
+            return awaitResult(key, execution);
+        }
+
+        T result;
+        try {
+            result = action.get();
+        } catch (RuntimeException e) {
+            forget(storeKey, execution);
+            execution.result.completeExceptionally(e);
+            throw e;
+        }
+        if (!storable.test(result)) {
+            forget(storeKey, execution);
+        }
+        execution.result.complete(result);
+        return result;
+    }
+
+    /** Keeps client errors and successes; 5xx and 429 should be retried for real. */
+    public static boolean isStorable(ResponseEntity<?> response) {
+        int status = response.getStatusCode().value();
+        return status < 500 && status != 429;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T awaitResult(String key, Execution execution) {
+        try {
+            return (T) execution.result.get(config.getWaitTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new IdempotencyConflictException(key);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IdempotencyConflictException(key);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private synchronized void forget(String storeKey, Execution execution) {
+        executions.remove(storeKey, execution);
+    }
+
+    private void expire() {
+        long cutoff = System.nanoTime() - config.getTtl().toNanos();
+        Iterator<Execution> iterator = executions.values().iterator();
+        while (iterator.hasNext()) {
+            Execution execution = iterator.next();
+            if (execution.createdAt - cutoff >= 0) {
+                break;
+            }
+            if (execution.result.isDone()) {
+                iterator.remove();
+            }
+        }
+    }
+
+    private void evict() {
+        Iterator<Execution> iterator = executions.values().iterator();
+        while (executions.size() > config.getMaxEntries() && iterator.hasNext()) {
+            // Requests still running are never evicted; their duplicates must keep finding them
+            if (iterator.next().result.isDone()) {
+                iterator.remove();
+            }
+        }
+    }
+
+    private byte[] fingerprint(Object payload) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(fingerprintWriter.writeValueAsBytes(payload));
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Cannot fingerprint idempotent request", e);
+        }
+    }
+
+    private static final class Execution {
+        private final byte[] fingerprint;
+        private final long createdAt = System.nanoTime();
+        private final CompletableFuture<Object> result = new CompletableFuture<>();
+
+        private Execution(byte[] fingerprint) {
+            this.fingerprint = fingerprint;
+        }
+    }
+}
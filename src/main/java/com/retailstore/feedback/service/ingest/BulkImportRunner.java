@@ -0,0 +1,222 @@
+package com.retailstore.feedback.service.ingest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.retailstore.feedback.config.FeedbackConfig;
+import com.retailstore.feedback.exception.PipelineSaturatedException;
+import com.retailstore.feedback.mapper.FeedbackMapper;
+import com.retailstore.feedback.model.EnhancedFeedback;
+import com.retailstore.feedback.model.FeedbackEntry;
+import com.retailstore.feedback.service.FeedbackIdGenerator;
+import com.retailstore.feedback.service.pipeline.FeedbackPipeline;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Offline bulk import: feeds a JSONL or CSV file through the ingestion
+ * pipeline, so records are analyzed and enhanced in parallel and persisted in
+ * batched repository writes. Progress is checkpointed next to the file and a
+ * rerun resumes from it. Started with
+ * {@code --feedback.bulk-import.file=<path>}, which also keeps the web server
+ * from starting (see {@code FeedbackServiceApplication}).
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "feedback.bulk-import", name = "file")
+public class BulkImportRunner implements ApplicationRunner {
+
+    private static final String FILE_ARGUMENT = "--feedback.bulk-import.file=";
+    private static final long SATURATED_BACKOFF_MS = 50;
+
+    private final FeedbackConfig feedbackConfig;
+    private final FeedbackPipeline feedbackPipeline;
+    private final FeedbackRecordParser recordParser;
+    private final FeedbackMapper feedbackMapper;
+    private final FeedbackIdGenerator feedbackIdGenerator;
+    private final ObjectMapper objectMapper;
+
+    private final AtomicLong created = new AtomicLong();
+    private final AtomicLong invalid = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private long skipped;
+
+    public static boolean isImportRun(String[] args) {
+        return Arrays.stream(args).anyMatch(arg -> arg.startsWith(FILE_ARGUMENT));
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        FeedbackConfig.BulkImport config = feedbackConfig.getBulkImport();
+        Path file = Paths.get(config.getFile()).toAbsolutePath().normalize();
+        Path checkpointPath = config.getCheckpointPath() != null
+                ? Paths.get(config.getCheckpointPath())
+                : file.resolveSibling(file.getFileName() + ".checkpoint");
+
+        ImportCheckpoint checkpoint = ImportCheckpoint.open(checkpointPath, file.toString(),
+                feedbackIdGenerator::nextImportIdBase, objectMapper);
+        if (checkpoint.isFinished()) {
+            log.info("{} was already imported (checkpoint {}); delete the checkpoint to import it again",
+                    file, checkpointPath);
+            return;
+        }
+        if (checkpoint.watermark() > 0) {
+            log.info("Resuming import of {} after record {}", file, checkpoint.watermark());
+        }
+
+        SimpleMeterRegistry reportRegistry = new SimpleMeterRegistry();
+        Timer latency = Timer.builder("feedback.import.latency")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                // Percentiles over the whole run, not a sliding window
+                .distributionStatisticExpiry(Duration.ofDays(1))
+                .distributionStatisticBufferLength(1)
+                .register(reportRegistry);
+
+        int maxInFlight = Math.max(1, config.getMaxInFlight());
+        Semaphore window = new Semaphore(maxInFlight);
+        long checkpointInterval = config.getCheckpointInterval().toMillis();
+        long lastCheckpoint = System.currentTimeMillis();
+        long start = System.nanoTime();
+
+        try (FeedbackRecordReader reader = openReader(file, config.getFormat())) {
+            while (true) {
+                FeedbackRecord record;
+                try {
+                    record = reader.next();
+                } catch (FeedbackRecordReader.InvalidRecordException e) {
+                    reject(checkpoint, reader.recordNumber(), e.getMessage());
+                    continue;
+                }
+                if (record == null) {
+                    break;
+                }
+
+                long recordNumber = reader.recordNumber();
+                if (checkpoint.isDone(recordNumber)) {
+                    skipped++;
+                    continue;
+                }
+                List<String> violations = recordParser.violations(record.request());
+                if (!violations.isEmpty()) {
+                    reject(checkpoint, recordNumber, String.join("; ", violations));
+                    continue;
+                }
+
+                FeedbackEntry entry = toEntry(record, checkpoint.idFor(recordNumber), config.isReanalyzeSentiment());
+                while (!window.tryAcquire(checkpointInterval, TimeUnit.MILLISECONDS)) {
+                    checkpoint.save();
+                }
+                long submittedAt = System.nanoTime();
+                submit(entry).whenComplete((enhanced, error) -> {
+                    latency.record(System.nanoTime() - submittedAt, TimeUnit.NANOSECONDS);
+                    if (error == null) {
+                        created.incrementAndGet();
+                    } else {
+                        failed.incrementAndGet();
+                        log.warn("Import record {} failed: {}", recordNumber, error.getMessage());
+                    }
+                    checkpoint.complete(recordNumber);
+                    window.release();
+                });
+
+                if (System.currentTimeMillis() - lastCheckpoint >= checkpointInterval) {
+                    checkpoint.save();
+                    lastCheckpoint = System.currentTimeMillis();
+                }
+            }
+        }
+
+        while (!window.tryAcquire(maxInFlight, checkpointInterval, TimeUnit.MILLISECONDS)) {
+            checkpoint.save();
+        }
+        checkpoint.markFinished();
+        checkpoint.save();
+
+        printReport(file, Duration.ofNanos(System.nanoTime() - start), latency.takeSnapshot());
+    }
+
+    private FeedbackRecordReader openReader(Path file, String format) throws IOException {
+        String resolved = format != null ? format.toLowerCase(Locale.ROOT)
+                : file.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".csv") ? "csv" : "jsonl";
+        BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8);
+        return switch (resolved) {
+            case "csv" -> new CsvRecordReader(reader);
+            case "jsonl", "ndjson" -> new JsonLinesRecordReader(reader, recordParser);
+            default -> {
+                reader.close();
+                throw new IllegalArgumentException("Unsupported import format: " + format);
+            }
+        };
+    }
+
+    private FeedbackEntry toEntry(FeedbackRecord record, long generatedId, boolean reanalyzeSentiment) {
+        FeedbackEntry entry = feedbackMapper.toEntity(record.request());
+        entry.setId(record.id() != null ? record.id() : generatedId);
+        entry.setDate(record.date() != null ? record.date() : LocalDate.now());
+        // A null sentiment makes the pipeline run CoreNLP for this record
+        entry.setSentiment(reanalyzeSentiment ? null : record.sentiment());
+        return entry;
+    }
+
+    private void reject(ImportCheckpoint checkpoint, long recordNumber, String reason) {
+        if (checkpoint.isDone(recordNumber)) {
+            skipped++;
+            return;
+        }
+        invalid.incrementAndGet();
+        log.warn("Skipping invalid import record {}: {}", recordNumber, reason);
+        checkpoint.complete(recordNumber);
+    }
+
+    private CompletableFuture<EnhancedFeedback> submit(FeedbackEntry entry) throws InterruptedException {
+        while (true) {
+            try {
+                return feedbackPipeline.submit(entry);
+            } catch (PipelineSaturatedException e) {
+                Thread.sleep(SATURATED_BACKOFF_MS);
+            }
+        }
+    }
+
+    private void printReport(Path file, Duration elapsed, HistogramSnapshot latency) {
+        long processed = created.get() + failed.get();
+        double seconds = Math.max(elapsed.toNanos() / 1e9, 1e-9);
+
+        StringBuilder report = new StringBuilder()
+                .append(String.format("%nBulk import of %s%n", file))
+                .append(String.format("  records   %,d created, %,d failed, %,d invalid, %,d already done%n",
+                        created.get(), failed.get(), invalid.get(), skipped))
+                .append(String.format("  elapsed   %.1f s%n", seconds))
+                .append(String.format("  rate      %.1f records/s%n", processed / seconds))
+                .append(String.format("  latency   mean %.0f ms", latency.mean(TimeUnit.MILLISECONDS)));
+        for (ValueAtPercentile percentile : latency.percentileValues()) {
+            report.append(String.format(", p%.0f %.0f ms", percentile.percentile() * 100,
+                    percentile.value(TimeUnit.MILLISECONDS)));
+        }
+        report.append(String.format(", max %.0f ms%n", latency.max(TimeUnit.MILLISECONDS)));
+        System.out.println(report);
+    }
+}
@@ -0,0 +1,136 @@
+package com.retailstore.feedback.service.ingest;
+
+import com.retailstore.feedback.model.dto.FeedbackRequest;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * RFC 4180 CSV with a header row naming the columns: {@code customer},
+ * {@code department} and {@code comment} are required; {@code id},
+ * {@code date} and {@code sentiment} are optional. Quoted fields may contain
+ * commas, doubled quotes and line breaks.
+ */
+class CsvRecordReader implements FeedbackRecordReader {
+
+    private static final List<String> REQUIRED_COLUMNS = List.of("customer", "department", "comment");
+
+    private final BufferedReader reader;
+    private final Map<String, Integer> columns = new HashMap<>();
+    private final StringBuilder field = new StringBuilder();
+    private long recordNumber;
+
+    CsvRecordReader(BufferedReader reader) throws IOException {
+        this.reader = reader;
+        List<String> header = readRow();
+        if (header == null) {
+            throw new IOException("CSV file is empty");
+        }
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(header.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        for (String required : REQUIRED_COLUMNS) {
+            if (!columns.containsKey(required)) {
+                throw new IOException("CSV header is missing the '" + required + "' column");
+            }
+        }
+    }
+
+    @Override
+    public FeedbackRecord next() throws IOException {
+        List<String> row;
+        do {
+            row = readRow();
+            if (row == null) {
+                return null;
+            }
+        } while (row.size() == 1 && row.get(0).isBlank());
+
+        recordNumber++;
+        if (row.size() != columns.size()) {
+            throw new InvalidRecordException("Expected " + columns.size() + " columns but found " + row.size());
+        }
+
+        FeedbackRequest request = FeedbackRequest.builder()
+                .customer(column(row, "customer"))
+                .department(column(row, "department"))
+                .comment(column(row, "comment"))
+                .build();
+        try {
+            String id = column(row, "id");
+            LocalDate date = FeedbackRecordParser.parseDate(column(row, "date"));
+            return new FeedbackRecord(request, id == null || id.isBlank() ? null : Long.valueOf(id.trim()),
+                    date, blankToNull(column(row, "sentiment")));
+        } catch (NumberFormatException e) {
+            throw new InvalidRecordException("Column 'id' must be a number");
+        } catch (DateTimeException e) {
+            throw new InvalidRecordException("Column 'date' must be yyyy-MM-dd");
+        }
+    }
+
+    @Override
+    public long recordNumber() {
+        return recordNumber;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private String column(List<String> row, String name) {
+        Integer index = columns.get(name);
+        return index == null ? null : row.get(index);
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+
+    /** Reads one record, which may span several physical lines; {@code null} at end of input. */
+    private List<String> readRow() throws IOException {
+        int c = reader.read();
+        if (c == -1) {
+            return null;
+        }
+
+        List<String> row = new ArrayList<>();
+        field.setLength(0);
+        boolean quoted = false;
+        while (c != -1) {
+            if (quoted) {
+                if (c == '"') {
+                    reader.mark(1);
+                    int next = reader.read();
+                    if (next == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        reader.reset();
+                    }
+                } else {
+                    field.append((char) c);
+                }
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+            } else if (c == ',') {
+                row.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n') {
+                break;
+            } else if (c != '\r') {
+                field.append((char) c);
+            }
+            c = reader.read();
+        }
+        row.add(field.toString());
+        return row;
+    }
+}
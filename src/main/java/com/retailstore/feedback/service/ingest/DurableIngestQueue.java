@@ -0,0 +1,473 @@
+package com.retailstore.feedback.service.ingest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.retailstore.feedback.config.FeedbackConfig;
+import com.retailstore.feedback.exception.IngestQueueFullException;
+import com.retailstore.feedback.exception.PipelineSaturatedException;
+import com.retailstore.feedback.model.EnhancedFeedback;
+import com.retailstore.feedback.model.FeedbackEntry;
+import com.retailstore.feedback.service.pipeline.FeedbackPipeline;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Append-only log between accepting an async submission and processing it.
+ * Accepting costs one sequential write. A single consumer feeds the pipeline
+ * from memory and periodically saves its offset, the start of the oldest
+ * record that is not yet persisted. On startup everything after that offset
+ * is replayed, so delivery is at-least-once; a replayed record keeps the id it
+ * was accepted with and overwrites its earlier copy.
+ *
+ * <p>The log is split into segments named by their first offset. A segment is
+ * deleted once the saved offset has moved past it.
+ *
+ * <p>The directory is owned by one process at a time through a lock file, so
+ * a second instance fails to start instead of consuming the same log. The
+ * offline bulk import never opens the queue.
+ */
+@Component
+@Slf4j
+public class DurableIngestQueue {
+
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String OFFSET_FILE = "consumer.offset";
+    private static final String LOCK_FILE = "queue.lock";
+    private static final long SATURATED_BACKOFF_MS = 50;
+    private static final long SHUTDOWN_DRAIN_SECONDS = 10;
+
+    private final FeedbackConfig.Queue config;
+    private final boolean importRun;
+    private final FeedbackPipeline feedbackPipeline;
+    private final ObjectWriter recordWriter;
+    private final ObjectReader recordReader;
+    private final MeterRegistry meterRegistry;
+
+    /** Accepted records waiting for the consumer, oldest first. */
+    private final Deque<QueuedRecord> ready = new ArrayDeque<>();
+    /** Failed records waiting out their backoff, earliest due first, so they never hold up {@link #ready}. */
+    private final PriorityQueue<QueuedRecord> retries =
+            new PriorityQueue<>(Comparator.comparingLong(record -> record.retryAt));
+    /** Start offsets of every record not yet persisted, dispatched or not. */
+    private final TreeSet<Long> outstanding = new TreeSet<>();
+    private final NavigableMap<Long, Path> segments = new TreeMap<>();
+
+    private Path directory;
+    private FileChannel lockChannel;
+    private FileLock lock;
+    private FileChannel active;
+    private long activeBase;
+    private long endOffset;
+    private long committedOffset;
+    private volatile boolean running;
+
+    private Semaphore window;
+    private Thread consumer;
+    private ScheduledExecutorService committer;
+    private Timer appendTimer;
+    private Counter redelivered;
+    private Counter dropped;
+
+    public DurableIngestQueue(FeedbackConfig feedbackConfig, FeedbackPipeline feedbackPipeline,
+                              ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.config = feedbackConfig.getQueue();
+        this.importRun = feedbackConfig.getBulkImport().getFile() != null;
+        this.feedbackPipeline = feedbackPipeline;
+        this.recordWriter = objectMapper.writerFor(FeedbackEntry.class).without(SerializationFeature.INDENT_OUTPUT);
+        this.recordReader = objectMapper.readerFor(FeedbackEntry.class);
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    void start() throws IOException {
+        if (importRun) {
+            // Nothing is accepted offline, and the log may belong to a running service
+            log.info("Bulk import run; ingest queue {} is not opened", config.getPath());
+            return;
+        }
+        directory = Paths.get(config.getPath());
+        Files.createDirectories(directory);
+        acquireLock();
+
+        appendTimer = Timer.builder("feedback.queue.append")
+                .description("Time to append an accepted submission to the queue log")
+                .register(meterRegistry);
+        redelivered = Counter.builder("feedback.queue.redelivered")
+                .description("Records replayed from the queue log on startup")
+                .register(meterRegistry);
+        dropped = Counter.builder("feedback.queue.dropped")
+                .description("Records dropped after exhausting their processing attempts")
+                .register(meterRegistry);
+        Gauge.builder("feedback.queue.depth", this, DurableIngestQueue::depth)
+                .description("Accepted submissions not yet persisted")
+                .register(meterRegistry);
+
+        synchronized (this) {
+            recover();
+        }
+
+        window = new Semaphore(Math.max(1, config.getMaxInFlight()));
+        running = true;
+
+        CustomizableThreadFactory consumerThreads = new CustomizableThreadFactory("ingest-queue-");
+        consumerThreads.setDaemon(true);
+        consumer = consumerThreads.newThread(this::consume);
+        consumer.start();
+
+        CustomizableThreadFactory commitThreads = new CustomizableThreadFactory("ingest-queue-commit-");
+        commitThreads.setDaemon(true);
+        committer = Executors.newSingleThreadScheduledExecutor(commitThreads);
+        long interval = config.getCommitInterval().toMillis();
+        committer.scheduleWithFixedDelay(this::commit, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Waits briefly for dispatched records to be persisted so their offsets
+     * can be committed; anything still outstanding is replayed next start.
+     */
+    @PreDestroy
+    void stop() throws IOException {
+        if (!running) {
+            return;
+        }
+        running = false;
+        consumer.interrupt();
+        committer.shutdownNow();
+        try {
+            if (!window.tryAcquire(Math.max(1, config.getMaxInFlight()), SHUTDOWN_DRAIN_SECONDS, TimeUnit.SECONDS)) {
+                log.warn("Ingest queue stopped with records still in flight; they will be replayed on startup");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        commit();
+        synchronized (this) {
+            active.close();
+        }
+        lock.release();
+        lockChannel.close();
+    }
+
+    /**
+     * Durably accepts {@code entry}; it is processed after this returns.
+     *
+     * @throws IngestQueueFullException if {@code capacity} records are outstanding
+     */
+    public void append(FeedbackEntry entry) throws IOException {
+        byte[] json = recordWriter.writeValueAsBytes(entry);
+        ByteBuffer line = ByteBuffer.allocate(json.length + 1).put(json).put((byte) '\n').flip();
+
+        long start = System.nanoTime();
+        synchronized (this) {
+            if (!running) {
+                throw new IllegalStateException("Ingest queue is stopped");
+            }
+            if (outstanding.size() >= config.getCapacity()) {
+                throw new IngestQueueFullException("Ingest queue holds " + outstanding.size() + " unprocessed submissions");
+            }
+            if (endOffset - activeBase >= config.getSegmentBytes()) {
+                roll();
+            }
+            try {
+                while (line.hasRemaining()) {
+                    active.write(line);
+                }
+                if (config.isFsync()) {
+                    active.force(false);
+                }
+            } catch (IOException e) {
+                // Drop a partial line so the next append starts at a record boundary
+                active.truncate(endOffset - activeBase);
+                throw e;
+            }
+
+            long offset = endOffset;
+            endOffset += line.limit();
+            outstanding.add(offset);
+            ready.addLast(new QueuedRecord(offset, entry));
+            notifyAll();
+        }
+        appendTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    public synchronized int depth() {
+        return outstanding.size();
+    }
+
+    /** Accepted records not yet handed to the pipeline. */
+    public synchronized int waiting() {
+        return ready.size() + retries.size();
+    }
+
+    private void acquireLock() throws IOException {
+        lockChannel = FileChannel.open(directory.resolve(LOCK_FILE), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        try {
+            lock = lockChannel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            lock = null;
+        }
+        if (lock == null) {
+            lockChannel.close();
+            throw new IllegalStateException("Ingest queue " + directory + " is in use by another process");
+        }
+    }
+
+    private void recover() throws IOException {
+        Path offsetFile = directory.resolve(OFFSET_FILE);
+        if (Files.exists(offsetFile)) {
+            committedOffset = Long.parseLong(Files.readString(offsetFile, StandardCharsets.UTF_8).trim());
+        }
+
+        try (Stream<Path> files = Files.list(directory)) {
+            files.filter(file -> file.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                    .forEach(file -> {
+                        String name = file.getFileName().toString();
+                        segments.put(Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length())), file);
+                    });
+        }
+
+        endOffset = committedOffset;
+        for (Map.Entry<Long, Path> segment : segments.entrySet()) {
+            Long next = segments.higherKey(segment.getKey());
+            if (next != null && next <= committedOffset) {
+                continue;
+            }
+            endOffset = segment.getKey() + replay(segment.getKey(), segment.getValue());
+        }
+        if (!outstanding.isEmpty()) {
+            log.info("Replaying {} queued submissions from {}", outstanding.size(), directory);
+        }
+
+        Map.Entry<Long, Path> last = segments.lastEntry();
+        if (last != null && endOffset - last.getKey() < config.getSegmentBytes()) {
+            activeBase = last.getKey();
+            active = FileChannel.open(last.getValue(), StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        } else {
+            openSegment();
+        }
+    }
+
+    /**
+     * Queues every complete record of a segment at or after the committed
+     * offset and returns the segment's valid length. A torn last line from a
+     * crash mid-append is cut off.
+     */
+    private long replay(long base, Path file) throws IOException {
+        byte[] data = Files.readAllBytes(file);
+        int position = 0;
+        while (position < data.length) {
+            int newline = indexOf(data, (byte) '\n', position);
+            if (newline < 0) {
+                log.warn("Truncating torn record at offset {} of the ingest queue", base + position);
+                try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                    channel.truncate(position);
+                }
+                break;
+            }
+            long offset = base + position;
+            if (offset >= committedOffset) {
+                try {
+                    FeedbackEntry entry = recordReader.readValue(data, position, newline - position);
+                    outstanding.add(offset);
+                    ready.addLast(new QueuedRecord(offset, entry));
+                    redelivered.increment();
+                } catch (IOException e) {
+                    log.warn("Skipping unreadable ingest queue record at offset {}: {}", offset, e.getMessage());
+                }
+            }
+            position = newline + 1;
+        }
+        return position;
+    }
+
+    private void roll() throws IOException {
+        active.close();
+        openSegment();
+    }
+
+    private void openSegment() throws IOException {
+        activeBase = endOffset;
+        Path file = directory.resolve(String.format("%020d%s", activeBase, SEGMENT_SUFFIX));
+        active = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        segments.put(activeBase, file);
+    }
+
+    private void consume() {
+        try {
+            while (running) {
+                window.acquire();
+                try {
+                    dispatch(takeReady());
+                } catch (InterruptedException e) {
+                    // Stopping; a record taken but not dispatched stays outstanding and is replayed
+                    window.release();
+                    throw e;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /** Takes a due retry if there is one, else the oldest fresh record. */
+    private synchronized QueuedRecord takeReady() throws InterruptedException {
+        while (true) {
+            QueuedRecord retry = retries.peek();
+            long delay = retry == null ? 0 : retry.retryAt - System.currentTimeMillis();
+            if (retry != null && delay <= 0) {
+                return retries.poll();
+            }
+            if (!ready.isEmpty()) {
+                return ready.pollFirst();
+            }
+            if (retry == null) {
+                wait();
+            } else {
+                wait(delay);
+            }
+        }
+    }
+
+    private void dispatch(QueuedRecord record) throws InterruptedException {
+        CompletableFuture<EnhancedFeedback> result;
+        while (true) {
+            try {
+                result = feedbackPipeline.submit(record.entry);
+                break;
+            } catch (PipelineSaturatedException e) {
+                Thread.sleep(SATURATED_BACKOFF_MS);
+            } catch (RuntimeException e) {
+                result = CompletableFuture.failedFuture(e);
+                break;
+            }
+        }
+        result.whenComplete((enhanced, error) -> {
+            window.release();
+            if (error == null) {
+                finish(record);
+            } else {
+                retryOrDrop(record, error);
+            }
+        });
+    }
+
+    private synchronized void finish(QueuedRecord record) {
+        outstanding.remove(record.offset);
+    }
+
+    private void retryOrDrop(QueuedRecord record, Throwable error) {
+        record.attempts++;
+        if (record.attempts >= config.getMaxAttempts()) {
+            log.error("Dropping queued feedback {} after {} attempts: {}",
+                    record.entry.getId(), record.attempts, error.getMessage());
+            dropped.increment();
+            finish(record);
+            return;
+        }
+        log.warn("Processing queued feedback {} failed (attempt {}), retrying: {}",
+                record.entry.getId(), record.attempts, error.getMessage());
+        record.retryAt = System.currentTimeMillis() + config.getRetryBackoff().toMillis() * record.attempts;
+        synchronized (this) {
+            retries.add(record);
+            notifyAll();
+        }
+    }
+
+    /** Saves the consumer offset and deletes the segments entirely before it. */
+    private void commit() {
+        long offset;
+        synchronized (this) {
+            offset = outstanding.isEmpty() ? endOffset : outstanding.first();
+            if (offset == committedOffset) {
+                return;
+            }
+        }
+
+        Path offsetFile = directory.resolve(OFFSET_FILE);
+        Path temp = directory.resolve(OFFSET_FILE + ".tmp");
+        try {
+            Files.writeString(temp, Long.toString(offset), StandardCharsets.UTF_8);
+            Files.move(temp, offsetFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.error("Failed to save ingest queue offset: {}", e.getMessage(), e);
+            return;
+        }
+
+        List<Path> consumed = new ArrayList<>();
+        synchronized (this) {
+            committedOffset = offset;
+            while (segments.size() > 1) {
+                Map.Entry<Long, Path> oldest = segments.firstEntry();
+                if (segments.higherKey(oldest.getKey()) > committedOffset) {
+                    break;
+                }
+                consumed.add(segments.pollFirstEntry().getValue());
+            }
+        }
+        for (Path segment : consumed) {
+            try {
+                Files.deleteIfExists(segment);
+            } catch (IOException e) {
+                log.warn("Failed to delete consumed ingest queue segment {}: {}", segment, e.getMessage());
+            }
+        }
+    }
+
+    private static int indexOf(byte[] data, byte value, int from) {
+        for (int i = from; i < data.length; i++) {
+            if (data[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static final class QueuedRecord {
+        private final long offset;
+        private final FeedbackEntry entry;
+        private int attempts;
+        private long retryAt;
+
+        private QueuedRecord(long offset, FeedbackEntry entry) {
+            this.offset = offset;
+            this.entry = entry;
+        }
+    }
+}
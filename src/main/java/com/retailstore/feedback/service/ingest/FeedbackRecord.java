@@ -0,0 +1,12 @@
+package com.retailstore.feedback.service.ingest;
+
+import com.retailstore.feedback.model.dto.FeedbackRequest;
+
+import java.time.LocalDate;
+
+/**
+ * One parsed input record: the request fields, plus the optional id, date
+ * and sentiment that historical data being imported may already carry.
+ */
+record FeedbackRecord(FeedbackRequest request, Long id, LocalDate date, String sentiment) {
+}
@@ -0,0 +1,98 @@
+package com.retailstore.feedback.service.ingest;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.retailstore.feedback.model.dto.FeedbackRequest;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Parsing and validation shared by the NDJSON endpoint and the bulk import.
+ * JSON records are read with the streaming parser, field by field, without
+ * building a tree.
+ */
+@Component
+class FeedbackRecordParser {
+
+    private final JsonFactory jsonFactory;
+    private final Validator validator;
+
+    FeedbackRecordParser(ObjectMapper objectMapper, Validator validator) {
+        this.jsonFactory = objectMapper.getFactory();
+        this.validator = validator;
+    }
+
+    /**
+     * Parses one JSON object. Unknown fields are skipped.
+     *
+     * @throws com.fasterxml.jackson.core.JsonProcessingException if the line is not a single valid object
+     */
+    FeedbackRecord parseJson(String line) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(line)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new JsonParseException(parser, "Expected a JSON object");
+            }
+            FeedbackRequest request = new FeedbackRequest();
+            Long id = null;
+            LocalDate date = null;
+            String sentiment = null;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                switch (field) {
+                    case "customer" -> request.setCustomer(text(parser, value));
+                    case "department" -> request.setDepartment(text(parser, value));
+                    case "comment" -> request.setComment(text(parser, value));
+                    case "sentiment" -> sentiment = text(parser, value);
+                    case "date" -> date = date(parser, text(parser, value));
+                    case "id" -> id = value == JsonToken.VALUE_NULL ? null : parser.getValueAsLong();
+                    default -> parser.skipChildren();
+                }
+            }
+            if (parser.nextToken() != null) {
+                throw new JsonParseException(parser, "Unexpected content after the JSON object");
+            }
+            return new FeedbackRecord(request, id, date, sentiment);
+        }
+    }
+
+    /** Constraint messages for {@code request}, ordered by field; empty when valid. */
+    List<String> violations(FeedbackRequest request) {
+        return validator.validate(request).stream()
+                .sorted(Comparator.comparing(violation -> violation.getPropertyPath().toString()))
+                .map(ConstraintViolation::getMessage)
+                .toList();
+    }
+
+    static LocalDate parseDate(String value) {
+        return value == null || value.isBlank() ? null : LocalDate.parse(value.trim());
+    }
+
+    private static LocalDate date(JsonParser parser, String value) throws JsonParseException {
+        try {
+            return parseDate(value);
+        } catch (DateTimeParseException e) {
+            throw new JsonParseException(parser, "Field 'date' must be yyyy-MM-dd");
+        }
+    }
+
+    private static String text(JsonParser parser, JsonToken value) throws IOException {
+        if (value == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        if (!value.isScalarValue()) {
+            throw new JsonParseException(parser, "Field '" + parser.currentName() + "' must be a string");
+        }
+        return parser.getValueAsString();
+    }
+}
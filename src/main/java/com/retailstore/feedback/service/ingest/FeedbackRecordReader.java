@@ -0,0 +1,25 @@
+package com.retailstore.feedback.service.ingest;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/** Sequential reader over an import file, one record at a time. */
+interface FeedbackRecordReader extends Closeable {
+
+    /**
+     * Returns the next record, or {@code null} at the end of the input.
+     *
+     * @throws InvalidRecordException if this record cannot be parsed; reading
+     *         may continue with the next one
+     */
+    FeedbackRecord next() throws IOException;
+
+    /** 1-based number of the record last returned or rejected. */
+    long recordNumber();
+
+    class InvalidRecordException extends IOException {
+        InvalidRecordException(String message) {
+            super(message);
+        }
+    }
+}
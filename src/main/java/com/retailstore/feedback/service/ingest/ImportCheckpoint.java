@@ -0,0 +1,115 @@
+package com.retailstore.feedback.service.ingest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.retailstore.feedback.service.FeedbackIdGenerator;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.function.LongSupplier;
+
+/**
+ * Which records of an import file are done, saved atomically so a crashed
+ * import resumes where it stopped. Records finish out of order, so the state
+ * is a watermark (every record up to it is done) plus the few finished
+ * records beyond it.
+ *
+ * <p>Records without an id get {@code idBase + recordNumber}, with
+ * {@code idBase} fixed on the first run and taken from the import id range of
+ * {@link FeedbackIdGenerator}. A record that was persisted after the last save
+ * is therefore overwritten, not duplicated, when it is redone.
+ */
+final class ImportCheckpoint {
+
+    private final Path path;
+    private final ObjectMapper objectMapper;
+    private final String source;
+    private final long idBase;
+    private final TreeSet<Long> completedAhead = new TreeSet<>();
+    private long watermark;
+    private boolean finished;
+
+    private ImportCheckpoint(Path path, ObjectMapper objectMapper, State state) {
+        this.path = path;
+        this.objectMapper = objectMapper;
+        this.source = state.source();
+        this.idBase = state.idBase();
+        this.watermark = state.watermark();
+        this.finished = state.finished();
+        if (state.completedAhead() != null) {
+            completedAhead.addAll(state.completedAhead());
+        }
+    }
+
+    static ImportCheckpoint open(Path path, String source, LongSupplier newIdBase, ObjectMapper objectMapper)
+            throws IOException {
+        if (Files.exists(path)) {
+            State state = objectMapper.readValue(path.toFile(), State.class);
+            if (!source.equals(state.source())) {
+                throw new IllegalStateException("Checkpoint " + path + " belongs to " + state.source()
+                        + ", not " + source);
+            }
+            return new ImportCheckpoint(path, objectMapper, state);
+        }
+        return new ImportCheckpoint(path, objectMapper,
+                new State(source, newIdBase.getAsLong(), 0, List.of(), false, null));
+    }
+
+    long idFor(long recordNumber) {
+        if (recordNumber >= FeedbackIdGenerator.MAX_IMPORT_RECORDS) {
+            throw new IllegalStateException("Import files are limited to "
+                    + (FeedbackIdGenerator.MAX_IMPORT_RECORDS - 1) + " records");
+        }
+        return idBase + recordNumber;
+    }
+
+    synchronized long watermark() {
+        return watermark;
+    }
+
+    synchronized boolean isFinished() {
+        return finished;
+    }
+
+    synchronized boolean isDone(long recordNumber) {
+        return recordNumber <= watermark || completedAhead.contains(recordNumber);
+    }
+
+    synchronized void complete(long recordNumber) {
+        if (recordNumber <= watermark) {
+            return;
+        }
+        completedAhead.add(recordNumber);
+        while (!completedAhead.isEmpty() && completedAhead.first() == watermark + 1) {
+            watermark = completedAhead.pollFirst();
+        }
+    }
+
+    synchronized void markFinished() {
+        finished = true;
+    }
+
+    void save() throws IOException {
+        State state;
+        synchronized (this) {
+            state = new State(source, idBase, watermark, new ArrayList<>(completedAhead), finished,
+                    LocalDateTime.now());
+        }
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        Files.write(temp, objectMapper.writer().without(SerializationFeature.INDENT_OUTPUT).writeValueAsBytes(state));
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    record State(String source, long idBase, long watermark, List<Long> completedAhead, boolean finished,
+                 LocalDateTime updatedAt) {
+    }
+}
@@ -0,0 +1,47 @@
+package com.retailstore.feedback.service.ingest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+
+/** JSON Lines: one object per non-blank line. */
+class JsonLinesRecordReader implements FeedbackRecordReader {
+
+    private final BufferedReader reader;
+    private final FeedbackRecordParser parser;
+    private long recordNumber;
+
+    JsonLinesRecordReader(BufferedReader reader, FeedbackRecordParser parser) {
+        this.reader = reader;
+        this.parser = parser;
+    }
+
+    @Override
+    public FeedbackRecord next() throws IOException {
+        String line;
+        do {
+            line = reader.readLine();
+            if (line == null) {
+                return null;
+            }
+        } while (line.isBlank());
+
+        recordNumber++;
+        try {
+            return parser.parseJson(line);
+        } catch (JsonProcessingException e) {
+            throw new InvalidRecordException("Malformed JSON: " + e.getOriginalMessage());
+        }
+    }
+
+    @Override
+    public long recordNumber() {
+        return recordNumber;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
@@ -0,0 +1,256 @@
+package com.retailstore.feedback.service.ingest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.retailstore.feedback.config.FeedbackConfig;
+import com.retailstore.feedback.exception.PipelineSaturatedException;
+import com.retailstore.feedback.mapper.FeedbackMapper;
+import com.retailstore.feedback.model.EnhancedFeedback;
+import com.retailstore.feedback.model.FeedbackEntry;
+import com.retailstore.feedback.model.dto.FeedbackRequest;
+import com.retailstore.feedback.model.dto.IngestRecordResult;
+import com.retailstore.feedback.model.dto.IngestSummary;
+import com.retailstore.feedback.service.FeedbackIdGenerator;
+import com.retailstore.feedback.service.pipeline.FeedbackPipeline;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Streams an NDJSON upload into the ingestion pipeline. Each line is parsed
+ * with {@link FeedbackRecordParser}, validated and submitted as soon as it is
+ * read; results are written back one line per record, in input order, while
+ * the upload is still arriving.
+ *
+ * <p>Memory stays constant: at most {@code feedback.ingest.max-in-flight}
+ * records of one upload are pending, and reading stops while the window is
+ * full or the pipeline is saturated, which pushes back on the client through
+ * TCP flow control.
+ */
+@Service
+@Slf4j
+public class NdjsonIngestService {
+
+    private static final String CREATED = "CREATED";
+    private static final String INVALID = "INVALID";
+    private static final String FAILED = "FAILED";
+
+    private static final int END_OF_INPUT = -1;
+    private static final int LINE_TOO_LONG = -2;
+    private static final long SATURATED_BACKOFF_MS = 50;
+
+    private final FeedbackPipeline feedbackPipeline;
+    private final FeedbackMapper feedbackMapper;
+    private final FeedbackIdGenerator feedbackIdGenerator;
+    private final FeedbackRecordParser recordParser;
+    private final FeedbackConfig feedbackConfig;
+    private final ObjectWriter lineWriter;
+
+    public NdjsonIngestService(FeedbackPipeline feedbackPipeline, FeedbackMapper feedbackMapper,
+                               FeedbackIdGenerator feedbackIdGenerator, FeedbackRecordParser recordParser,
+                               FeedbackConfig feedbackConfig, ObjectMapper objectMapper) {
+        this.feedbackPipeline = feedbackPipeline;
+        this.feedbackMapper = feedbackMapper;
+        this.feedbackIdGenerator = feedbackIdGenerator;
+        this.recordParser = recordParser;
+        this.feedbackConfig = feedbackConfig;
+        // NDJSON needs one value per line, whatever the shared mapper's indentation setting
+        this.lineWriter = objectMapper.writer().without(SerializationFeature.INDENT_OUTPUT);
+    }
+
+    public IngestSummary ingest(InputStream input, OutputStream output) throws IOException {
+        long start = System.currentTimeMillis();
+        int maxInFlight = Math.max(1, feedbackConfig.getIngest().getMaxInFlight());
+        int maxLineLength = feedbackConfig.getIngest().getMaxLineLength();
+
+        Counts counts = new Counts();
+        Deque<CompletableFuture<IngestRecordResult>> pending = new ArrayDeque<>(maxInFlight);
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        StringBuilder line = new StringBuilder();
+        long lineNumber = 0;
+
+        int read;
+        while ((read = readLine(reader, line, maxLineLength)) != END_OF_INPUT) {
+            lineNumber++;
+            if (read == LINE_TOO_LONG) {
+                pending.addLast(CompletableFuture.completedFuture(
+                        invalid(lineNumber, List.of("Line exceeds " + maxLineLength + " characters"))));
+            } else if (!line.toString().isBlank()) {
+                pending.addLast(process(lineNumber, line.toString(), pending));
+            }
+
+            // Emit finished results eagerly; block on the oldest only when the window is full
+            writeCompleted(pending, output, counts, false);
+            while (pending.size() >= maxInFlight) {
+                writeHead(pending, output, counts);
+            }
+            output.flush();
+        }
+        writeCompleted(pending, output, counts, true);
+
+        IngestSummary summary = IngestSummary.builder()
+                .records(counts.records)
+                .created(counts.created)
+                .invalid(counts.invalid)
+                .failed(counts.failed)
+                .elapsedMs(System.currentTimeMillis() - start)
+                .build();
+        writeLine(output, Map.of("summary", summary));
+        output.flush();
+        log.info("NDJSON ingest finished: {} records, {} created, {} invalid, {} failed in {} ms",
+                summary.getRecords(), summary.getCreated(), summary.getInvalid(), summary.getFailed(),
+                summary.getElapsedMs());
+        return summary;
+    }
+
+    private CompletableFuture<IngestRecordResult> process(long lineNumber, String line, Deque<CompletableFuture<IngestRecordResult>> pending) {
+        FeedbackRequest request;
+        try {
+            // Id, date and sentiment are assigned here, never taken from the client
+            request = recordParser.parseJson(line).request();
+        } catch (JsonProcessingException e) {
+            return CompletableFuture.completedFuture(
+                    invalid(lineNumber, List.of("Malformed JSON: " + e.getOriginalMessage())));
+        } catch (IOException e) {
+            return CompletableFuture.completedFuture(invalid(lineNumber, List.of(e.getMessage())));
+        }
+
+        List<String> violations = recordParser.violations(request);
+        if (!violations.isEmpty()) {
+            return CompletableFuture.completedFuture(invalid(lineNumber, violations));
+        }
+
+        FeedbackEntry entry = feedbackMapper.toEntity(request);
+        entry.setId(feedbackIdGenerator.nextId());
+        return submit(entry, pending).handle((enhanced, error) -> error == null
+                ? created(lineNumber, enhanced)
+                : failed(lineNumber, error));
+    }
+
+    /**
+     * Waits for room instead of failing the record: a saturated pipeline
+     * simply slows the upload down.
+     */
+    private CompletableFuture<EnhancedFeedback> submit(FeedbackEntry entry, Deque<CompletableFuture<IngestRecordResult>> pending) {
+        while (true) {
+            try {
+                return feedbackPipeline.submit(entry);
+            } catch (PipelineSaturatedException e) {
+                CompletableFuture<IngestRecordResult> oldest = pending.peekFirst();
+                if (oldest != null && !oldest.isDone()) {
+                    oldest.join();
+                } else {
+                    sleep(SATURATED_BACKOFF_MS);
+                }
+            }
+        }
+    }
+
+    private void writeCompleted(Deque<CompletableFuture<IngestRecordResult>> pending, OutputStream output, Counts counts, boolean waitForAll)
+            throws IOException {
+        while (!pending.isEmpty() && (waitForAll || pending.peekFirst().isDone())) {
+            writeHead(pending, output, counts);
+        }
+    }
+
+    private void writeHead(Deque<CompletableFuture<IngestRecordResult>> pending, OutputStream output, Counts counts) throws IOException {
+        IngestRecordResult result = pending.removeFirst().join();
+        counts.record(result.getStatus());
+        writeLine(output, result);
+    }
+
+    private void writeLine(OutputStream output, Object value) throws IOException {
+        output.write(lineWriter.writeValueAsBytes(value));
+        output.write('\n');
+    }
+
+    private static IngestRecordResult created(long line, EnhancedFeedback enhanced) {
+        return IngestRecordResult.builder()
+                .line(line)
+                .status(CREATED)
+                .feedbackId(enhanced.getId())
+                .sentiment(enhanced.getSentiment())
+                .category(enhanced.getCategory())
+                .build();
+    }
+
+    private static IngestRecordResult invalid(long line, List<String> errors) {
+        return IngestRecordResult.builder()
+                .line(line)
+                .status(INVALID)
+                .errors(errors)
+                .build();
+    }
+
+    private static IngestRecordResult failed(long line, Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        return IngestRecordResult.builder()
+                .line(line)
+                .status(FAILED)
+                .errors(List.of(String.valueOf(cause.getMessage())))
+                .build();
+    }
+
+    /**
+     * Reads one line into {@code line}, keeping at most {@code maxLength}
+     * characters of it; the rest of an overlong line is consumed and dropped.
+     */
+    private static int readLine(BufferedReader reader, StringBuilder line, int maxLength) throws IOException {
+        line.setLength(0);
+        boolean tooLong = false;
+        int c = reader.read();
+        if (c == -1) {
+            return END_OF_INPUT;
+        }
+        while (c != -1 && c != '\n') {
+            if (c != '\r') {
+                if (line.length() < maxLength) {
+                    line.append((char) c);
+                } else {
+                    tooLong = true;
+                }
+            }
+            c = reader.read();
+        }
+        return tooLong ? LINE_TOO_LONG : line.length();
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for pipeline capacity", e);
+        }
+    }
+
+    private static final class Counts {
+        private long records;
+        private long created;
+        private long invalid;
+        private long failed;
+
+        private void record(String status) {
+            records++;
+            switch (status) {
+                case CREATED -> created++;
+                case INVALID -> invalid++;
+                default -> failed++;
+            }
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package com.retailstore.feedback.service.metrics;
+
+import com.retailstore.feedback.config.FeedbackConfig;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Latency of the steps along the request path, published as
+ * {@code feedback.stage.duration} tagged with {@code stage}, {@code endpoint}
+ * and {@code outcome}. The endpoint is the matched request mapping on a
+ * request thread. Pipeline workers use the endpoint bound with
+ * {@link #bindEndpoint}, and any other thread reports {@code background}.
+ *
+ * <p>With {@code feedback.metrics.mode=low-overhead} the fine-grained stages
+ * nested inside others are not timed at all. Histogram buckets are configured
+ * separately, in {@code MetricsConfig}.
+ */
+@Component
+public class StageMetrics {
+
+    public static final String BACKGROUND = "background";
+
+    public enum Stage {
+        REPOSITORY_READ("repository.read", false),
+        /** Share of a repository read spent turning text into entries. */
+        REPOSITORY_PARSE("repository.parse", true),
+        REPOSITORY_WRITE("repository.write", false),
+        NLP_ANNOTATE("nlp.annotate", false),
+        /** Until Gemini's response headers arrive. */
+        AI_REQUEST("ai.request", false),
+        /** Reading and decoding Gemini's response body. */
+        AI_RESPONSE("ai.response", true),
+        /** Extracting category and insight from the generated text. */
+        AI_PARSE("ai.parse", true),
+        MAPPING("mapping", true),
+        SERIALIZATION("serialization", true);
+
+        private final String tag;
+        private final boolean detail;
+
+        Stage(String tag, boolean detail) {
+            this.tag = tag;
+            this.detail = detail;
+        }
+    }
+
+    private static final ThreadLocal<String> BOUND_ENDPOINT = new ThreadLocal<>();
+
+    private final MeterRegistry meterRegistry;
+    private final boolean lowOverhead;
+    private final Map<Stage, Map<String, Timer[]>> timers = new EnumMap<>(Stage.class);
+
+    public StageMetrics(FeedbackConfig feedbackConfig, MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.lowOverhead = feedbackConfig.getMetrics().getMode() == FeedbackConfig.MetricsMode.LOW_OVERHEAD;
+        for (Stage stage : Stage.values()) {
+            timers.put(stage, new ConcurrentHashMap<>());
+        }
+    }
+
+    public boolean isTimed(Stage stage) {
+        return !(lowOverhead && stage.detail);
+    }
+
+    /** Starts timing {@code stage} on this thread; call {@link Sample#stop} exactly once. */
+    public Sample start(Stage stage) {
+        return isTimed(stage) ? new Sample(this, stage, System.nanoTime()) : Sample.NOOP;
+    }
+
+    /** Times {@code work}, counting an exception as an error. */
+    public <T> T time(Stage stage, Supplier<T> work) {
+        Sample sample = start(stage);
+        boolean success = false;
+        try {
+            T result = work.get();
+            success = true;
+            return result;
+        } finally {
+            sample.stop(success);
+        }
+    }
+
+    /** For a stage interleaved with other work, such as parsing while a file is read. */
+    public Accumulator accumulate(Stage stage) {
+        return isTimed(stage) ? new Accumulator(this, stage) : Accumulator.NOOP;
+    }
+
+    public void record(Stage stage, long nanos, boolean success) {
+        if (!isTimed(stage)) {
+            return;
+        }
+        String endpoint = currentEndpoint();
+        Timer[] byOutcome = timers.get(stage).computeIfAbsent(endpoint, key -> new Timer[] {
+                timer(stage, key, "success"), timer(stage, key, "error")});
+        byOutcome[success ? 0 : 1].record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Attributes stages on this thread to {@code endpoint} until the scope is
+     * closed, for work done on behalf of a request on another thread.
+     */
+    public Scope bindEndpoint(String endpoint) {
+        String previous = BOUND_ENDPOINT.get();
+        BOUND_ENDPOINT.set(endpoint);
+        return () -> {
+            if (previous != null) {
+                BOUND_ENDPOINT.set(previous);
+            } else {
+                BOUND_ENDPOINT.remove();
+            }
+        };
+    }
+
+    /** The bound endpoint, else the request mapping handling this thread, else {@link #BACKGROUND}. */
+    public String currentEndpoint() {
+        String bound = BOUND_ENDPOINT.get();
+        if (bound != null) {
+            return bound;
+        }
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes instanceof ServletRequestAttributes servlet) {
+            HttpServletRequest request = servlet.getRequest();
+            // The raw URI would give every feedback id its own time series
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            return pattern != null ? pattern.toString() : "unmapped";
+        }
+        return BACKGROUND;
+    }
+
+    private Timer timer(Stage stage, String endpoint, String outcome) {
+        return Timer.builder("feedback.stage.duration")
+                .description("Time spent in one step of the request path")
+                .tag("stage", stage.tag)
+                .tag("endpoint", endpoint)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    @FunctionalInterface
+    public interface Scope extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    public static final class Sample {
+
+        private static final Sample NOOP = new Sample(null, null, 0);
+
+        private final StageMetrics metrics;
+        private final Stage stage;
+        private final long startedAt;
+
+        private Sample(StageMetrics metrics, Stage stage, long startedAt) {
+            this.metrics = metrics;
+            this.stage = stage;
+            this.startedAt = startedAt;
+        }
+
+        public void stop(boolean success) {
+            if (metrics != null) {
+                metrics.record(stage, System.nanoTime() - startedAt, success);
+            }
+        }
+    }
+
+    /** Not thread-safe; one per thread of work. */
+    public static final class Accumulator {
+
+        private static final Accumulator NOOP = new Accumulator(null, null);
+
+        private final StageMetrics metrics;
+        private final Stage stage;
+        private long nanos;
+
+        private Accumulator(StageMetrics metrics, Stage stage) {
+            this.metrics = metrics;
+            this.stage = stage;
+        }
+
+        public long begin() {
+            return metrics != null ? System.nanoTime() : 0;
+        }
+
+        public void end(long begunAt) {
+            if (metrics != null) {
+                nanos += System.nanoTime() - begunAt;
+            }
+        }
+
+        public void finish(boolean success) {
+            if (metrics != null) {
+                metrics.record(stage, nanos, success);
+            }
+        }
+    }
+}
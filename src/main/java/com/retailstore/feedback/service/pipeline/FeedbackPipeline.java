@@ -0,0 +1,254 @@
+package com.retailstore.feedback.service.pipeline;
+
+import com.retailstore.feedback.config.FeedbackConfig;
+import com.retailstore.feedback.exception.PipelineSaturatedException;
+import com.retailstore.feedback.model.EnhancedFeedback;
+import com.retailstore.feedback.model.FeedbackEntry;
+import com.retailstore.feedback.service.FeedbackService;
+import com.retailstore.feedback.service.SentimentAnalysisService;
+import com.retailstore.feedback.service.metrics.StageMetrics;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Ingestion pipeline: validate, sentiment (CPU-bound CoreNLP), enhance
+ * (I/O-bound Gemini) and persist (batched repository writes). Each stage has
+ * its own bounded queue and concurrency under {@code feedback.pipeline.*} and
+ * runs on the matching cpu, ai or storage executor.
+ *
+ * <p>Admission never blocks: when the validate queue cannot take a whole
+ * submission it is rejected with {@link PipelineSaturatedException}, which
+ * callers turn into 503. Because stages hand off with blocking puts, a slow
+ * Gemini or disk fills the queues behind it and shows up here.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class FeedbackPipeline {
+
+    private final FeedbackConfig feedbackConfig;
+    private final SentimentAnalysisService sentimentAnalysisService;
+    private final FeedbackService feedbackService;
+    private final MeterRegistry meterRegistry;
+    private final StageMetrics stageMetrics;
+    @Qualifier("cpuExecutor")
+    private final Executor cpuExecutor;
+    @Qualifier("aiExecutor")
+    private final Executor aiExecutor;
+    @Qualifier("storageExecutor")
+    private final Executor storageExecutor;
+
+    private final List<PipelineStage> stages = new ArrayList<>();
+    private PipelineStage validateStage;
+    private boolean importRun;
+    private Timer endToEndTimer;
+    private Counter rejected;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder completed = new LongAdder();
+
+    @PostConstruct
+    void start() {
+        FeedbackConfig.Pipeline config = feedbackConfig.getPipeline();
+        boolean virtualIo = feedbackConfig.getExecution().getMode() == FeedbackConfig.ExecutionMode.VIRTUAL;
+        importRun = feedbackConfig.getBulkImport().getFile() != null;
+        if (virtualIo && feedbackConfig.getExecutors().getStorage().getSize() <= config.getPersist().getConcurrency()) {
+            // Virtual pools have no queue, so persist hand-offs holding every slot would starve cache refreshes
+            throw new IllegalStateException("feedback.executors.storage.size ("
+                    + feedbackConfig.getExecutors().getStorage().getSize()
+                    + ") must exceed feedback.pipeline.persist.concurrency ("
+                    + config.getPersist().getConcurrency() + ") in virtual execution mode");
+        }
+
+        // A Gemini slowdown fills the ai pool only; CoreNLP keeps its own cpu threads
+        validateStage = stage("validate", config.getValidate(), 1, cpuExecutor, this::validate);
+        PipelineStage sentimentStage = stage("sentiment", config.getSentiment(), 1, cpuExecutor, this::analyzeSentiment);
+        PipelineStage enhanceStage = stage("enhance", config.getEnhance(), 1, aiExecutor, this::enhance);
+        // Every write rewrites the whole file, so an import writes whatever has queued up at once
+        int persistBatchSize = importRun
+                ? Math.max(config.getPersistBatchSize(), config.getPersist().getQueueCapacity())
+                : config.getPersistBatchSize();
+        PipelineStage persistStage = stage("persist", config.getPersist(), persistBatchSize, storageExecutor,
+                this::persist);
+
+        validateStage.setNext(sentimentStage);
+        sentimentStage.setNext(enhanceStage);
+        enhanceStage.setNext(persistStage);
+
+        endToEndTimer = Timer.builder("feedback.pipeline.duration")
+                .description("Time from admission until an entry is persisted or fails")
+                .register(meterRegistry);
+        rejected = Counter.builder("feedback.pipeline.rejected")
+                .description("Entries refused at admission because the pipeline was full")
+                .register(meterRegistry);
+
+        stages.forEach(PipelineStage::start);
+        log.info("Feedback pipeline started: sentiment x{}, enhance x{}, persist x{} (batch {}), {} threads for I/O",
+                config.getSentiment().getConcurrency(), config.getEnhance().getConcurrency(),
+                config.getPersist().getConcurrency(), persistBatchSize, virtualIo ? "virtual" : "platform");
+    }
+
+    @PreDestroy
+    void stop() {
+        stages.forEach(PipelineStage::stop);
+    }
+
+    /** Entries admitted and not yet persisted or failed. */
+    public int inFlight() {
+        return inFlight.get();
+    }
+
+    /** Entries that left the pipeline, successfully or not, since startup. */
+    public long completedCount() {
+        return completed.sum();
+    }
+
+    /**
+     * Admits a single entry.
+     *
+     * @throws PipelineSaturatedException if the pipeline is full
+     */
+    public CompletableFuture<EnhancedFeedback> submit(FeedbackEntry entry) {
+        return submitAll(List.of(entry)).get(0);
+    }
+
+    /**
+     * Admits all entries or none of them, so a batch is never half accepted.
+     *
+     * @throws IllegalArgumentException if the batch could never fit
+     * @throws PipelineSaturatedException if the pipeline is currently full
+     */
+    public List<CompletableFuture<EnhancedFeedback>> submitAll(List<FeedbackEntry> entries) {
+        int capacity = feedbackConfig.getPipeline().getValidate().getQueueCapacity();
+        if (entries.size() > capacity) {
+            throw new IllegalArgumentException("Batch of " + entries.size()
+                    + " entries exceeds the pipeline limit of " + capacity);
+        }
+
+        String endpoint = stageMetrics.currentEndpoint();
+        List<PipelineItem> items = new ArrayList<>(entries.size());
+        for (FeedbackEntry entry : entries) {
+            items.add(new PipelineItem(entry, endpoint));
+        }
+
+        // Workers only ever take from the queue, so capacity checked under this lock cannot shrink
+        synchronized (validateStage) {
+            if (validateStage.remainingCapacity() < items.size()) {
+                rejected.increment(items.size());
+                throw new PipelineSaturatedException("Feedback pipeline is at capacity, retry later");
+            }
+            inFlight.addAndGet(items.size());
+            items.forEach(validateStage::offer);
+        }
+
+        List<CompletableFuture<EnhancedFeedback>> results = new ArrayList<>(items.size());
+        for (PipelineItem item : items) {
+            item.result.whenComplete((enhanced, error) -> {
+                endToEndTimer.record(System.nanoTime() - item.admittedAt, TimeUnit.NANOSECONDS);
+                inFlight.decrementAndGet();
+                completed.increment();
+            });
+            results.add(item.result);
+        }
+        return results;
+    }
+
+    /**
+     * Submits one entry and waits for it to be persisted, rethrowing the
+     * stage failure itself rather than a {@link CompletionException}.
+     */
+    public EnhancedFeedback process(FeedbackEntry entry) {
+        try {
+            return submit(entry).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private PipelineStage stage(String name, FeedbackConfig.Stage settings, int batchSize, Executor executor,
+                                PipelineStage.Handler handler) {
+        PipelineStage stage = new PipelineStage(name, settings.getConcurrency(), settings.getQueueCapacity(),
+                batchSize, executor, handler, meterRegistry);
+        stages.add(stage);
+        return stage;
+    }
+
+    private void validate(List<PipelineItem> items) {
+        for (PipelineItem item : items) {
+            FeedbackEntry entry = item.entry;
+            if (entry.getId() == null) {
+                item.result.completeExceptionally(new IllegalArgumentException("Feedback entry has no id"));
+            } else if (isBlank(entry.getCustomer()) || isBlank(entry.getDepartment()) || isBlank(entry.getComment())) {
+                item.result.completeExceptionally(new IllegalArgumentException(
+                        "Feedback " + entry.getId() + " is missing customer, department or comment"));
+            } else if (entry.getDate() == null) {
+                entry.setDate(LocalDate.now());
+            }
+        }
+    }
+
+    private void analyzeSentiment(List<PipelineItem> items) {
+        for (PipelineItem item : items) {
+            FeedbackEntry entry = item.entry;
+            if (entry.getSentiment() != null) {
+                continue;
+            }
+            try (StageMetrics.Scope scope = stageMetrics.bindEndpoint(item.endpoint)) {
+                entry.setSentiment(sentimentAnalysisService.analyzeSentiment(entry.getComment()));
+            } catch (Exception e) {
+                log.warn("Failed sentiment analysis for feedback ID {}, using NEUTRAL: {}",
+                        entry.getId(), e.getMessage());
+                entry.setSentiment("NEUTRAL");
+            }
+        }
+    }
+
+    private void enhance(List<PipelineItem> items) {
+        if (importRun) {
+            // Only the sentiment reaches the file; the service enhances entries when it loads them
+            for (PipelineItem item : items) {
+                item.enhanced = new EnhancedFeedback(item.entry);
+            }
+            return;
+        }
+        for (PipelineItem item : items) {
+            try (StageMetrics.Scope scope = stageMetrics.bindEndpoint(item.endpoint)) {
+                item.enhanced = feedbackService.enhanceFeedback(item.entry);
+            }
+        }
+    }
+
+    private void persist(List<PipelineItem> items) {
+        List<EnhancedFeedback> batch = new ArrayList<>(items.size());
+        for (PipelineItem item : items) {
+            batch.add(item.enhanced);
+        }
+        // One write for the whole batch, attributed to the first entry's endpoint
+        try (StageMetrics.Scope scope = stageMetrics.bindEndpoint(items.get(0).endpoint)) {
+            feedbackService.saveAllEnhancedFeedback(batch);
+        }
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+}
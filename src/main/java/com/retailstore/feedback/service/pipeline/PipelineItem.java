@@ -0,0 +1,28 @@
+package com.retailstore.feedback.service.pipeline;
+
+import com.retailstore.feedback.model.EnhancedFeedback;
+import com.retailstore.feedback.model.FeedbackEntry;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * One entry travelling through the pipeline. Only the worker currently
+ * holding the item touches it, so its fields need no synchronization beyond
+ * the queue hand-off.
+ */
+final class PipelineItem {
+
+    final FeedbackEntry entry;
+    /** Where the entry was submitted, for tagging stage timings on worker threads. */
+    final String endpoint;
+    final CompletableFuture<EnhancedFeedback> result = new CompletableFuture<>();
+    final long admittedAt = System.nanoTime();
+
+    EnhancedFeedback enhanced;
+    long enqueuedAt;
+
+    PipelineItem(FeedbackEntry entry, String endpoint) {
+        this.entry = entry;
+        this.endpoint = endpoint;
+    }
+}
@@ -0,0 +1,232 @@
+package com.retailstore.feedback.service.pipeline;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drains one bounded queue with at most {@code concurrency} hand-offs in
+ * flight. Finished items go to the next stage with a blocking put, so a slow
+ * stage stalls the ones before it instead of letting queues grow.
+ *
+ * <p>A single dispatcher thread takes a permit and hands the next batch to the
+ * stage's executor, one of the shared cpu, ai or storage pools. The permits
+ * keep one stage from taking over a pool it shares with other work.
+ */
+@Slf4j
+final class PipelineStage {
+
+    private static final long REJECTED_BACKOFF_MS = 10;
+
+    @FunctionalInterface
+    interface Handler {
+        /**
+         * Processes the items in place. Throwing fails every item in the
+         * batch; items whose future was completed are not forwarded.
+         */
+        void process(List<PipelineItem> items) throws Exception;
+    }
+
+    private final String name;
+    private final int batchSize;
+    private final BlockingQueue<PipelineItem> queue;
+    private final Handler handler;
+    private final Executor executor;
+    private final Semaphore permits;
+    /** Threads currently running a hand-off, interrupted on stop. */
+    private final Set<Thread> workers = ConcurrentHashMap.newKeySet();
+    private Thread dispatcher;
+
+    private final Timer processingTimer;
+    private final Timer waitTimer;
+    private final Counter succeeded;
+    private final Counter failed;
+
+    private PipelineStage next;
+
+    PipelineStage(String name, int concurrency, int queueCapacity, int batchSize, Executor executor,
+                  Handler handler, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.batchSize = Math.max(1, batchSize);
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, queueCapacity));
+        this.handler = handler;
+        this.executor = executor;
+        this.permits = new Semaphore(Math.max(1, concurrency));
+
+        this.processingTimer = Timer.builder("feedback.pipeline.stage.duration")
+                .description("Time a stage spends processing one hand-off (one item, or one batch when persisting)")
+                .tag("stage", name)
+                .register(meterRegistry);
+        this.waitTimer = Timer.builder("feedback.pipeline.stage.wait")
+                .description("Time items wait in a stage's queue")
+                .tag("stage", name)
+                .register(meterRegistry);
+        this.succeeded = Counter.builder("feedback.pipeline.stage.items")
+                .tag("stage", name)
+                .tag("outcome", "success")
+                .register(meterRegistry);
+        this.failed = Counter.builder("feedback.pipeline.stage.items")
+                .tag("stage", name)
+                .tag("outcome", "failure")
+                .register(meterRegistry);
+        Gauge.builder("feedback.pipeline.queue.depth", queue, BlockingQueue::size)
+                .description("Items waiting in a stage's queue")
+                .tag("stage", name)
+                .register(meterRegistry);
+    }
+
+    void setNext(PipelineStage next) {
+        this.next = next;
+    }
+
+    int remainingCapacity() {
+        return queue.remainingCapacity();
+    }
+
+    /** Non-blocking enqueue used for admission; the caller checked capacity. */
+    boolean offer(PipelineItem item) {
+        item.enqueuedAt = System.nanoTime();
+        return queue.offer(item);
+    }
+
+    void put(PipelineItem item) throws InterruptedException {
+        item.enqueuedAt = System.nanoTime();
+        queue.put(item);
+    }
+
+    void start() {
+        CustomizableThreadFactory threads = new CustomizableThreadFactory("pipeline-" + name + "-");
+        threads.setDaemon(true);
+        dispatcher = threads.newThread(this::dispatch);
+        dispatcher.start();
+    }
+
+    /** Stops dispatching, interrupts running hand-offs and fails anything still queued. */
+    void stop() {
+        if (dispatcher != null) {
+            dispatcher.interrupt();
+        }
+        workers.forEach(Thread::interrupt);
+        List<PipelineItem> abandoned = new ArrayList<>();
+        queue.drainTo(abandoned);
+        abandoned.forEach(item -> item.result.completeExceptionally(
+                new IllegalStateException("Feedback pipeline stopped")));
+    }
+
+    private void dispatch() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                permits.acquire();
+                List<PipelineItem> batch;
+                try {
+                    batch = takeBatch();
+                } catch (InterruptedException e) {
+                    permits.release();
+                    throw e;
+                }
+                execute(() -> runHandoff(batch), batch);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /** Retries while the pool is full; the permit is held, so the stage cannot pile up more. */
+    private void execute(Runnable handoff, List<PipelineItem> batch) throws InterruptedException {
+        while (true) {
+            try {
+                executor.execute(handoff);
+                return;
+            } catch (RejectedExecutionException e) {
+                try {
+                    Thread.sleep(REJECTED_BACKOFF_MS);
+                } catch (InterruptedException interrupted) {
+                    permits.release();
+                    batch.forEach(item -> item.result.completeExceptionally(
+                            new IllegalStateException("Feedback pipeline stopped")));
+                    throw interrupted;
+                }
+            }
+        }
+    }
+
+    private void runHandoff(List<PipelineItem> batch) {
+        Thread current = Thread.currentThread();
+        workers.add(current);
+        try {
+            handle(batch);
+        } catch (InterruptedException e) {
+            current.interrupt();
+        } finally {
+            workers.remove(current);
+            // Pool threads are reused; do not leak an interrupt from stop() into the next task
+            Thread.interrupted();
+            permits.release();
+        }
+    }
+
+    private List<PipelineItem> takeBatch() throws InterruptedException {
+        List<PipelineItem> batch = new ArrayList<>(batchSize);
+        batch.add(queue.take());
+        // Drain whatever else is already waiting; never wait to fill a batch
+        queue.drainTo(batch, batchSize - 1);
+        long now = System.nanoTime();
+        for (PipelineItem item : batch) {
+            waitTimer.record(now - item.enqueuedAt, TimeUnit.NANOSECONDS);
+        }
+        return batch;
+    }
+
+    private void handle(List<PipelineItem> batch) throws InterruptedException {
+        process(batch);
+        try {
+            for (PipelineItem item : batch) {
+                if (item.result.isDone()) {
+                    continue;
+                }
+                if (next != null) {
+                    next.put(item);
+                } else {
+                    item.result.complete(item.enhanced);
+                }
+            }
+        } catch (InterruptedException e) {
+            batch.forEach(item -> item.result.completeExceptionally(
+                    new IllegalStateException("Feedback pipeline stopped")));
+            throw e;
+        }
+    }
+
+    private void process(List<PipelineItem> batch) {
+        long start = System.nanoTime();
+        try {
+            handler.process(batch);
+        } catch (Exception e) {
+            log.warn("Pipeline stage {} failed for {} item(s): {}", name, batch.size(), e.getMessage());
+            batch.forEach(item -> item.result.completeExceptionally(e));
+        } finally {
+            processingTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        for (PipelineItem item : batch) {
+            if (item.result.isCompletedExceptionally()) {
+                failed.increment();
+            } else {
+                succeeded.increment();
+            }
+        }
+    }
+}
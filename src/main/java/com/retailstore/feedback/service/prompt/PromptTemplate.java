@@ -0,0 +1,127 @@
+package com.retailstore.feedback.service.prompt;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A versioned prompt compiled once into literal segments and parameter slots.
+ * Rendering is a single append pass into a pre-sized buffer, so no format
+ * string is parsed per call.
+ */
+@Getter
+public final class PromptTemplate {
+
+    private final String name;
+    private final String version;
+    private final GenerationSettings generationSettings;
+
+    @Getter(lombok.AccessLevel.NONE)
+    private final String[] literals;
+    @Getter(lombok.AccessLevel.NONE)
+    private final int[] slots;
+    @Getter(lombok.AccessLevel.NONE)
+    private final int parameterCount;
+    @Getter(lombok.AccessLevel.NONE)
+    private final int literalLength;
+
+    private PromptTemplate(String name, String version, GenerationSettings generationSettings,
+                           String[] literals, int[] slots, int parameterCount) {
+        this.name = name;
+        this.version = version;
+        this.generationSettings = generationSettings;
+        this.literals = literals;
+        this.slots = slots;
+        this.parameterCount = parameterCount;
+
+        int length = 0;
+        for (String literal : literals) {
+            length += literal.length();
+        }
+        this.literalLength = length;
+    }
+
+    /**
+     * Compiles {@code source}, resolving each {@code {parameter}} placeholder to
+     * the position of that name in {@code parameters}.
+     */
+    public static PromptTemplate compile(String name, String version, String source,
+                                         GenerationSettings generationSettings, String... parameters) {
+        List<String> literals = new ArrayList<>();
+        List<Integer> slots = new ArrayList<>();
+
+        int cursor = 0;
+        while (true) {
+            int open = source.indexOf('{', cursor);
+            int close = open < 0 ? -1 : source.indexOf('}', open);
+            int slot = close < 0 ? -1 : indexOf(parameters, source.substring(open + 1, close));
+
+            if (open < 0 || close < 0) {
+                literals.add(source.substring(cursor));
+                break;
+            }
+            if (slot < 0) {
+                // Not a parameter (e.g. a JSON brace in the instructions), keep it verbatim
+                int next = open + 1;
+                literals.add(source.substring(cursor, next));
+                slots.add(-1);
+                cursor = next;
+                continue;
+            }
+
+            literals.add(source.substring(cursor, open));
+            slots.add(slot);
+            cursor = close + 1;
+        }
+
+        return new PromptTemplate(name, version, generationSettings,
+                literals.toArray(new String[0]),
+                slots.stream().mapToInt(Integer::intValue).toArray(),
+                parameters.length);
+    }
+
+    public String render(String... values) {
+        if (values.length != parameterCount) {
+            throw new IllegalArgumentException("Prompt " + getId() + " expects " + parameterCount
+                    + " parameters but got " + values.length);
+        }
+
+        int capacity = literalLength;
+        for (String value : values) {
+            capacity += value != null ? value.length() : 4;
+        }
+
+        StringBuilder prompt = new StringBuilder(capacity);
+        for (int i = 0; i < slots.length; i++) {
+            prompt.append(literals[i]);
+            if (slots[i] >= 0) {
+                prompt.append(values[slots[i]]);
+            }
+        }
+        prompt.append(literals[literals.length - 1]);
+        return prompt.toString();
+    }
+
+    public String getId() {
+        return name + "@" + version;
+    }
+
+    private static int indexOf(String[] parameters, String name) {
+        for (int i = 0; i < parameters.length; i++) {
+            if (parameters[i].equals(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Getter
+    @Builder
+    public static class GenerationSettings {
+        private final double temperature;
+        private final int maxOutputTokens;
+        private final String responseMimeType;
+    }
+}
@@ -0,0 +1,83 @@
+package com.retailstore.feedback.service.prompt;
+
+import com.retailstore.feedback.config.GeminiConfig;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+@Component
+@Slf4j
+public class PromptTemplateRegistry {
+
+    public static final String ENHANCEMENT = "enhancement";
+
+    /**
+     * Original free-form prompt, kept so token usage can be compared against
+     * the compact version.
+     */
+    private static final PromptTemplate ENHANCEMENT_V1 = PromptTemplate.compile(ENHANCEMENT, "v1", """
+            You are an AI assistant specialized in customer feedback analysis.
+            Analyze the following customer feedback and:
+            1. Categorize the feedback into one of these categories: Product Quality, Customer Service, Store Experience, Website/App, Delivery, Price/Value, Inventory/Stock, or Other.
+            2. Provide a specific actionable insight or recommendation based on the feedback.
+
+            Format your response as JSON with two fields: "category" and "actionableInsight".
+            Keep your response concise but insightful.
+
+            Customer Feedback:
+            Comment: {comment}
+            Department: {department}
+            Sentiment: {sentiment}
+
+            Provide the category and actionable insight as JSON:
+            """,
+            PromptTemplate.GenerationSettings.builder()
+                    .temperature(0.7)
+                    .maxOutputTokens(1024)
+                    .build(),
+            "comment", "department", "sentiment");
+
+    /**
+     * Minimal instruction set: the answer is two short fields, so the output
+     * budget only needs to cover one category name and one sentence.
+     */
+    private static final PromptTemplate ENHANCEMENT_V2 = PromptTemplate.compile(ENHANCEMENT, "v2", """
+            Classify retail store feedback.
+            Categories: Product Quality|Customer Service|Store Experience|Website/App|Delivery|Price/Value|Inventory/Stock|Other
+            Reply JSON only: {"category":"<category>","actionableInsight":"<one sentence, max 25 words>"}
+            Department: {department}
+            Sentiment: {sentiment}
+            Comment: {comment}""",
+            PromptTemplate.GenerationSettings.builder()
+                    .temperature(0.2)
+                    .maxOutputTokens(128)
+                    .responseMimeType("application/json")
+                    .build(),
+            "comment", "department", "sentiment");
+
+    private static final Map<String, PromptTemplate> ENHANCEMENT_VERSIONS = Map.of(
+            ENHANCEMENT_V1.getVersion(), ENHANCEMENT_V1,
+            ENHANCEMENT_V2.getVersion(), ENHANCEMENT_V2);
+
+    private final PromptTemplate enhancementTemplate;
+
+    public PromptTemplateRegistry(GeminiConfig geminiConfig) {
+        String version = geminiConfig.getPrompt().getEnhancementVersion();
+        PromptTemplate template = ENHANCEMENT_VERSIONS.get(version);
+        if (template == null) {
+            throw new IllegalArgumentException("Unknown enhancement prompt version: " + version);
+        }
+        this.enhancementTemplate = template;
+        log.info("Using enhancement prompt {} (maxOutputTokens={})",
+                template.getId(), template.getGenerationSettings().getMaxOutputTokens());
+    }
+
+    /**
+     * Active enhancement prompt. Its parameters are, in order: comment,
+     * department, sentiment.
+     */
+    public PromptTemplate getEnhancementTemplate() {
+        return enhancementTemplate;
+    }
+}
@@ -0,0 +1,115 @@
+package com.retailstore.feedback.service.search;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Documents containing one term, in ascending document order. Each posting
+ * is the gap from the previous document followed by the term frequency, both
+ * as varints, so a typical posting takes two bytes instead of eight.
+ * Not thread-safe; {@link SearchIndex} guards access.
+ */
+final class PostingList {
+
+    @FunctionalInterface
+    interface Visitor {
+        void visit(int doc, int frequency);
+    }
+
+    private byte[] data;
+    private int length;
+    private int lastDoc = -1;
+    private int size;
+
+    PostingList() {
+        this.data = new byte[8];
+    }
+
+    private PostingList(byte[] data, int lastDoc, int size) {
+        this.data = data;
+        this.length = data.length;
+        this.lastDoc = lastDoc;
+        this.size = size;
+    }
+
+    /** Postings, dead documents included until the next compaction. */
+    int size() {
+        return size;
+    }
+
+    /** @param doc must be greater than every document added before */
+    void add(int doc, int frequency) {
+        writeVarint(doc - lastDoc);
+        writeVarint(frequency);
+        lastDoc = doc;
+        size++;
+    }
+
+    void forEach(Visitor visitor) {
+        int position = 0;
+        int doc = -1;
+        while (position < length) {
+            int gap = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = data[position++];
+                gap |= (b & 0x7f) << shift;
+                shift += 7;
+            } while (b < 0);
+
+            int frequency = 0;
+            shift = 0;
+            do {
+                b = data[position++];
+                frequency |= (b & 0x7f) << shift;
+                shift += 7;
+            } while (b < 0);
+
+            doc += gap;
+            visitor.visit(doc, frequency);
+        }
+    }
+
+    /**
+     * Re-encodes the list for renumbered documents; {@code -1} in
+     * {@code newDocs} drops a document. The mapping must preserve order.
+     */
+    PostingList remap(int[] newDocs) {
+        PostingList remapped = new PostingList();
+        forEach((doc, frequency) -> {
+            if (newDocs[doc] >= 0) {
+                remapped.add(newDocs[doc], frequency);
+            }
+        });
+        return remapped;
+    }
+
+    void writeTo(DataOutput output) throws IOException {
+        output.writeInt(lastDoc);
+        output.writeInt(size);
+        output.writeInt(length);
+        output.write(data, 0, length);
+    }
+
+    static PostingList readFrom(DataInput input) throws IOException {
+        int lastDoc = input.readInt();
+        int size = input.readInt();
+        byte[] data = new byte[input.readInt()];
+        input.readFully(data);
+        return new PostingList(data, lastDoc, size);
+    }
+
+    private void writeVarint(int value) {
+        if (length + 5 > data.length) {
+            data = Arrays.copyOf(data, Math.max(data.length * 2, length + 5));
+        }
+        while ((value & ~0x7f) != 0) {
+            data[length++] = (byte) ((value & 0x7f) | 0x80);
+            value >>>= 7;
+        }
+        data[length++] = (byte) value;
+    }
+}
@@ -0,0 +1,468 @@
+package com.retailstore.feedback.service.search;
+
+import com.retailstore.feedback.config.FeedbackConfig;
+import com.retailstore.feedback.model.EnhancedFeedback;
+import com.retailstore.feedback.service.analytics.SketchHashing;
+import com.retailstore.feedback.service.text.FeedbackTokenizer;
+import com.retailstore.feedback.service.view.FeedbackChangeListener;
+import com.retailstore.feedback.service.view.ValueDictionary;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Inverted index over feedback comments, ranked with BM25. Documents are
+ * numbered in insertion order and each term keeps a compressed
+ * {@link PostingList}. A changed or deleted entry only marks its document
+ * dead; once dead documents outnumber a quarter of the live ones the index is
+ * compacted. As in Lucene, document frequencies include dead documents until
+ * then, which skews scores slightly but keeps writes cheap.
+ *
+ * <p>The index is saved to {@code feedback.search.path} every
+ * {@code save-interval} and on shutdown. After a restart the working set is
+ * rebuilt as usual, but an entry whose comment, department and sentiment are
+ * unchanged is not re-indexed. A bulk import run neither loads nor saves
+ * the file, which belongs to the service.
+ */
+@Component
+@Slf4j
+public class SearchIndex implements FeedbackChangeListener {
+
+    private static final int MAGIC = 0x46534958;
+    private static final int FORMAT_VERSION = 1;
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final int MIN_DEAD_FOR_COMPACTION = 256;
+
+    private static final Comparator<Hit> RANKING = Comparator.comparingDouble(Hit::score)
+            .thenComparingLong(Hit::feedbackId);
+
+    private final FeedbackConfig feedbackConfig;
+    private final FeedbackTokenizer tokenizer;
+    private final boolean importRun;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private long[] feedbackIds = new long[1024];
+    private long[] fingerprints = new long[1024];
+    private int[] lengths = new int[1024];
+    private int[] departmentCodes = new int[1024];
+    private int[] sentimentCodes = new int[1024];
+    private final BitSet dead = new BitSet();
+    private int docCount;
+    private int deadCount;
+    /** Terms across all documents, dead ones included, for the average length. */
+    private long totalLength;
+
+    private final Map<Long, Integer> docsByFeedbackId = new HashMap<>();
+    private final Map<String, PostingList> postings = new HashMap<>();
+    private ValueDictionary departments = new ValueDictionary();
+    private ValueDictionary sentiments = new ValueDictionary();
+
+    private long modifications;
+    private long savedModifications;
+    private Path path;
+    private ScheduledExecutorService saver;
+
+    public SearchIndex(FeedbackConfig feedbackConfig, FeedbackTokenizer tokenizer) {
+        this.feedbackConfig = feedbackConfig;
+        this.tokenizer = tokenizer;
+        this.importRun = feedbackConfig.getBulkImport().getFile() != null;
+    }
+
+    @PostConstruct
+    void start() {
+        if (importRun) {
+            return;
+        }
+        path = Paths.get(feedbackConfig.getSearch().getPath());
+        load();
+
+        CustomizableThreadFactory threads = new CustomizableThreadFactory("search-index-save-");
+        threads.setDaemon(true);
+        saver = Executors.newSingleThreadScheduledExecutor(threads);
+        long interval = feedbackConfig.getSearch().getSaveInterval().toMillis();
+        saver.scheduleWithFixedDelay(this::saveIfChanged, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (saver == null) {
+            return;
+        }
+        // shutdown() cancels the schedule but lets a save in progress finish; two saves would share the temp file
+        saver.shutdown();
+        try {
+            if (!saver.awaitTermination(30, TimeUnit.SECONDS)) {
+                log.warn("Search index save did not finish in time; skipping the final save to {}", path);
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Interrupted while waiting for the search index save; skipping the final save to {}", path);
+            return;
+        }
+        saveIfChanged();
+    }
+
+    @Override
+    public void onUpsert(EnhancedFeedback previous, EnhancedFeedback current) {
+        long fingerprint = fingerprint(current);
+        lock.writeLock().lock();
+        try {
+            Integer existing = docsByFeedbackId.get(current.getId());
+            if (existing != null) {
+                if (fingerprints[existing] == fingerprint) {
+                    return;
+                }
+                kill(existing);
+            }
+            add(current, fingerprint);
+            modifications++;
+            compactIfSparse();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void onRemove(EnhancedFeedback removed) {
+        lock.writeLock().lock();
+        try {
+            Integer existing = docsByFeedbackId.get(removed.getId());
+            if (existing != null) {
+                kill(existing);
+                modifications++;
+                compactIfSparse();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void onRevalidated(Set<Long> repositoryIds) {
+        lock.writeLock().lock();
+        try {
+            int before = deadCount;
+            for (Integer doc : new ArrayList<>(docsByFeedbackId.values())) {
+                if (!repositoryIds.contains(feedbackIds[doc])) {
+                    kill(doc);
+                }
+            }
+            if (deadCount != before) {
+                log.info("Dropped {} search documents no longer in the repository", deadCount - before);
+                modifications++;
+                compactIfSparse();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Top {@code limit} entries for {@code query} by BM25 score. All query
+     * terms are optional; entries matching more of them rank higher. Blank
+     * filters match everything, others compare case-insensitively.
+     */
+    public Result search(String query, String department, String sentiment, int limit) {
+        Set<String> terms = new LinkedHashSet<>(tokenizer.searchTerms(query));
+        if (terms.isEmpty()) {
+            return new Result(List.of(), 0);
+        }
+
+        lock.readLock().lock();
+        try {
+            if (docCount == 0) {
+                return new Result(List.of(), 0);
+            }
+            boolean[] departmentMatches = matchingCodes(departments, department);
+            boolean[] sentimentMatches = matchingCodes(sentiments, sentiment);
+            double averageLength = Math.max(1.0, (double) totalLength / docCount);
+
+            Map<Integer, Double> scores = new HashMap<>();
+            for (String term : terms) {
+                PostingList list = postings.get(term);
+                if (list == null) {
+                    continue;
+                }
+                double idf = Math.log(1 + (docCount - list.size() + 0.5) / (list.size() + 0.5));
+                list.forEach((doc, frequency) -> {
+                    if (dead.get(doc)
+                            || departmentMatches != null && !departmentMatches[departmentCodes[doc]]
+                            || sentimentMatches != null && !sentimentMatches[sentimentCodes[doc]]) {
+                        return;
+                    }
+                    double norm = K1 * (1 - B + B * lengths[doc] / averageLength);
+                    scores.merge(doc, idf * frequency * (K1 + 1) / (frequency + norm), Double::sum);
+                });
+            }
+
+            PriorityQueue<Hit> top = new PriorityQueue<>(RANKING);
+            for (Map.Entry<Integer, Double> score : scores.entrySet()) {
+                top.add(new Hit(feedbackIds[score.getKey()], score.getValue()));
+                if (top.size() > limit) {
+                    top.poll();
+                }
+            }
+            List<Hit> hits = new ArrayList<>(top);
+            hits.sort(RANKING.reversed());
+            return new Result(hits, scores.size());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Live documents in the index. */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docCount - deadCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void add(EnhancedFeedback feedback, long fingerprint) {
+        if (docCount == feedbackIds.length) {
+            grow(docCount * 2);
+        }
+        int doc = docCount++;
+        List<String> terms = tokenizer.searchTerms(feedback.getComment());
+        Map<String, Integer> frequencies = new HashMap<>();
+        for (String term : terms) {
+            frequencies.merge(term, 1, Integer::sum);
+        }
+        for (Map.Entry<String, Integer> frequency : frequencies.entrySet()) {
+            postings.computeIfAbsent(frequency.getKey(), term -> new PostingList()).add(doc, frequency.getValue());
+        }
+
+        feedbackIds[doc] = feedback.getId();
+        fingerprints[doc] = fingerprint;
+        lengths[doc] = terms.size();
+        departmentCodes[doc] = departments.encode(feedback.getDepartment());
+        sentimentCodes[doc] = sentiments.encode(feedback.getSentiment());
+        totalLength += terms.size();
+        docsByFeedbackId.put(feedback.getId(), doc);
+    }
+
+    private void kill(int doc) {
+        dead.set(doc);
+        deadCount++;
+        docsByFeedbackId.remove(feedbackIds[doc], doc);
+    }
+
+    private void compactIfSparse() {
+        int live = docCount - deadCount;
+        if (deadCount < MIN_DEAD_FOR_COMPACTION || deadCount * 4 < live) {
+            return;
+        }
+
+        // Renumbering keeps document order, so postings stay sorted
+        int[] newDocs = new int[docCount];
+        int next = 0;
+        totalLength = 0;
+        for (int doc = 0; doc < docCount; doc++) {
+            if (dead.get(doc)) {
+                newDocs[doc] = -1;
+                continue;
+            }
+            newDocs[doc] = next;
+            feedbackIds[next] = feedbackIds[doc];
+            fingerprints[next] = fingerprints[doc];
+            lengths[next] = lengths[doc];
+            departmentCodes[next] = departmentCodes[doc];
+            sentimentCodes[next] = sentimentCodes[doc];
+            totalLength += lengths[doc];
+            next++;
+        }
+
+        postings.replaceAll((term, list) -> list.remap(newDocs));
+        postings.values().removeIf(list -> list.size() == 0);
+        docsByFeedbackId.clear();
+        for (int doc = 0; doc < next; doc++) {
+            docsByFeedbackId.put(feedbackIds[doc], doc);
+        }
+        log.debug("Compacted search index from {} to {} documents", docCount, next);
+        dead.clear();
+        deadCount = 0;
+        docCount = next;
+    }
+
+    private void grow(int capacity) {
+        feedbackIds = Arrays.copyOf(feedbackIds, capacity);
+        fingerprints = Arrays.copyOf(fingerprints, capacity);
+        lengths = Arrays.copyOf(lengths, capacity);
+        departmentCodes = Arrays.copyOf(departmentCodes, capacity);
+        sentimentCodes = Arrays.copyOf(sentimentCodes, capacity);
+    }
+
+    /** {@code null} when the filter is blank, otherwise which dictionary codes it accepts. */
+    private static boolean[] matchingCodes(ValueDictionary dictionary, String filter) {
+        if (filter == null || filter.isBlank()) {
+            return null;
+        }
+        boolean[] matches = new boolean[dictionary.size()];
+        for (int code = 0; code < matches.length; code++) {
+            matches[code] = filter.trim().equalsIgnoreCase(dictionary.decode(code));
+        }
+        return matches;
+    }
+
+    /** Covers every field the index reads, so an unchanged entry is recognised after a restart. */
+    private static long fingerprint(EnhancedFeedback feedback) {
+        return SketchHashing.hash64(feedback.getComment() + '\u0000' + feedback.getDepartment() + '\u0000'
+                + feedback.getSentiment());
+    }
+
+    private void saveIfChanged() {
+        lock.readLock().lock();
+        try {
+            if (modifications == savedModifications) {
+                return;
+            }
+            save();
+            savedModifications = modifications;
+        } catch (IOException e) {
+            log.error("Failed to save search index to {}: {}", path, e.getMessage(), e);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void save() throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            output.writeInt(MAGIC);
+            output.writeInt(FORMAT_VERSION);
+            writeDictionary(output, departments);
+            writeDictionary(output, sentiments);
+
+            output.writeInt(docCount);
+            for (int doc = 0; doc < docCount; doc++) {
+                output.writeLong(feedbackIds[doc]);
+                output.writeLong(fingerprints[doc]);
+                output.writeInt(lengths[doc]);
+                output.writeInt(departmentCodes[doc]);
+                output.writeInt(sentimentCodes[doc]);
+                output.writeBoolean(dead.get(doc));
+            }
+
+            output.writeInt(postings.size());
+            for (Map.Entry<String, PostingList> entry : postings.entrySet()) {
+                output.writeUTF(entry.getKey());
+                entry.getValue().writeTo(output);
+            }
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void load() {
+        if (!Files.exists(path)) {
+            return;
+        }
+        lock.writeLock().lock();
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            if (input.readInt() != MAGIC || input.readInt() != FORMAT_VERSION) {
+                log.warn("Ignoring search index {} written in an unknown format; it will be rebuilt", path);
+                return;
+            }
+            departments = readDictionary(input);
+            sentiments = readDictionary(input);
+
+            int count = input.readInt();
+            grow(Math.max(1024, Integer.highestOneBit(Math.max(1, count)) * 2));
+            for (int doc = 0; doc < count; doc++) {
+                feedbackIds[doc] = input.readLong();
+                fingerprints[doc] = input.readLong();
+                lengths[doc] = input.readInt();
+                departmentCodes[doc] = input.readInt();
+                sentimentCodes[doc] = input.readInt();
+                totalLength += lengths[doc];
+                if (input.readBoolean()) {
+                    dead.set(doc);
+                    deadCount++;
+                } else {
+                    docsByFeedbackId.put(feedbackIds[doc], doc);
+                }
+            }
+            docCount = count;
+
+            int terms = input.readInt();
+            for (int i = 0; i < terms; i++) {
+                postings.put(input.readUTF(), PostingList.readFrom(input));
+            }
+            log.info("Loaded search index: {} documents, {} terms", docCount - deadCount, postings.size());
+        } catch (IOException | RuntimeException e) {
+            // Half-loaded state is worse than none; the working set rebuild re-indexes everything
+            log.warn("Failed to load search index {}, rebuilding: {}", path, e.getMessage());
+            reset();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void reset() {
+        dead.clear();
+        docCount = 0;
+        deadCount = 0;
+        totalLength = 0;
+        docsByFeedbackId.clear();
+        postings.clear();
+        departments = new ValueDictionary();
+        sentiments = new ValueDictionary();
+    }
+
+    private static void writeDictionary(DataOutputStream output, ValueDictionary dictionary) throws IOException {
+        output.writeInt(dictionary.size());
+        for (int code = 0; code < dictionary.size(); code++) {
+            output.writeUTF(dictionary.decode(code));
+        }
+    }
+
+    private static ValueDictionary readDictionary(DataInputStream input) throws IOException {
+        ValueDictionary dictionary = new ValueDictionary();
+        int size = input.readInt();
+        for (int i = 0; i < size; i++) {
+            dictionary.encode(input.readUTF());
+        }
+        return dictionary;
+    }
+
+    public record Hit(long feedbackId, double score) {
+    }
+
+    /** @param totalHits every matching entry, not just those returned */
+    public record Result(List<Hit> hits, int totalHits) {
+    }
+}
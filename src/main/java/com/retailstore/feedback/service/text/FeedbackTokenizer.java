@@ -0,0 +1,99 @@
+package com.retailstore.feedback.service.text;
+
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Splits comment text into lower-cased content terms, dropping punctuation,
+ * very short tokens and common English stop words.
+ */
+@Component
+public class FeedbackTokenizer {
+
+    private static final int MIN_TERM_LENGTH = 3;
+
+    private static final Set<String> STOP_WORDS = Set.of(
+            "the", "and", "for", "was", "were", "are", "but", "not", "with", "this", "that", "they",
+            "them", "their", "there", "have", "has", "had", "you", "your", "our", "out", "all", "any",
+            "can", "could", "would", "should", "will", "just", "very", "too", "also", "from", "into",
+            "about", "when", "what", "which", "who", "how", "why", "than", "then", "been", "being",
+            "its", "it's", "i'm", "did", "does", "don't", "didn't", "get", "got", "one", "really");
+
+    public List<String> tokenize(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null) {
+            return terms;
+        }
+
+        String lower = text.toLowerCase(Locale.ROOT);
+        int start = -1;
+        for (int i = 0; i <= lower.length(); i++) {
+            boolean wordChar = i < lower.length() && isWordChar(lower.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                addTerm(terms, lower.substring(start, i));
+                start = -1;
+            }
+        }
+        return terms;
+    }
+
+    /**
+     * Terms for full-text search: {@link #tokenize} plus plural stripping, so
+     * "prices" finds "price". Indexing and querying must both go through here.
+     */
+    public List<String> searchTerms(String text) {
+        List<String> terms = tokenize(text);
+        terms.replaceAll(FeedbackTokenizer::stem);
+        return terms;
+    }
+
+    /**
+     * The S-stemmer (Harman, 1991): only plural endings are touched, so
+     * unrelated words are never conflated the way aggressive stemmers do.
+     */
+    static String stem(String term) {
+        int length = term.length();
+        if (length <= 3 || !term.endsWith("s")) {
+            return term;
+        }
+        if (term.endsWith("ies") && !term.endsWith("eies") && !term.endsWith("aies")) {
+            return term.substring(0, length - 3) + "y";
+        }
+        if (term.endsWith("es") && !term.endsWith("aes") && !term.endsWith("ees") && !term.endsWith("oes")) {
+            return term.substring(0, length - 1);
+        }
+        if (!term.endsWith("us") && !term.endsWith("ss")) {
+            return term.substring(0, length - 1);
+        }
+        return term;
+    }
+
+    private static boolean isWordChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '\'';
+    }
+
+    private static void addTerm(List<String> terms, String token) {
+        String term = stripQuotes(token);
+        if (term.length() >= MIN_TERM_LENGTH && !STOP_WORDS.contains(term)) {
+            terms.add(term);
+        }
+    }
+
+    private static String stripQuotes(String token) {
+        int begin = 0;
+        int end = token.length();
+        while (begin < end && token.charAt(begin) == '\'') {
+            begin++;
+        }
+        while (end > begin && token.charAt(end - 1) == '\'') {
+            end--;
+        }
+        return token.substring(begin, end);
+    }
+}
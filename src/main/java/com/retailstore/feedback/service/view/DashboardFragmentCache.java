@@ -0,0 +1,114 @@
+package com.retailstore.feedback.service.view;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.retailstore.feedback.model.FeedbackSummary;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+import org.thymeleaf.ITemplateEngine;
+import org.thymeleaf.context.Context;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Rendered pieces of the dashboard for the current {@link DataVersion}: the
+ * summary cards, the recent-feedback table and the chart data. The summary is
+ * read once per version and every page view in between reuses the same
+ * strings, so Thymeleaf only renders the static page shell.
+ */
+@Component
+public class DashboardFragmentCache {
+
+    static final String TEMPLATE = "dashboard-fragments";
+
+    private final ITemplateEngine templateEngine;
+    private final ObjectMapper objectMapper;
+    private final Counter hits;
+    private final Counter misses;
+
+    private Fragments current;
+
+    public DashboardFragmentCache(ITemplateEngine templateEngine, ObjectMapper objectMapper,
+                                  MeterRegistry meterRegistry) {
+        this.templateEngine = templateEngine;
+        this.objectMapper = objectMapper;
+        this.hits = counter(meterRegistry, "hit");
+        this.misses = counter(meterRegistry, "miss");
+    }
+
+    /** Concurrent misses render once; the other page views wait for that result. */
+    public synchronized Fragments get(DataVersion.Stamp stamp, Supplier<FeedbackSummary> summary) {
+        if (current != null && current.etag.equals(stamp.etag())) {
+            hits.increment();
+            return current;
+        }
+        misses.increment();
+        current = render(stamp.etag(), summary.get());
+        return current;
+    }
+
+    private Fragments render(String etag, FeedbackSummary summary) {
+        Context context = new Context();
+        context.setVariable("summary", summary);
+        return new Fragments(etag,
+                templateEngine.process(TEMPLATE, Set.of("summaryCards"), context),
+                templateEngine.process(TEMPLATE, Set.of("recentFeedback"), context),
+                chartJson(summary));
+    }
+
+    /**
+     * Only the counts the charts draw, not the whole summary. Inlined into a
+     * script block unescaped, so {@code <} is written as a JSON escape and a
+     * department called {@code </script>} cannot end the block.
+     */
+    private String chartJson(FeedbackSummary summary) {
+        Map<String, Object> counts = new LinkedHashMap<>();
+        counts.put("sentimentCounts", summary.getSentimentCounts());
+        counts.put("categoryCounts", summary.getCategoryCounts());
+        counts.put("departmentCounts", summary.getDepartmentCounts());
+        try {
+            return objectMapper.writeValueAsString(counts).replace("<", "\\u003c");
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize dashboard chart data", e);
+        }
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("feedback.response.cache")
+                .description("Hot read responses served from, or added to, the serialized cache")
+                .tag("endpoint", "dashboard")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    /** Model attribute {@code fragments} of dashboard.html. */
+    public static final class Fragments {
+        private final String etag;
+        private final String summaryCards;
+        private final String recentFeedback;
+        private final String chartJson;
+
+        private Fragments(String etag, String summaryCards, String recentFeedback, String chartJson) {
+            this.etag = etag;
+            this.summaryCards = summaryCards;
+            this.recentFeedback = recentFeedback;
+            this.chartJson = chartJson;
+        }
+
+        public String getSummaryCards() {
+            return summaryCards;
+        }
+
+        public String getRecentFeedback() {
+            return recentFeedback;
+        }
+
+        public String getChartJson() {
+            return chartJson;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.retailstore.feedback.service.view;
+
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Monotonic counter bumped by every change to what the read endpoints serve:
+ * working-set writes and snapshot publishes. Equal stamps mean byte-identical
+ * responses, so a stamp is used as a strong ETag.
+ *
+ * <p>The stamp also carries the current date, because date-windowed views
+ * (sketch retention, default trend ranges) change at midnight without any
+ * write, and a per-process epoch, because the counter restarts at zero.
+ */
+@Component
+public class DataVersion {
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong version = new AtomicLong();
+    private volatile Instant modifiedAt = Instant.now();
+
+    public void bump() {
+        version.incrementAndGet();
+        modifiedAt = Instant.now();
+    }
+
+    /** Read before computing a response, so a concurrent write can only make the tag older than the body. */
+    public Stamp current() {
+        long current = version.get();
+        LocalDate today = LocalDate.now();
+        long startOfDay = today.atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        return new Stamp("\"" + epoch + "-" + current + "-" + today.toEpochDay() + "\"",
+                Math.max(modifiedAt.toEpochMilli(), startOfDay));
+    }
+
+    /**
+     * @param etag         quoted strong entity tag
+     * @param lastModified epoch millis of the last change; HTTP carries it at
+     *                     second precision, so clients should prefer the ETag
+     */
+    public record Stamp(String etag, long lastModified) {
+
+        /** Same version, distinct tag for another representation such as a gzip encoding. */
+        public Stamp variant(String suffix) {
+            return new Stamp(etag.substring(0, etag.length() - 1) + "-" + suffix + "\"", lastModified);
+        }
+    }
+}
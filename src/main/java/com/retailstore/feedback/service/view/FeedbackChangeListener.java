@@ -0,0 +1,30 @@
+package com.retailstore.feedback.service.view;
+
+import com.retailstore.feedback.model.EnhancedFeedback;
+
+import java.util.Set;
+
+/**
+ * Receives every change to the enhanced feedback working set so derived views
+ * can be maintained incrementally instead of rescanning all entries.
+ * Callbacks are delivered one at a time while FeedbackService holds its write
+ * lock, so implementations only need to make their reads thread-safe.
+ */
+public interface FeedbackChangeListener {
+
+    /**
+     * @param previous the entry being replaced, or {@code null} for a new id
+     * @param current  the entry now stored under that id
+     */
+    void onUpsert(EnhancedFeedback previous, EnhancedFeedback current);
+
+    void onRemove(EnhancedFeedback removed);
+
+    /**
+     * Called when a revalidation has read the repository, with every id it
+     * holds. Views restored from disk use it to drop entries deleted while
+     * the service was down; purely in-memory views can ignore it.
+     */
+    default void onRevalidated(Set<Long> repositoryIds) {
+    }
+}
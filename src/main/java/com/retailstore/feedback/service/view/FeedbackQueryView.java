@@ -0,0 +1,323 @@
+package com.retailstore.feedback.service.view;
+
+import com.retailstore.feedback.model.EnhancedFeedback;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Secondary indexes over the working set for filtered, keyset-paginated
+ * reads. Entries are ordered by (date, id) and by id, and each department,
+ * sentiment and category value keeps its own (date, id) ordered posting
+ * list, so a date-sorted page walks the most selective posting list from the
+ * cursor position and touches roughly {@code limit} entries plus those
+ * rejected by the other filters. Id-sorted pages walk the id index.
+ *
+ * <p>Writes arrive one at a time from FeedbackService; reads run lock-free on
+ * the concurrent maps and may see a change made while a page is collected.
+ */
+@Component
+public class FeedbackQueryView implements FeedbackChangeListener {
+
+    /** Stands in for a missing date so such entries sort before all others. */
+    private static final long NO_DATE = Long.MIN_VALUE;
+
+    private final NavigableMap<DateKey, Indexed> byDate = new ConcurrentSkipListMap<>();
+    private final NavigableMap<Long, Indexed> byId = new ConcurrentSkipListMap<>();
+    private final Map<String, Posting> departments = new ConcurrentHashMap<>();
+    private final Map<String, Posting> sentiments = new ConcurrentHashMap<>();
+    private final Map<String, Posting> categories = new ConcurrentHashMap<>();
+    /** Epoch day -> entries on that day, for the selectivity of a date range. */
+    private final NavigableMap<Long, AtomicInteger> dayCounts = new ConcurrentSkipListMap<>();
+    /** Skip list size() is a full walk; this and {@link Posting#count} are what planning reads. */
+    private final AtomicInteger total = new AtomicInteger();
+
+    @Override
+    public synchronized void onUpsert(EnhancedFeedback previous, EnhancedFeedback current) {
+        Indexed stale = byId.get(current.getId());
+        if (stale != null) {
+            unindex(stale);
+        }
+        index(new Indexed(current));
+    }
+
+    @Override
+    public synchronized void onRemove(EnhancedFeedback removed) {
+        Indexed stale = byId.get(removed.getId());
+        if (stale != null) {
+            unindex(stale);
+        }
+    }
+
+    /**
+     * Returns up to {@code limit} entries matching every non-blank filter, in
+     * {@code sort} order and strictly after {@code cursor}. Filters match
+     * case-insensitively; {@code from} and {@code to} are inclusive.
+     *
+     * @throws IllegalArgumentException if the cursor is malformed or belongs to
+     *                                  the other sort key
+     */
+    public Page query(FeedbackSort sort, String department, String sentiment, String category,
+                      LocalDate from, LocalDate to, String cursor, int limit) {
+        Filter filter = new Filter(normalize(department), normalize(sentiment), normalize(category),
+                from != null ? from.toEpochDay() : null, to != null ? to.toEpochDay() : null);
+        Cursor after = cursor != null && !cursor.isBlank() ? Cursor.decode(cursor, sort) : null;
+
+        Iterator<Indexed> candidates = sort.byDate() ? dateCandidates(filter, after, sort.descending())
+                : idCandidates(after, sort.descending());
+
+        List<EnhancedFeedback> items = new ArrayList<>(Math.min(limit, 256));
+        Indexed last = null;
+        boolean more = false;
+        while (candidates.hasNext()) {
+            Indexed candidate = candidates.next();
+            if (!filter.matches(candidate)) {
+                continue;
+            }
+            if (items.size() == limit) {
+                more = true;
+                break;
+            }
+            items.add(candidate.feedback);
+            last = candidate;
+        }
+
+        String next = more ? Cursor.of(last, sort).encode() : null;
+        return new Page(items, next, approximateTotal(filter));
+    }
+
+    private Iterator<Indexed> dateCandidates(Filter filter, Cursor after, boolean descending) {
+        NavigableMap<DateKey, Indexed> source = byDate;
+        int sourceSize = total.get();
+        for (Posting posting : new Posting[] {posting(departments, filter.department),
+                posting(sentiments, filter.sentiment), posting(categories, filter.category)}) {
+            if (posting != null && posting.size() < sourceSize) {
+                source = posting.entries;
+                sourceSize = posting.size();
+            }
+        }
+
+        DateKey lo = filter.from != null ? new DateKey(filter.from, Long.MIN_VALUE) : null;
+        DateKey hi = filter.to != null ? new DateKey(filter.to, Long.MAX_VALUE) : null;
+        boolean loInclusive = true;
+        boolean hiInclusive = true;
+        if (after != null && !descending && (lo == null || after.key.compareTo(lo) >= 0)) {
+            lo = after.key;
+            loInclusive = false;
+        } else if (after != null && descending && (hi == null || after.key.compareTo(hi) <= 0)) {
+            hi = after.key;
+            hiInclusive = false;
+        }
+
+        if (lo != null && hi != null) {
+            int order = lo.compareTo(hi);
+            if (order > 0 || order == 0 && !(loInclusive && hiInclusive)) {
+                return Collections.emptyIterator();
+            }
+        }
+        NavigableMap<DateKey, Indexed> range = source;
+        if (lo != null) {
+            range = range.tailMap(lo, loInclusive);
+        }
+        if (hi != null) {
+            range = range.headMap(hi, hiInclusive);
+        }
+        return (descending ? range.descendingMap() : range).values().iterator();
+    }
+
+    private Iterator<Indexed> idCandidates(Cursor after, boolean descending) {
+        NavigableMap<Long, Indexed> range = byId;
+        if (after != null) {
+            range = descending ? range.headMap(after.key.id, false) : range.tailMap(after.key.id, false);
+        }
+        return (descending ? range.descendingMap() : range).values().iterator();
+    }
+
+    /**
+     * Exact for a single filter; with several, assumes they are independent
+     * and multiplies their selectivities.
+     */
+    private long approximateTotal(Filter filter) {
+        int size = total.get();
+        if (size == 0) {
+            return 0;
+        }
+        double estimate = size;
+        estimate = narrow(estimate, size, departments, filter.department);
+        estimate = narrow(estimate, size, sentiments, filter.sentiment);
+        estimate = narrow(estimate, size, categories, filter.category);
+        if (filter.from != null || filter.to != null) {
+            long first = filter.from != null ? filter.from : NO_DATE + 1;
+            long lastDay = filter.to != null ? filter.to : Long.MAX_VALUE;
+            long inRange = 0;
+            if (first <= lastDay) {
+                for (AtomicInteger count : dayCounts.subMap(first, true, lastDay, true).values()) {
+                    inRange += count.get();
+                }
+            }
+            estimate *= (double) inRange / size;
+        }
+        return Math.round(estimate);
+    }
+
+    private static double narrow(double estimate, int total, Map<String, Posting> postings, String value) {
+        if (value == null) {
+            return estimate;
+        }
+        Posting posting = postings.get(value);
+        return posting != null ? estimate * posting.size() / total : 0;
+    }
+
+    private void index(Indexed entry) {
+        byDate.put(entry.key, entry);
+        byId.put(entry.key.id, entry);
+        departments.computeIfAbsent(entry.department, value -> new Posting()).add(entry);
+        sentiments.computeIfAbsent(entry.sentiment, value -> new Posting()).add(entry);
+        categories.computeIfAbsent(entry.category, value -> new Posting()).add(entry);
+        dayCounts.computeIfAbsent(entry.key.epochDay, day -> new AtomicInteger()).incrementAndGet();
+        total.incrementAndGet();
+    }
+
+    private void unindex(Indexed entry) {
+        byDate.remove(entry.key);
+        byId.remove(entry.key.id);
+        departments.get(entry.department).remove(entry);
+        sentiments.get(entry.sentiment).remove(entry);
+        categories.get(entry.category).remove(entry);
+        if (dayCounts.get(entry.key.epochDay).decrementAndGet() == 0) {
+            dayCounts.remove(entry.key.epochDay);
+        }
+        total.decrementAndGet();
+    }
+
+    private static Posting posting(Map<String, Posting> postings, String value) {
+        if (value == null) {
+            return null;
+        }
+        Posting posting = postings.get(value);
+        // An unknown value matches nothing; walking an empty map says so cheaply
+        return posting != null ? posting : Posting.EMPTY;
+    }
+
+    /** Lower-cased filter value, or {@code null} when the filter is absent. */
+    private static String normalize(String value) {
+        return value == null || value.isBlank() ? null : value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static String indexValue(String value) {
+        return (value != null ? value : ValueDictionary.UNKNOWN).toLowerCase(Locale.ROOT);
+    }
+
+    /** One page of results; {@code next} is {@code null} on the last page. */
+    public record Page(List<EnhancedFeedback> items, String next, long approximateTotal) {
+    }
+
+    record DateKey(long epochDay, long id) implements Comparable<DateKey> {
+        @Override
+        public int compareTo(DateKey other) {
+            int byDay = Long.compare(epochDay, other.epochDay);
+            return byDay != 0 ? byDay : Long.compare(id, other.id);
+        }
+    }
+
+    /** An entry with its index keys captured at insert time, so removal never depends on later mutation. */
+    private static final class Indexed {
+        final DateKey key;
+        final String department;
+        final String sentiment;
+        final String category;
+        final EnhancedFeedback feedback;
+
+        Indexed(EnhancedFeedback feedback) {
+            this.key = new DateKey(feedback.getDate() != null ? feedback.getDate().toEpochDay() : NO_DATE,
+                    feedback.getId());
+            this.department = indexValue(feedback.getDepartment());
+            this.sentiment = indexValue(feedback.getSentiment());
+            this.category = indexValue(feedback.getCategory());
+            this.feedback = feedback;
+        }
+    }
+
+    private static final class Posting {
+        static final Posting EMPTY = new Posting();
+
+        final NavigableMap<DateKey, Indexed> entries = new ConcurrentSkipListMap<>();
+        final AtomicInteger count = new AtomicInteger();
+
+        void add(Indexed entry) {
+            if (entries.put(entry.key, entry) == null) {
+                count.incrementAndGet();
+            }
+        }
+
+        void remove(Indexed entry) {
+            if (entries.remove(entry.key) != null) {
+                count.decrementAndGet();
+            }
+        }
+
+        int size() {
+            return count.get();
+        }
+    }
+
+    private record Filter(String department, String sentiment, String category, Long from, Long to) {
+        boolean matches(Indexed entry) {
+            return (department == null || department.equals(entry.department))
+                    && (sentiment == null || sentiment.equals(entry.sentiment))
+                    && (category == null || category.equals(entry.category))
+                    && (from == null || entry.key.epochDay >= from)
+                    && (to == null || entry.key.epochDay <= to);
+        }
+    }
+
+    /**
+     * Opaque position after the last returned entry: {@code d:<epochDay>:<id>}
+     * for date sorts and {@code i:<id>} for id sorts, base64url encoded.
+     */
+    private record Cursor(DateKey key, boolean byDate) {
+
+        static Cursor of(Indexed last, FeedbackSort sort) {
+            return new Cursor(last.key, sort.byDate());
+        }
+
+        String encode() {
+            String raw = byDate ? "d:" + key.epochDay + ":" + key.id : "i:" + key.id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static Cursor decode(String cursor, FeedbackSort sort) {
+            String raw;
+            try {
+                raw = new String(Base64.getUrlDecoder().decode(cursor.trim()), StandardCharsets.UTF_8);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor);
+            }
+            String[] parts = raw.split(":");
+            try {
+                if (sort.byDate() && parts.length == 3 && parts[0].equals("d")) {
+                    return new Cursor(new DateKey(Long.parseLong(parts[1]), Long.parseLong(parts[2])), true);
+                }
+                if (!sort.byDate() && parts.length == 2 && parts[0].equals("i")) {
+                    return new Cursor(new DateKey(NO_DATE, Long.parseLong(parts[1])), false);
+                }
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor);
+            }
+            throw new IllegalArgumentException("Cursor does not belong to sort '" + sort.parameter()
+                    + "'; restart from the first page");
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.retailstore.feedback.service.view;
+
+/** Orderings supported by {@link FeedbackQueryView}; ties on date break by id. */
+public enum FeedbackSort {
+    DATE_DESC("-date"),
+    DATE_ASC("date"),
+    ID_DESC("-id"),
+    ID_ASC("id");
+
+    private final String parameter;
+
+    FeedbackSort(String parameter) {
+        this.parameter = parameter;
+    }
+
+    public String parameter() {
+        return parameter;
+    }
+
+    boolean byDate() {
+        return this == DATE_DESC || this == DATE_ASC;
+    }
+
+    boolean descending() {
+        return this == DATE_DESC || this == ID_DESC;
+    }
+
+    public static FeedbackSort parse(String value) {
+        String trimmed = value.trim();
+        for (FeedbackSort sort : values()) {
+            if (sort.parameter.equalsIgnoreCase(trimmed)) {
+                return sort;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported sort: " + value + " (expected date, -date, id or -id)");
+    }
+}
@@ -0,0 +1,145 @@
+package com.retailstore.feedback.service.view;
+
+import com.retailstore.feedback.model.EnhancedFeedback;
+import com.retailstore.feedback.model.FeedbackSummary;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Materialized feedback summary. Each upsert or remove adjusts a few
+ * primitive counters and a bounded buffer of the most recent entries, so
+ * reading the summary never touches the full feedback list.
+ */
+@Component
+public class FeedbackSummaryView implements FeedbackChangeListener {
+
+    static final int RECENT_LIMIT = 5;
+
+    /** Slack above the limit so deleting a recent entry rarely needs a backfill. */
+    private static final int RECENT_CAPACITY = RECENT_LIMIT * 4;
+
+    private final ValueDictionary departments = new ValueDictionary();
+    private final ValueDictionary sentiments = new ValueDictionary();
+    private final ValueDictionary categories = new ValueDictionary();
+
+    private int[] departmentCounts = new int[16];
+    private int[] sentimentCounts = new int[8];
+    private int[] categoryCounts = new int[16];
+    private int totalFeedback;
+
+    /**
+     * Exact top entries by id: whenever it holds n entries, they are the n
+     * newest in the working set.
+     */
+    private final TreeMap<Long, EnhancedFeedback> recent = new TreeMap<>();
+
+    private long version;
+    private long publishedVersion = -1;
+    private FeedbackSummary published;
+
+    @Override
+    public synchronized void onUpsert(EnhancedFeedback previous, EnhancedFeedback current) {
+        if (previous != null) {
+            count(previous, -1);
+        }
+        count(current, 1);
+
+        if (previous != null && recent.containsKey(previous.getId())) {
+            recent.put(current.getId(), current);
+        } else {
+            offerRecent(current);
+        }
+        version++;
+    }
+
+    @Override
+    public synchronized void onRemove(EnhancedFeedback removed) {
+        count(removed, -1);
+        recent.remove(removed.getId());
+        version++;
+    }
+
+    /**
+     * True once deletes have drained the recent buffer below what the summary
+     * shows while older entries exist that are not tracked.
+     */
+    public synchronized boolean needsRecentBackfill() {
+        return recent.size() < RECENT_LIMIT && totalFeedback > recent.size();
+    }
+
+    public synchronized void backfillRecent(Iterable<EnhancedFeedback> newestFirst) {
+        recent.clear();
+        for (EnhancedFeedback feedback : newestFirst) {
+            if (recent.size() == RECENT_CAPACITY) {
+                break;
+            }
+            recent.put(feedback.getId(), feedback);
+        }
+        version++;
+    }
+
+    public synchronized FeedbackSummary getSummary() {
+        if (publishedVersion != version) {
+            published = FeedbackSummary.builder()
+                    .totalFeedback(totalFeedback)
+                    .sentimentCounts(toMap(sentiments, sentimentCounts))
+                    .categoryCounts(toMap(categories, categoryCounts))
+                    .departmentCounts(toMap(departments, departmentCounts))
+                    .recentFeedback(newestRecent())
+                    .build();
+            publishedVersion = version;
+        }
+        return published;
+    }
+
+    private void count(EnhancedFeedback feedback, int delta) {
+        departmentCounts = increment(departmentCounts, departments.encode(feedback.getDepartment()), delta);
+        sentimentCounts = increment(sentimentCounts, sentiments.encode(feedback.getSentiment()), delta);
+        categoryCounts = increment(categoryCounts, categories.encode(feedback.getCategory()), delta);
+        totalFeedback += delta;
+    }
+
+    private void offerRecent(EnhancedFeedback feedback) {
+        // Entries older than the buffer can only be admitted while it still tracks everything
+        boolean tracksAll = recent.size() == totalFeedback - 1;
+        if (tracksAll || !recent.isEmpty() && feedback.getId() > recent.firstKey()) {
+            recent.put(feedback.getId(), feedback);
+            if (recent.size() > RECENT_CAPACITY) {
+                recent.pollFirstEntry();
+            }
+        }
+    }
+
+    private List<EnhancedFeedback> newestRecent() {
+        List<EnhancedFeedback> newest = new ArrayList<>(RECENT_LIMIT);
+        for (EnhancedFeedback feedback : recent.descendingMap().values()) {
+            if (newest.size() == RECENT_LIMIT) {
+                break;
+            }
+            newest.add(feedback);
+        }
+        return newest;
+    }
+
+    private static int[] increment(int[] counts, int code, int delta) {
+        int[] target = code < counts.length ? counts : Arrays.copyOf(counts, Math.max(code + 1, counts.length * 2));
+        target[code] += delta;
+        return target;
+    }
+
+    private static Map<String, Integer> toMap(ValueDictionary dictionary, int[] counts) {
+        Map<String, Integer> map = new HashMap<>();
+        for (int code = 0; code < dictionary.size(); code++) {
+            if (counts[code] > 0) {
+                map.put(dictionary.decode(code), counts[code]);
+            }
+        }
+        return map;
+    }
+}
@@ -0,0 +1,125 @@
+package com.retailstore.feedback.service.view;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.retailstore.feedback.service.metrics.StageMetrics;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compact UTF-8 JSON of hot read responses, kept for the current
+ * {@link DataVersion} only. Polls between two writes are answered from the
+ * same bytes, and the gzip variant is compressed once per version on first
+ * use. Concurrent misses for one key serialize once; the others wait for it.
+ */
+@Component
+public class SerializedResponseCache {
+
+    private final ObjectWriter compactWriter;
+    private final ObjectWriter prettyWriter;
+    private final MeterRegistry meterRegistry;
+    private final StageMetrics stageMetrics;
+    private final Map<String, Serialized> entries = new ConcurrentHashMap<>();
+
+    public SerializedResponseCache(ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                                   StageMetrics stageMetrics) {
+        this.compactWriter = objectMapper.writer().without(SerializationFeature.INDENT_OUTPUT);
+        this.prettyWriter = objectMapper.writerWithDefaultPrettyPrinter();
+        this.meterRegistry = meterRegistry;
+        this.stageMetrics = stageMetrics;
+    }
+
+    /**
+     * Returns the bytes cached under {@code key} for {@code stamp}, serializing
+     * {@code body} when the version has moved on.
+     */
+    public Serialized get(String key, DataVersion.Stamp stamp, Supplier<?> body) {
+        Serialized cached = entries.get(key);
+        if (cached != null && cached.etag.equals(stamp.etag())) {
+            record(key, "hit");
+            return cached;
+        }
+        return entries.compute(key, (k, current) -> {
+            if (current != null && current.etag.equals(stamp.etag())) {
+                record(key, "hit");
+                return current;
+            }
+            record(key, "miss");
+            return new Serialized(stamp.etag(), write(compactWriter, body.get()));
+        });
+    }
+
+    /** Indented JSON for {@code ?pretty}; never cached. */
+    public byte[] pretty(Object body) {
+        return write(prettyWriter, body);
+    }
+
+    private void record(String key, String result) {
+        Counter.builder("feedback.response.cache")
+                .description("Hot read responses served from, or added to, the serialized cache")
+                .tag("endpoint", key)
+                .tag("result", result)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private byte[] write(ObjectWriter writer, Object body) {
+        return stageMetrics.time(StageMetrics.Stage.SERIALIZATION, () -> {
+            try {
+                return writer.writeValueAsBytes(body);
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("Failed to serialize response: " + e.getMessage(), e);
+            }
+        });
+    }
+
+    public static final class Serialized {
+        private final String etag;
+        private final byte[] json;
+        private volatile byte[] gzip;
+
+        private Serialized(String etag, byte[] json) {
+            this.etag = etag;
+            this.json = json;
+        }
+
+        public byte[] json() {
+            return json;
+        }
+
+        public byte[] gzip() {
+            byte[] compressed = gzip;
+            if (compressed == null) {
+                synchronized (this) {
+                    compressed = gzip;
+                    if (compressed == null) {
+                        compressed = compress(json);
+                        gzip = compressed;
+                    }
+                }
+            }
+            return compressed;
+        }
+
+        private static byte[] compress(byte[] bytes) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, bytes.length / 4));
+            try (GZIPOutputStream gzip = new GZIPOutputStream(out, 8192)) {
+                gzip.write(bytes);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return out.toByteArray();
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package com.retailstore.feedback.service.view;
+
+import com.retailstore.feedback.config.FeedbackConfig;
+import com.retailstore.feedback.model.EnhancedFeedback;
+import com.retailstore.feedback.model.dto.TrendBucket;
+import com.retailstore.feedback.model.dto.TrendResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Pre-aggregated feedback counts per hour, day and week, keyed by
+ * department x sentiment x category. Every entry is counted in all three
+ * tiers; finer tiers only keep recent buckets, so older data survives at
+ * day or week resolution only and memory stays bounded.
+ *
+ * <p>Entries only carry a calendar date. An entry enhanced on the day it was
+ * submitted is placed in the hour it was enhanced; older entries fall into
+ * the first hour of their date.
+ */
+@Component
+@RequiredArgsConstructor
+public class TrendRollupView implements FeedbackChangeListener {
+
+    private static final int CODE_BITS = 21;
+    private static final long CODE_MASK = (1L << CODE_BITS) - 1;
+
+    private final FeedbackConfig feedbackConfig;
+
+    private final ValueDictionary departments = new ValueDictionary();
+    private final ValueDictionary sentiments = new ValueDictionary();
+    private final ValueDictionary categories = new ValueDictionary();
+
+    /** Bucket start -> packed (department, sentiment, category) key -> count. */
+    private final Map<TrendGranularity, TreeMap<LocalDateTime, Map<Long, int[]>>> tiers = new EnumMap<>(Map.of(
+            TrendGranularity.HOUR, new TreeMap<>(),
+            TrendGranularity.DAY, new TreeMap<>(),
+            TrendGranularity.WEEK, new TreeMap<>()));
+
+    @Override
+    public synchronized void onUpsert(EnhancedFeedback previous, EnhancedFeedback current) {
+        LocalDateTime now = LocalDateTime.now();
+        if (previous != null) {
+            apply(previous, -1, now);
+        }
+        apply(current, 1, now);
+        evictExpired(now);
+    }
+
+    @Override
+    public synchronized void onRemove(EnhancedFeedback removed) {
+        apply(removed, -1, LocalDateTime.now());
+    }
+
+    /**
+     * Answers a range query by merging buckets. When the requested tier no
+     * longer holds buckets as old as {@code from}, the next coarser tier is
+     * used and reported in the response.
+     */
+    public synchronized TrendResponse query(TrendGranularity granularity, LocalDateTime from, LocalDateTime to,
+                                            String department, String sentiment, String category) {
+        LocalDateTime now = LocalDateTime.now();
+        TrendGranularity effective = granularity;
+        while (effective != TrendGranularity.WEEK && from.isBefore(cutoff(effective, now))) {
+            effective = effective.coarser();
+        }
+
+        NavigableMap<LocalDateTime, Map<Long, int[]>> range =
+                tiers.get(effective).subMap(effective.truncate(from), true, to, false);
+
+        List<TrendBucket> buckets = new ArrayList<>(range.size());
+        BucketAccumulator totals = new BucketAccumulator();
+        for (Map.Entry<LocalDateTime, Map<Long, int[]>> bucket : range.entrySet()) {
+            BucketAccumulator accumulator = new BucketAccumulator();
+            for (Map.Entry<Long, int[]> cell : bucket.getValue().entrySet()) {
+                long key = cell.getKey();
+                String cellDepartment = departments.decode((int) (key >>> (2 * CODE_BITS)));
+                String cellSentiment = sentiments.decode((int) ((key >>> CODE_BITS) & CODE_MASK));
+                String cellCategory = categories.decode((int) (key & CODE_MASK));
+                if (matches(department, cellDepartment) && matches(sentiment, cellSentiment)
+                        && matches(category, cellCategory)) {
+                    int count = cell.getValue()[0];
+                    accumulator.add(cellDepartment, cellSentiment, cellCategory, count);
+                    totals.add(cellDepartment, cellSentiment, cellCategory, count);
+                }
+            }
+            if (accumulator.total > 0) {
+                buckets.add(accumulator.toBucket(bucket.getKey()));
+            }
+        }
+
+        return TrendResponse.builder()
+                .granularity(effective.name().toLowerCase())
+                .from(from)
+                .to(to)
+                .totals(totals.toBucket(from))
+                .buckets(buckets)
+                .build();
+    }
+
+    private void apply(EnhancedFeedback feedback, int delta, LocalDateTime now) {
+        LocalDateTime time = eventTime(feedback);
+        if (time == null) {
+            return;
+        }
+
+        long key = ((long) departments.encode(feedback.getDepartment()) << (2 * CODE_BITS))
+                | ((long) sentiments.encode(feedback.getSentiment()) << CODE_BITS)
+                | categories.encode(feedback.getCategory());
+
+        for (TrendGranularity granularity : TrendGranularity.values()) {
+            LocalDateTime bucketStart = granularity.truncate(time);
+            if (bucketStart.isBefore(cutoff(granularity, now))) {
+                continue;
+            }
+
+            TreeMap<LocalDateTime, Map<Long, int[]>> tier = tiers.get(granularity);
+            Map<Long, int[]> bucket = delta > 0 ? tier.computeIfAbsent(bucketStart, start -> new HashMap<>()) : tier.get(bucketStart);
+            if (bucket == null) {
+                continue;
+            }
+            int[] count = bucket.computeIfAbsent(key, k -> new int[1]);
+            count[0] += delta;
+            if (count[0] <= 0) {
+                bucket.remove(key);
+                if (bucket.isEmpty()) {
+                    tier.remove(bucketStart);
+                }
+            }
+        }
+    }
+
+    private void evictExpired(LocalDateTime now) {
+        for (TrendGranularity granularity : TrendGranularity.values()) {
+            tiers.get(granularity).headMap(cutoff(granularity, now)).clear();
+        }
+    }
+
+    private LocalDateTime cutoff(TrendGranularity granularity, LocalDateTime now) {
+        FeedbackConfig.Trends trends = feedbackConfig.getTrends();
+        Duration retention = switch (granularity) {
+            case HOUR -> trends.getHourRetention();
+            case DAY -> trends.getDayRetention();
+            case WEEK -> trends.getWeekRetention();
+        };
+        return granularity.truncate(now.minus(retention));
+    }
+
+    private static LocalDateTime eventTime(EnhancedFeedback feedback) {
+        LocalDate date = feedback.getDate();
+        if (date == null) {
+            return null;
+        }
+        LocalDateTime enhancedAt = feedback.getEnhancedAt();
+        if (enhancedAt != null && enhancedAt.toLocalDate().equals(date)) {
+            return enhancedAt;
+        }
+        return date.atStartOfDay();
+    }
+
+    private static boolean matches(String filter, String value) {
+        return filter == null || filter.isBlank() || filter.equalsIgnoreCase(value);
+    }
+
+    private static final class BucketAccumulator {
+        private int total;
+        private final Map<String, Integer> sentimentCounts = new HashMap<>();
+        private final Map<String, Integer> categoryCounts = new HashMap<>();
+        private final Map<String, Integer> departmentCounts = new HashMap<>();
+
+        private void add(String department, String sentiment, String category, int count) {
+            total += count;
+            departmentCounts.merge(department, count, Integer::sum);
+            sentimentCounts.merge(sentiment, count, Integer::sum);
+            categoryCounts.merge(category, count, Integer::sum);
+        }
+
+        private TrendBucket toBucket(LocalDateTime start) {
+            return TrendBucket.builder()
+                    .start(start)
+                    .total(total)
+                    .sentimentCounts(sentimentCounts)
+                    .categoryCounts(categoryCounts)
+                    .departmentCounts(departmentCounts)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.retailstore.feedback.service.view;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maps low-cardinality string values (departments, sentiments, categories)
+ * to dense int codes so counters can live in primitive arrays. Codes are never
+ * reused. Not thread-safe; callers guard access.
+ */
+public class ValueDictionary {
+
+    static final String UNKNOWN = "Unknown";
+
+    private final Map<String, Integer> codes = new HashMap<>();
+    private final List<String> values = new ArrayList<>();
+
+    public int encode(String value) {
+        String key = value != null ? value : UNKNOWN;
+        Integer code = codes.get(key);
+        if (code == null) {
+            code = values.size();
+            codes.put(key, code);
+            values.add(key);
+        }
+        return code;
+    }
+
+    public String decode(int code) {
+        return values.get(code);
+    }
+
+    public int size() {
+        return values.size();
+    }
+}
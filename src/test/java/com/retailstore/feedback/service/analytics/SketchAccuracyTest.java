@@ -0,0 +1,67 @@
+package com.retailstore.feedback.service.analytics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.withinPercentage;
+
+class SketchAccuracyTest {
+
+	@Test
+	void hyperLogLogEstimatesWithinErrorBoundAndMerges() {
+		HyperLogLog first = new HyperLogLog(12);
+		HyperLogLog second = new HyperLogLog(12);
+		for (int i = 0; i < 50_000; i++) {
+			first.add("customer-" + i);
+			second.add("customer-" + (i + 25_000));
+		}
+
+		double tolerance = 3 * HyperLogLog.relativeStandardError(12);
+		assertThat(first.estimate()).isCloseTo(50_000L, withinPercentage(tolerance * 100));
+
+		first.merge(second);
+		assertThat(first.estimate()).isCloseTo(75_000L, withinPercentage(tolerance * 100));
+	}
+
+	@Test
+	void countMinNeverUndercountsAndStaysWithinBound() {
+		CountMinSketch sketch = new CountMinSketch(2048, 5);
+		Map<String, Long> exact = new HashMap<>();
+		Random random = new Random(42);
+		for (int i = 0; i < 100_000; i++) {
+			String term = "term-" + (int) Math.abs(random.nextGaussian() * 500);
+			sketch.add(term, 1);
+			exact.merge(term, 1L, Long::sum);
+		}
+
+		exact.forEach((term, count) -> {
+			assertThat(sketch.estimate(term)).isGreaterThanOrEqualTo(count);
+			assertThat(sketch.estimate(term) - count).isLessThanOrEqualTo(sketch.maxOverestimate());
+		});
+	}
+
+	@Test
+	void heavyHittersKeepMostFrequentTermsAcrossMerges() {
+		HeavyHitters monday = new HeavyHitters(3, 2048, 5);
+		HeavyHitters tuesday = new HeavyHitters(3, 2048, 5);
+		for (int i = 0; i < 1_000; i++) {
+			monday.add("noise-" + i, 1);
+			tuesday.add("noise-" + (i + 1_000), 1);
+		}
+		monday.add("checkout", 40);
+		monday.add("rude", 25);
+		tuesday.add("checkout", 30);
+		tuesday.add("stock", 50);
+		tuesday.add("rude", -5);
+
+		monday.merge(tuesday);
+
+		List<String> top = monday.top().stream().map(Map.Entry::getKey).toList();
+		assertThat(top).containsExactly("checkout", "stock", "rude");
+	}
+}
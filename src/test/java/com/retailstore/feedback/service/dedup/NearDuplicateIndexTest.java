@@ -0,0 +1,111 @@
+package com.retailstore.feedback.service.dedup;
+
+import com.retailstore.feedback.config.FeedbackConfig;
+import com.retailstore.feedback.model.EnhancedFeedback;
+import com.retailstore.feedback.model.FeedbackEntry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class NearDuplicateIndexTest {
+
+	private static final String LATE_PARCEL = "The parcel arrived four days late, the box was crushed and nobody "
+			+ "at the Riverside store could tell me where my refund went.";
+	private static final String ONE_WORD_CHANGED = LATE_PARCEL.replace("four", "five");
+	private static final String UNRELATED = "Friendly cashier, quick checkout and the bakery shelves were fully "
+			+ "stocked this morning.";
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private FeedbackConfig config;
+	private NearDuplicateIndex index;
+
+	@BeforeEach
+	void setUp() {
+		config = new FeedbackConfig();
+		index = new NearDuplicateIndex(config, meterRegistry);
+	}
+
+	@Test
+	void textEqualAfterNormalisationHasTheSameSignature() {
+		String shouted = "the parcel ARRIVED four days late; the box was crushed -- and nobody at the "
+				+ "riverside store could tell me where my refund went!!";
+
+		assertThat(NearDuplicateIndex.normalize("  The PARCEL -- arrived!! late... ")).isEqualTo("the parcel arrived late");
+		assertThat(NearDuplicateIndex.normalize(shouted)).isEqualTo(NearDuplicateIndex.normalize(LATE_PARCEL));
+		assertThat(NearDuplicateIndex.signature(shouted)).isEqualTo(NearDuplicateIndex.signature(LATE_PARCEL));
+		assertThat(NearDuplicateIndex.signature("?! ...")).isNull();
+	}
+
+	@Test
+	void oneChangedWordIsReusedButUnrelatedTextIsNot() {
+		remember(entry(1, LATE_PARCEL, "Delivery", "NEGATIVE"), "Delivery");
+
+		NearDuplicateIndex.Match match = index.lookup(entry(2, ONE_WORD_CHANGED, "Delivery", "NEGATIVE")).match();
+
+		assertThat(match).isNotNull();
+		assertThat(match.feedbackId()).isEqualTo(1L);
+		assertThat(match.category()).isEqualTo("Delivery");
+		assertThat(match.similarity()).isGreaterThanOrEqualTo(config.getDedup().getSimilarityThreshold());
+		assertThat(index.lookup(entry(3, UNRELATED, "Delivery", "NEGATIVE")).match()).isNull();
+		assertThat(meterRegistry.counter("feedback.dedup.lookups", "result", "reused").count()).isEqualTo(1);
+	}
+
+	@Test
+	void otherDepartmentOrSentimentNeverMatches() {
+		remember(entry(1, LATE_PARCEL, "Delivery", "NEGATIVE"), "Delivery");
+
+		assertThat(index.lookup(entry(2, LATE_PARCEL, "Electronics", "NEGATIVE")).match()).isNull();
+		assertThat(index.lookup(entry(3, LATE_PARCEL, "Delivery", "NEUTRAL")).match()).isNull();
+		// Case differences alone do not change the scope
+		assertThat(index.lookup(entry(4, LATE_PARCEL, "delivery", "negative")).match()).isNotNull();
+	}
+
+	@Test
+	void neverReusesAnEntrysOwnEarlierResult() {
+		remember(entry(1, LATE_PARCEL, "Delivery", "NEGATIVE"), "Delivery");
+
+		assertThat(index.lookup(entry(1, LATE_PARCEL, "Delivery", "NEGATIVE")).match()).isNull();
+		assertThat(index.lookup(entry(2, LATE_PARCEL, "Delivery", "NEGATIVE")).match()).isNotNull();
+	}
+
+	@Test
+	void recordReplacesTheEntrysEarlierResultAndEvictsTheOldest() {
+		config.getDedup().setMaxEntries(2);
+		remember(entry(1, LATE_PARCEL, "Delivery", "NEGATIVE"), "Delivery");
+		remember(entry(1, LATE_PARCEL, "Delivery", "NEGATIVE"), "Refunds");
+
+		assertThat(index.size()).isEqualTo(1);
+		assertThat(index.lookup(entry(9, LATE_PARCEL, "Delivery", "NEGATIVE")).match().category())
+				.isEqualTo("Refunds");
+
+		remember(entry(2, UNRELATED, "Grocery", "POSITIVE"), "Service");
+		remember(entry(3, "The self checkout kept rejecting my loyalty card", "Grocery", "NEGATIVE"), "Checkout");
+
+		assertThat(index.size()).isEqualTo(2);
+		assertThat(index.lookup(entry(9, LATE_PARCEL, "Delivery", "NEGATIVE")).match()).isNull();
+		assertThat(index.lookup(entry(9, UNRELATED, "Grocery", "POSITIVE")).match()).isNotNull();
+	}
+
+	private void remember(FeedbackEntry entry, String category) {
+		NearDuplicateIndex.Lookup lookup = index.lookup(entry);
+		EnhancedFeedback enhanced = new EnhancedFeedback(entry);
+		enhanced.setCategory(category);
+		enhanced.setActionableInsight("Follow up on " + category);
+		index.record(lookup, enhanced);
+	}
+
+	private static FeedbackEntry entry(long id, String comment, String department, String sentiment) {
+		return FeedbackEntry.builder()
+				.id(id)
+				.customer("customer-" + id)
+				.department(department)
+				.date(LocalDate.of(2024, 1, 15))
+				.comment(comment)
+				.sentiment(sentiment)
+				.build();
+	}
+}
@@ -0,0 +1,182 @@
+package com.retailstore.feedback.service.idempotency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.retailstore.feedback.config.FeedbackConfig;
+import com.retailstore.feedback.exception.GlobalExceptionHandler;
+import com.retailstore.feedback.exception.IdempotencyConflictException;
+import com.retailstore.feedback.exception.IdempotencyKeyReusedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+class IdempotencyStoreTest {
+
+	private static final Map<String, String> PAYLOAD = Map.of("comment", "Checkout was slow");
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final ExecutorService background = Executors.newCachedThreadPool();
+	private final CountDownLatch release = new CountDownLatch(1);
+	private FeedbackConfig config;
+	private IdempotencyStore store;
+
+	@BeforeEach
+	void setUp() {
+		config = new FeedbackConfig();
+		store = new IdempotencyStore(config, new ObjectMapper(), meterRegistry);
+	}
+
+	@AfterEach
+	void tearDown() {
+		release.countDown();
+		background.shutdownNow();
+	}
+
+	@Test
+	void replaysTheStoredResponseWithoutRunningAgain() {
+		AtomicInteger runs = new AtomicInteger();
+
+		ResponseEntity<String> first = execute("key-1", PAYLOAD, runs, HttpStatus.CREATED);
+		ResponseEntity<String> retry = execute("key-1", PAYLOAD, runs, HttpStatus.CREATED);
+
+		assertThat(retry).isSameAs(first);
+		assertThat(runs).hasValue(1);
+		assertThat(meterRegistry.counter("feedback.idempotency.replayed").count()).isEqualTo(1);
+	}
+
+	@Test
+	void refusesAKeyReusedWithADifferentPayloadWith422() {
+		AtomicInteger runs = new AtomicInteger();
+		execute("key-1", PAYLOAD, runs, HttpStatus.CREATED);
+
+		Throwable thrown = catchThrowable(
+				() -> execute("key-1", Map.of("comment", "Something else"), runs, HttpStatus.CREATED));
+
+		assertThat(thrown).isInstanceOf(IdempotencyKeyReusedException.class);
+		assertThat(runs).hasValue(1);
+		assertThat(new GlobalExceptionHandler()
+				.handleIdempotencyKeyReused((IdempotencyKeyReusedException) thrown, new MockHttpServletRequest())
+				.getStatusCode()).isEqualTo(HttpStatus.UNPROCESSABLE_ENTITY);
+	}
+
+	@Test
+	void duplicateWaitingTooLongForTheFirstRequestGets409() throws Exception {
+		config.getIdempotency().setWaitTimeout(Duration.ofMillis(50));
+		AtomicInteger runs = new AtomicInteger();
+		startBlocked("key-1", runs);
+
+		Throwable thrown = catchThrowable(() -> execute("key-1", PAYLOAD, runs, HttpStatus.CREATED));
+
+		assertThat(thrown).isInstanceOf(IdempotencyConflictException.class);
+		assertThat(runs).hasValue(1);
+		assertThat(new GlobalExceptionHandler()
+				.handleIdempotencyConflict((IdempotencyConflictException) thrown, new MockHttpServletRequest())
+				.getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+	}
+
+	@Test
+	void duplicateArrivingWhileTheFirstRunsGetsItsResult() throws Exception {
+		AtomicInteger runs = new AtomicInteger();
+		startBlocked("key-1", runs);
+		Future<ResponseEntity<String>> duplicate = background.submit(
+				() -> execute("key-1", PAYLOAD, runs, HttpStatus.CREATED));
+
+		release.countDown();
+
+		assertThat(duplicate.get(2, TimeUnit.SECONDS).getStatusCode()).isEqualTo(HttpStatus.ACCEPTED);
+		assertThat(runs).hasValue(1);
+	}
+
+	@Test
+	void doesNotStoreServerErrorsOrTooManyRequests() {
+		AtomicInteger runs = new AtomicInteger();
+
+		execute("key-503", PAYLOAD, runs, HttpStatus.SERVICE_UNAVAILABLE);
+		execute("key-503", PAYLOAD, runs, HttpStatus.SERVICE_UNAVAILABLE);
+		execute("key-429", PAYLOAD, runs, HttpStatus.TOO_MANY_REQUESTS);
+		execute("key-429", PAYLOAD, runs, HttpStatus.TOO_MANY_REQUESTS);
+		execute("key-400", PAYLOAD, runs, HttpStatus.BAD_REQUEST);
+		execute("key-400", PAYLOAD, runs, HttpStatus.BAD_REQUEST);
+
+		assertThat(runs).hasValue(5);
+	}
+
+	@Test
+	void expiredKeysRunAgainButRunningOnesAreKept() throws Exception {
+		config.getIdempotency().setTtl(Duration.ofMillis(20));
+		AtomicInteger runs = new AtomicInteger();
+		startBlocked("running", runs);
+		execute("done", PAYLOAD, runs, HttpStatus.CREATED);
+
+		Thread.sleep(50);
+		execute("done", PAYLOAD, runs, HttpStatus.CREATED);
+		assertThat(runs).hasValue(3);
+
+		Future<ResponseEntity<String>> duplicate = background.submit(
+				() -> execute("running", PAYLOAD, runs, HttpStatus.CREATED));
+		release.countDown();
+		assertThat(duplicate.get(2, TimeUnit.SECONDS).getStatusCode()).isEqualTo(HttpStatus.ACCEPTED);
+		assertThat(runs).hasValue(3);
+	}
+
+	@Test
+	void evictsTheOldestFinishedKeysButNeverRunningOnes() throws Exception {
+		config.getIdempotency().setMaxEntries(2);
+		AtomicInteger runs = new AtomicInteger();
+		startBlocked("running", runs);
+		execute("oldest", PAYLOAD, runs, HttpStatus.CREATED);
+		execute("newest", PAYLOAD, runs, HttpStatus.CREATED);
+
+		execute("newest", PAYLOAD, runs, HttpStatus.CREATED);
+		assertThat(runs).hasValue(3);
+		execute("oldest", PAYLOAD, runs, HttpStatus.CREATED);
+		assertThat(runs).hasValue(4);
+
+		Future<ResponseEntity<String>> duplicate = background.submit(
+				() -> execute("running", PAYLOAD, runs, HttpStatus.CREATED));
+		release.countDown();
+		assertThat(duplicate.get(2, TimeUnit.SECONDS).getStatusCode()).isEqualTo(HttpStatus.ACCEPTED);
+		assertThat(runs).hasValue(4);
+	}
+
+	private ResponseEntity<String> execute(String key, Object payload, AtomicInteger runs, HttpStatus status) {
+		return store.execute("raw", key, payload, IdempotencyStore::isStorable, () -> {
+			runs.incrementAndGet();
+			return ResponseEntity.status(status).body("run " + runs.get());
+		});
+	}
+
+	/**
+	 * Starts a first request for {@code key} on a background thread that
+	 * answers 202 once {@link #release} opens, and waits until it is running.
+	 */
+	private void startBlocked(String key, AtomicInteger runs) throws InterruptedException {
+		CountDownLatch running = new CountDownLatch(1);
+		background.submit(() -> store.execute("raw", key, PAYLOAD, IdempotencyStore::isStorable, () -> {
+			runs.incrementAndGet();
+			running.countDown();
+			try {
+				release.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			return ResponseEntity.status(HttpStatus.ACCEPTED).body("first");
+		}));
+		assertThat(running.await(2, TimeUnit.SECONDS)).isTrue();
+	}
+}
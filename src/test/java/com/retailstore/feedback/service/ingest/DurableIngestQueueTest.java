@@ -0,0 +1,212 @@
+package com.retailstore.feedback.service.ingest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.retailstore.feedback.config.FeedbackConfig;
+import com.retailstore.feedback.model.EnhancedFeedback;
+import com.retailstore.feedback.model.FeedbackEntry;
+import com.retailstore.feedback.service.pipeline.FeedbackPipeline;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class DurableIngestQueueTest {
+
+	private static final String FIRST_SEGMENT = "00000000000000000000.log";
+
+	@TempDir
+	Path directory;
+
+	private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final FeedbackPipeline pipeline = mock(FeedbackPipeline.class);
+	private final List<Long> submitted = new CopyOnWriteArrayList<>();
+	private final List<DurableIngestQueue> started = new ArrayList<>();
+	private FeedbackConfig config;
+
+	@BeforeEach
+	void setUp() {
+		config = new FeedbackConfig();
+		config.getQueue().setPath(directory.toString());
+		config.getQueue().setRetryBackoff(Duration.ofMillis(10));
+		// Commits only happen on stop, so every assertion sees a settled offset
+		config.getQueue().setCommitInterval(Duration.ofHours(1));
+		answerWith(entry -> CompletableFuture.completedFuture(new EnhancedFeedback(entry)));
+	}
+
+	@AfterEach
+	void tearDown() throws IOException {
+		for (DurableIngestQueue queue : started) {
+			queue.stop();
+		}
+	}
+
+	@Test
+	void replaysOnlyRecordsAfterTheCommittedOffset() throws Exception {
+		String first = line(entry(1));
+		Files.writeString(directory.resolve(FIRST_SEGMENT), first + line(entry(2)) + line(entry(3)));
+		Files.writeString(directory.resolve("consumer.offset"), Integer.toString(first.length()));
+
+		DurableIngestQueue queue = start();
+
+		verify(pipeline, timeout(2000).times(2)).submit(any());
+		assertThat(submitted).containsExactly(2L, 3L);
+		assertThat(meterRegistry.counter("feedback.queue.redelivered").count()).isEqualTo(2);
+		awaitDrained(queue);
+	}
+
+	@Test
+	void truncatesATornLastLineAndAppendsAfterIt() throws Exception {
+		String intact = line(entry(1)) + line(entry(2));
+		Path segment = directory.resolve(FIRST_SEGMENT);
+		Files.writeString(segment, intact + "{\"id\":3,\"cust");
+
+		DurableIngestQueue queue = start();
+		verify(pipeline, timeout(2000).times(2)).submit(any());
+		assertThat(Files.size(segment)).isEqualTo(intact.length());
+
+		queue.append(entry(4));
+		verify(pipeline, timeout(2000).times(3)).submit(any());
+		assertThat(submitted).containsExactly(1L, 2L, 4L);
+		assertThat(Files.readString(segment)).isEqualTo(intact + line(entry(4)));
+		awaitDrained(queue);
+	}
+
+	@Test
+	void deletesConsumedSegmentsOnCommit() throws Exception {
+		// Every append after the first starts a new segment
+		config.getQueue().setSegmentBytes(1);
+		DurableIngestQueue queue = start();
+		for (long id = 1; id <= 3; id++) {
+			queue.append(entry(id));
+		}
+		awaitDrained(queue);
+		assertThat(segmentFiles()).hasSize(3);
+
+		stop(queue);
+
+		long end = line(entry(1)).length() + line(entry(2)).length() + line(entry(3)).length();
+		assertThat(segmentFiles()).containsExactly(String.format("%020d.log", end - line(entry(3)).length()));
+		assertThat(Files.readString(directory.resolve("consumer.offset")).trim()).isEqualTo(Long.toString(end));
+
+		// Nothing after the offset, so a restart replays nothing
+		start();
+		assertThat(meterRegistry.counter("feedback.queue.redelivered").count()).isZero();
+	}
+
+	@Test
+	void retriesAndDropsAfterMaxAttempts() throws Exception {
+		config.getQueue().setMaxAttempts(3);
+		answerWith(entry -> CompletableFuture.failedFuture(new IllegalStateException("persist failed")));
+		DurableIngestQueue queue = start();
+
+		queue.append(entry(1));
+
+		verify(pipeline, timeout(2000).times(3)).submit(any());
+		awaitDrained(queue);
+		assertThat(meterRegistry.counter("feedback.queue.dropped").count()).isEqualTo(1);
+		verify(pipeline, times(3)).submit(any());
+	}
+
+	@Test
+	void pendingRetryDoesNotHoldUpFreshRecords() throws Exception {
+		config.getQueue().setRetryBackoff(Duration.ofHours(1));
+		answerWith(entry -> entry.getId() == 1
+				? CompletableFuture.failedFuture(new IllegalStateException("persist failed"))
+				: CompletableFuture.completedFuture(new EnhancedFeedback(entry)));
+		DurableIngestQueue queue = start();
+
+		queue.append(entry(1));
+		verify(pipeline, timeout(2000).times(1)).submit(any());
+		queue.append(entry(2));
+
+		verify(pipeline, timeout(2000).times(2)).submit(any());
+		assertThat(submitted).containsExactly(1L, 2L);
+		assertThat(queue.waiting()).isEqualTo(1);
+	}
+
+	@Test
+	void refusesADirectoryThatIsAlreadyInUse() throws Exception {
+		start();
+
+		DurableIngestQueue second = new DurableIngestQueue(config, pipeline, objectMapper, meterRegistry);
+		assertThatThrownBy(second::start)
+				.isInstanceOf(IllegalStateException.class)
+				.hasMessageContaining("in use");
+	}
+
+	private void answerWith(Function<FeedbackEntry, CompletableFuture<EnhancedFeedback>> result) {
+		when(pipeline.submit(any())).thenAnswer(invocation -> {
+			FeedbackEntry entry = invocation.getArgument(0);
+			submitted.add(entry.getId());
+			return result.apply(entry);
+		});
+	}
+
+	private DurableIngestQueue start() throws IOException {
+		DurableIngestQueue queue = new DurableIngestQueue(config, pipeline, objectMapper, meterRegistry);
+		queue.start();
+		started.add(queue);
+		return queue;
+	}
+
+	private void stop(DurableIngestQueue queue) throws IOException {
+		started.remove(queue);
+		queue.stop();
+	}
+
+	private static void awaitDrained(DurableIngestQueue queue) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 2000;
+		while (queue.depth() > 0 && System.currentTimeMillis() < deadline) {
+			Thread.sleep(5);
+		}
+		assertThat(queue.depth()).isZero();
+	}
+
+	private List<String> segmentFiles() throws IOException {
+		try (Stream<Path> files = Files.list(directory)) {
+			return files.map(file -> file.getFileName().toString())
+					.filter(name -> name.endsWith(".log"))
+					.sorted()
+					.toList();
+		}
+	}
+
+	private String line(FeedbackEntry entry) throws IOException {
+		return new String(objectMapper.writeValueAsBytes(entry), StandardCharsets.UTF_8) + "\n";
+	}
+
+	private static FeedbackEntry entry(long id) {
+		return FeedbackEntry.builder()
+				.id(id)
+				.customer("customer-" + id)
+				.department("Electronics")
+				.date(LocalDate.of(2024, 1, 15))
+				.comment("Comment " + id)
+				.build();
+	}
+}
@@ -0,0 +1,220 @@
+package com.retailstore.feedback.service.pipeline;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.retailstore.feedback.config.AsyncConfig;
+import com.retailstore.feedback.config.FeedbackConfig;
+import com.retailstore.feedback.config.GeminiConfig;
+import com.retailstore.feedback.config.MetricsConfig;
+import com.retailstore.feedback.model.EnhancedFeedback;
+import com.retailstore.feedback.model.FeedbackEntry;
+import com.retailstore.feedback.repository.FeedbackRepository;
+import com.retailstore.feedback.service.FeedbackService;
+import com.retailstore.feedback.service.GeminiService;
+import com.retailstore.feedback.service.SentimentAnalysisService;
+import com.retailstore.feedback.service.analytics.FeedbackSketchView;
+import com.retailstore.feedback.service.dedup.NearDuplicateIndex;
+import com.retailstore.feedback.service.metrics.StageMetrics;
+import com.retailstore.feedback.service.prompt.PromptTemplateRegistry;
+import com.retailstore.feedback.service.search.SearchIndex;
+import com.retailstore.feedback.service.view.DataVersion;
+import com.retailstore.feedback.service.view.FeedbackQueryView;
+import com.retailstore.feedback.service.view.FeedbackSummaryView;
+import com.retailstore.feedback.service.view.TrendRollupView;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import okhttp3.OkHttpClient;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.DisposableBean;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Pushes the same batch through the ingestion pipeline in both execution
+ * modes against a local Gemini stub with fixed latency, and prints throughput
+ * and latency for each. Sentiment and persistence are stubbed so only the
+ * blocking I/O path is measured.
+ *
+ * <p>Excluded from {@code test}; run with {@code ./gradlew benchmark}.
+ * Tune with {@code -Dbenchmark.entries}, {@code -Dbenchmark.latencyMs} and
+ * {@code -Dbenchmark.virtualConcurrency}.
+ */
+@Tag("benchmark")
+class ExecutionModeBenchmark {
+
+	private static final int ENTRIES = Integer.getInteger("benchmark.entries", 500);
+	private static final int LATENCY_MS = Integer.getInteger("benchmark.latencyMs", 100);
+	private static final int VIRTUAL_CONCURRENCY = Integer.getInteger("benchmark.virtualConcurrency", 256);
+
+	private static final String STUB_RESPONSE = """
+			{"candidates":[{"content":{"parts":[{"text":"{\\"category\\":\\"Delivery\\",\\"actionableInsight\\":\\"Ship faster.\\"}"}]}}],
+			 "usageMetadata":{"promptTokenCount":60,"candidatesTokenCount":20,"totalTokenCount":80}}""";
+
+	private static HttpServer geminiStub;
+	private static ExecutorService stubExecutor;
+
+	@BeforeAll
+	static void startGeminiStub() throws IOException {
+		geminiStub = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		geminiStub.createContext("/", exchange -> {
+			try {
+				exchange.getRequestBody().readAllBytes();
+				Thread.sleep(LATENCY_MS);
+				byte[] body = STUB_RESPONSE.getBytes(StandardCharsets.UTF_8);
+				exchange.getResponseHeaders().add("Content-Type", "application/json");
+				exchange.sendResponseHeaders(200, body.length);
+				try (OutputStream out = exchange.getResponseBody()) {
+					out.write(body);
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			} finally {
+				exchange.close();
+			}
+		});
+		// The stub must never be the bottleneck
+		stubExecutor = Executors.newCachedThreadPool();
+		geminiStub.setExecutor(stubExecutor);
+		geminiStub.start();
+	}
+
+	@AfterAll
+	static void stopGeminiStub() {
+		geminiStub.stop(0);
+		stubExecutor.shutdownNow();
+	}
+
+	@Test
+	void compareExecutionModes() throws Exception {
+		// Warm up connections and JIT so the first measured mode is not penalized
+		run(FeedbackConfig.ExecutionMode.PLATFORM, 8, Math.min(ENTRIES, 50));
+
+		Result platform = run(FeedbackConfig.ExecutionMode.PLATFORM, 8, ENTRIES);
+		Result virtual = run(FeedbackConfig.ExecutionMode.VIRTUAL, VIRTUAL_CONCURRENCY, ENTRIES);
+
+		System.out.printf("%nGemini stub latency %d ms, %d entries%n", LATENCY_MS, ENTRIES);
+		System.out.printf("%-9s %11s %10s %12s %8s %8s%n", "mode", "concurrency", "elapsed", "entries/s", "p50", "p99");
+		for (Result result : List.of(platform, virtual)) {
+			System.out.printf("%-9s %11d %8d ms %12.1f %5d ms %5d ms%n", result.mode, result.concurrency,
+					result.elapsed.toMillis(), result.throughput(), result.percentile(0.50), result.percentile(0.99));
+		}
+
+		assertThat(platform.completed).isEqualTo(ENTRIES);
+		assertThat(virtual.completed).isEqualTo(ENTRIES);
+	}
+
+	private Result run(FeedbackConfig.ExecutionMode mode, int enhanceConcurrency, int entries) throws Exception {
+		FeedbackConfig feedbackConfig = new FeedbackConfig();
+		feedbackConfig.getExecution().setMode(mode);
+		feedbackConfig.getPipeline().getEnhance().setConcurrency(enhanceConcurrency);
+		feedbackConfig.getPipeline().getEnhance().setQueueCapacity(entries);
+		feedbackConfig.getPipeline().getValidate().setQueueCapacity(entries);
+		feedbackConfig.getExecutors().getAi().setSize(enhanceConcurrency);
+		// Every entry has the same comment; reuse would skip the calls being measured
+		feedbackConfig.getDedup().setEnabled(false);
+
+		GeminiConfig geminiConfig = new GeminiConfig();
+		geminiConfig.setApiKey("benchmark");
+		geminiConfig.getApi().setUrl("http://127.0.0.1:" + geminiStub.getAddress().getPort() + "/generate");
+
+		SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+		OkHttpClient httpClient = new OkHttpClient.Builder().readTimeout(Duration.ofSeconds(30)).build();
+		StageMetrics stageMetrics = new StageMetrics(feedbackConfig, meterRegistry);
+		GeminiService geminiService = new GeminiService(httpClient, new ObjectMapper(), geminiConfig, meterRegistry,
+				stageMetrics);
+
+		FeedbackRepository repository = mock(FeedbackRepository.class);
+		when(repository.findAll()).thenReturn(List.of());
+		AsyncConfig asyncConfig = new AsyncConfig();
+		MetricsConfig metricsConfig = new MetricsConfig();
+		Executor cpuExecutor = asyncConfig.cpuExecutor(feedbackConfig, meterRegistry);
+		Executor aiExecutor = asyncConfig.aiExecutor(feedbackConfig, meterRegistry);
+		Executor storageExecutor = asyncConfig.storageExecutor(feedbackConfig, meterRegistry);
+		SentimentAnalysisService sentimentAnalysisService = mock(SentimentAnalysisService.class);
+		when(sentimentAnalysisService.analyzeSentiment(anyString())).thenReturn("NEGATIVE");
+
+		// Views, search and the other read-side listeners are left to mocks
+		FeedbackService feedbackService = new FeedbackService(repository, geminiService,
+				new PromptTemplateRegistry(geminiConfig), feedbackConfig, storageExecutor, aiExecutor, meterRegistry,
+				stageMetrics, metricsConfig.aiEnhancementCounter(meterRegistry),
+				metricsConfig.aiEnhancementTimer(meterRegistry), metricsConfig.feedbackProcessedCounter(meterRegistry),
+				mock(FeedbackSummaryView.class), mock(TrendRollupView.class), mock(FeedbackSketchView.class),
+				mock(FeedbackQueryView.class), mock(SearchIndex.class),
+				new NearDuplicateIndex(feedbackConfig, meterRegistry), new DataVersion(), List.of());
+		FeedbackPipeline pipeline = new FeedbackPipeline(feedbackConfig, sentimentAnalysisService, feedbackService,
+				meterRegistry, stageMetrics, cpuExecutor, aiExecutor, storageExecutor);
+		pipeline.start();
+		try {
+			List<FeedbackEntry> batch = new ArrayList<>(entries);
+			for (int i = 0; i < entries; i++) {
+				batch.add(new FeedbackEntry((long) i + 1, "Customer " + i, "Delivery", LocalDate.now(),
+						"The parcel arrived four days late and the box was damaged", null));
+			}
+
+			long[] latencies = new long[entries];
+			long start = System.nanoTime();
+			List<CompletableFuture<EnhancedFeedback>> results = pipeline.submitAll(batch);
+			// Await the callbacks themselves so every latency is written before it is read. An entry
+			// cannot finish before this loop attaches to it: each one waits at least one stub round trip
+			List<CompletableFuture<Void>> recorded = new ArrayList<>(entries);
+			for (int i = 0; i < entries; i++) {
+				int index = i;
+				recorded.add(results.get(i).handle((enhanced, error) -> {
+					latencies[index] = System.nanoTime() - start;
+					return null;
+				}));
+			}
+			CompletableFuture.allOf(recorded.toArray(new CompletableFuture[0])).get(5, TimeUnit.MINUTES);
+			Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+			long completed = results.stream().filter(result -> !result.isCompletedExceptionally()).count();
+			return new Result(mode, enhanceConcurrency, elapsed, (int) completed, latencies);
+		} finally {
+			pipeline.stop();
+			for (Executor executor : List.of(cpuExecutor, aiExecutor, storageExecutor)) {
+				if (executor instanceof DisposableBean pool) {
+					pool.destroy();
+				} else {
+					((AutoCloseable) executor).close();
+				}
+			}
+			httpClient.dispatcher().executorService().shutdown();
+			httpClient.connectionPool().evictAll();
+		}
+	}
+
+	private record Result(FeedbackConfig.ExecutionMode mode, int concurrency, Duration elapsed, int completed,
+						  long[] latencies) {
+
+		double throughput() {
+			return completed / (elapsed.toNanos() / 1e9);
+		}
+
+		long percentile(double quantile) {
+			long[] sorted = latencies.clone();
+			Arrays.sort(sorted);
+			int index = (int) Math.ceil(quantile * sorted.length) - 1;
+			return TimeUnit.NANOSECONDS.toMillis(sorted[Math.max(0, index)]);
+		}
+	}
+}
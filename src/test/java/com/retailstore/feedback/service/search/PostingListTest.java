@@ -0,0 +1,81 @@
+package com.retailstore.feedback.service.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PostingListTest {
+
+	/** Gaps and frequencies on both sides of every varint byte boundary. */
+	private static final int[] DOCS = {0, 1, 128, 129, 16_512, 2_113_664, 270_549_120, Integer.MAX_VALUE};
+	private static final int[] FREQUENCIES = {1, 127, 128, 16_383, 16_384, 2_097_152, 1, Integer.MAX_VALUE};
+
+	@Test
+	void varintsRoundTripAcrossByteBoundaries() {
+		PostingList list = new PostingList();
+		for (int i = 0; i < DOCS.length; i++) {
+			list.add(DOCS[i], FREQUENCIES[i]);
+		}
+
+		assertThat(list.size()).isEqualTo(DOCS.length);
+		assertThat(postings(list)).containsExactlyElementsOf(expected(DOCS, FREQUENCIES));
+	}
+
+	@Test
+	void writeToAndReadFromRoundTripAndKeepAppending() throws IOException {
+		PostingList list = new PostingList();
+		for (int i = 0; i < DOCS.length - 1; i++) {
+			list.add(DOCS[i], FREQUENCIES[i]);
+		}
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		list.writeTo(new DataOutputStream(bytes));
+		PostingList read = PostingList.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+		read.add(DOCS[DOCS.length - 1], FREQUENCIES[DOCS.length - 1]);
+
+		assertThat(read.size()).isEqualTo(DOCS.length);
+		assertThat(postings(read)).containsExactlyElementsOf(expected(DOCS, FREQUENCIES));
+	}
+
+	@Test
+	void remapRenumbersInOrderAndDropsDeadDocuments() {
+		PostingList list = new PostingList();
+		list.add(2, 3);
+		list.add(5, 1);
+		list.add(9, 4);
+		list.add(300, 2);
+
+		int[] newDocs = new int[301];
+		Arrays.fill(newDocs, -1);
+		newDocs[2] = 0;
+		newDocs[9] = 4;
+		newDocs[300] = 200;
+		PostingList remapped = list.remap(newDocs);
+
+		assertThat(remapped.size()).isEqualTo(3);
+		assertThat(postings(remapped)).containsExactly(List.of(0, 3), List.of(4, 4), List.of(200, 2));
+	}
+
+	private static List<List<Integer>> postings(PostingList list) {
+		List<List<Integer>> postings = new ArrayList<>();
+		list.forEach((doc, frequency) -> postings.add(List.of(doc, frequency)));
+		return postings;
+	}
+
+	private static List<List<Integer>> expected(int[] docs, int[] frequencies) {
+		List<List<Integer>> postings = new ArrayList<>();
+		for (int i = 0; i < docs.length; i++) {
+			postings.add(List.of(docs[i], frequencies[i]));
+		}
+		return postings;
+	}
+}
@@ -0,0 +1,164 @@
+package com.retailstore.feedback.service.search;
+
+import com.retailstore.feedback.config.FeedbackConfig;
+import com.retailstore.feedback.model.EnhancedFeedback;
+import com.retailstore.feedback.model.FeedbackEntry;
+import com.retailstore.feedback.service.text.FeedbackTokenizer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SearchIndexTest {
+
+	@TempDir
+	Path directory;
+
+	private final List<SearchIndex> started = new ArrayList<>();
+	private FeedbackConfig config;
+
+	@BeforeEach
+	void setUp() {
+		config = new FeedbackConfig();
+		config.getSearch().setPath(directory.resolve("search-index.bin").toString());
+	}
+
+	@AfterEach
+	void tearDown() {
+		started.forEach(SearchIndex::stop);
+	}
+
+	@Test
+	void savedIndexLoadsWithTheSameResults() {
+		SearchIndex index = start();
+		index.onUpsert(null, feedback(1, "Checkout lines were long and slow", "Grocery", "NEGATIVE"));
+		index.onUpsert(null, feedback(2, "Friendly staff at checkout", "Grocery", "POSITIVE"));
+		index.onUpsert(null, feedback(3, "Prices on laptops are fair", "Electronics", "POSITIVE"));
+		index.onRemove(feedback(3, "Prices on laptops are fair", "Electronics", "POSITIVE"));
+		SearchIndex.Result before = index.search("checkout", null, null, 10);
+		stop(index);
+
+		SearchIndex loaded = start();
+
+		assertThat(loaded.size()).isEqualTo(2);
+		assertThat(loaded.search("checkout", null, null, 10)).isEqualTo(before);
+		assertThat(loaded.search("checkout", "grocery", "positive", 10).hits())
+				.extracting(SearchIndex.Hit::feedbackId).containsExactly(2L);
+		assertThat(loaded.search("laptop prices", null, null, 10).hits()).isEmpty();
+	}
+
+	@Test
+	void revalidationDropsDocumentsMissingFromTheRepository() {
+		SearchIndex index = start();
+		for (long id = 1; id <= 3; id++) {
+			index.onUpsert(null, feedback(id, "Slow checkout " + id, "Grocery", "NEGATIVE"));
+		}
+
+		index.onRevalidated(Set.of(1L, 3L));
+
+		assertThat(index.size()).isEqualTo(2);
+		assertThat(index.search("checkout", null, null, 10).hits())
+				.extracting(SearchIndex.Hit::feedbackId).containsExactlyInAnyOrder(1L, 3L);
+	}
+
+	@Test
+	void compactionKeepsLiveDocumentsSearchable() {
+		SearchIndex index = start();
+		for (long id = 1; id <= 400; id++) {
+			index.onUpsert(null, feedback(id, "Checkout queue number " + id, "Grocery", "NEGATIVE"));
+		}
+		// Enough dead documents to cross the compaction threshold
+		index.onRevalidated(Set.copyOf(LongStream.rangeClosed(301, 400).boxed().toList()));
+		index.onUpsert(null, feedback(401, "Checkout queue number 401", "Grocery", "NEGATIVE"));
+
+		assertThat(index.size()).isEqualTo(101);
+		assertThat(index.search("checkout", null, null, 1000).hits())
+				.extracting(SearchIndex.Hit::feedbackId)
+				.containsExactlyInAnyOrderElementsOf(LongStream.rangeClosed(301, 401).boxed().toList());
+		assertThat(index.search("number 350", null, null, 1).hits())
+				.extracting(SearchIndex.Hit::feedbackId).containsExactly(350L);
+
+		stop(index);
+		SearchIndex loaded = start();
+		assertThat(loaded.search("number 401", null, null, 1).hits())
+				.extracting(SearchIndex.Hit::feedbackId).containsExactly(401L);
+	}
+
+	@Test
+	void truncatedFileIsDiscardedRatherThanHalfLoaded() throws IOException {
+		SearchIndex index = start();
+		for (long id = 1; id <= 20; id++) {
+			index.onUpsert(null, feedback(id, "Checkout was slow on day " + id, "Grocery", "NEGATIVE"));
+		}
+		stop(index);
+		Path file = directory.resolve("search-index.bin");
+		byte[] data = Files.readAllBytes(file);
+		Files.write(file, Arrays.copyOf(data, data.length - 10));
+
+		SearchIndex loaded = start();
+
+		assertThat(loaded.size()).isZero();
+		assertThat(loaded.search("checkout", null, null, 10).hits()).isEmpty();
+		// Nothing survived, so the same entry is indexed again instead of being skipped as unchanged
+		loaded.onUpsert(null, feedback(1, "Checkout was slow on day 1", "Grocery", "NEGATIVE"));
+		assertThat(loaded.search("checkout", null, null, 10).hits())
+				.extracting(SearchIndex.Hit::feedbackId).containsExactly(1L);
+	}
+
+	@Test
+	void corruptPostingLengthIsDiscardedRatherThanFailingStartup() throws IOException {
+		try (DataOutputStream output = new DataOutputStream(Files.newOutputStream(directory.resolve("search-index.bin")))) {
+			output.writeInt(0x46534958);
+			output.writeInt(1);
+			output.writeInt(0);
+			output.writeInt(0);
+			output.writeInt(0);
+			output.writeInt(1);
+			output.writeUTF("checkout");
+			output.writeInt(0);
+			output.writeInt(1);
+			output.writeInt(-5);
+		}
+
+		SearchIndex loaded = start();
+
+		assertThat(loaded.size()).isZero();
+		assertThat(loaded.search("checkout", null, null, 10).hits()).isEmpty();
+	}
+
+	private SearchIndex start() {
+		SearchIndex index = new SearchIndex(config, new FeedbackTokenizer());
+		index.start();
+		started.add(index);
+		return index;
+	}
+
+	private void stop(SearchIndex index) {
+		started.remove(index);
+		index.stop();
+	}
+
+	private static EnhancedFeedback feedback(long id, String comment, String department, String sentiment) {
+		return new EnhancedFeedback(FeedbackEntry.builder()
+				.id(id)
+				.customer("customer-" + id)
+				.department(department)
+				.date(LocalDate.of(2024, 1, 15))
+				.comment(comment)
+				.sentiment(sentiment)
+				.build());
+	}
+}
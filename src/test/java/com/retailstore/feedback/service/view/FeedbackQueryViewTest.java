@@ -0,0 +1,130 @@
+package com.retailstore.feedback.service.view;
+
+import com.retailstore.feedback.exception.GlobalExceptionHandler;
+import com.retailstore.feedback.model.EnhancedFeedback;
+import com.retailstore.feedback.model.FeedbackEntry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+class FeedbackQueryViewTest {
+
+	private static final LocalDate MONDAY = LocalDate.of(2024, 1, 15);
+
+	private final FeedbackQueryView view = new FeedbackQueryView();
+	private final List<EnhancedFeedback> all = new ArrayList<>();
+
+	@BeforeEach
+	void setUp() {
+		// 25 entries over three days, inserted out of order, so most pages end inside a run of equal dates
+		for (long id = 25; id >= 1; id--) {
+			EnhancedFeedback feedback = feedback(id, MONDAY.plusDays(id % 3), id % 2 == 0 ? "Grocery" : "Electronics");
+			view.onUpsert(null, feedback);
+			all.add(feedback);
+		}
+	}
+
+	@Test
+	void cursorsEncodeTheLastPositionForTheirSortKey() {
+		FeedbackQueryView.Page byDate = query(FeedbackSort.DATE_ASC, null, null, 1);
+		FeedbackQueryView.Page byId = query(FeedbackSort.ID_ASC, null, null, 1);
+
+		EnhancedFeedback first = byDate.items().get(0);
+		assertThat(decode(byDate.next())).isEqualTo("d:" + first.getDate().toEpochDay() + ":" + first.getId());
+		assertThat(decode(byId.next())).isEqualTo("i:1");
+
+		// A cursor built by hand resumes strictly after that position
+		String afterId7 = encode("d:" + MONDAY.plusDays(1).toEpochDay() + ":7");
+		assertThat(query(FeedbackSort.DATE_ASC, null, afterId7, 2).items())
+				.extracting(FeedbackEntry::getId).containsExactly(10L, 13L);
+		assertThat(query(FeedbackSort.ID_DESC, null, encode("i:7"), 2).items())
+				.extracting(FeedbackEntry::getId).containsExactly(6L, 5L);
+	}
+
+	@Test
+	void pagingThroughEqualDatesNeitherSkipsNorRepeats() {
+		Comparator<EnhancedFeedback> byDateThenId = Comparator.comparing(EnhancedFeedback::getDate)
+				.thenComparing(EnhancedFeedback::getId);
+		Comparator<EnhancedFeedback> byId = Comparator.comparing(EnhancedFeedback::getId);
+
+		assertThat(pageThrough(FeedbackSort.DATE_ASC, null, 4)).containsExactlyElementsOf(ids(byDateThenId, null));
+		assertThat(pageThrough(FeedbackSort.DATE_DESC, null, 4))
+				.containsExactlyElementsOf(ids(byDateThenId.reversed(), null));
+		assertThat(pageThrough(FeedbackSort.ID_ASC, null, 4)).containsExactlyElementsOf(ids(byId, null));
+		assertThat(pageThrough(FeedbackSort.ID_DESC, null, 4)).containsExactlyElementsOf(ids(byId.reversed(), null));
+		// Filtered pages walk the department's posting list instead of the full date index
+		assertThat(pageThrough(FeedbackSort.DATE_DESC, "grocery", 3))
+				.containsExactlyElementsOf(ids(byDateThenId.reversed(), "Grocery"));
+	}
+
+	@Test
+	void malformedCursorIsRejectedWith400() {
+		for (String cursor : List.of("not base64!", encode("d:monday:7"), encode("d:19737"), encode("x:7"))) {
+			assertThat(catchThrowable(() -> query(FeedbackSort.DATE_DESC, null, cursor, 10)))
+					.as(cursor)
+					.isInstanceOf(IllegalArgumentException.class);
+		}
+
+		Throwable otherSort = catchThrowable(() -> query(FeedbackSort.DATE_DESC, null, encode("i:7"), 10));
+		assertThat(otherSort).isInstanceOf(IllegalArgumentException.class).hasMessageContaining("sort '-date'");
+		assertThat(new GlobalExceptionHandler()
+				.handleIllegalArgument((IllegalArgumentException) otherSort, new MockHttpServletRequest())
+				.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+	}
+
+	private List<Long> pageThrough(FeedbackSort sort, String department, int limit) {
+		List<Long> ids = new ArrayList<>();
+		String cursor = null;
+		do {
+			FeedbackQueryView.Page page = query(sort, department, cursor, limit);
+			assertThat(page.items()).hasSizeLessThanOrEqualTo(limit);
+			page.items().forEach(item -> ids.add(item.getId()));
+			cursor = page.next();
+		} while (cursor != null);
+		return ids;
+	}
+
+	private List<Long> ids(Comparator<EnhancedFeedback> order, String department) {
+		return all.stream()
+				.filter(feedback -> department == null || feedback.getDepartment().equals(department))
+				.sorted(order)
+				.map(FeedbackEntry::getId)
+				.toList();
+	}
+
+	private FeedbackQueryView.Page query(FeedbackSort sort, String department, String cursor, int limit) {
+		return view.query(sort, department, null, null, null, null, cursor, limit);
+	}
+
+	private static String encode(String raw) {
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private static String decode(String cursor) {
+		return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+	}
+
+	private static EnhancedFeedback feedback(long id, LocalDate date, String department) {
+		EnhancedFeedback feedback = new EnhancedFeedback(FeedbackEntry.builder()
+				.id(id)
+				.customer("customer-" + id)
+				.department(department)
+				.date(date)
+				.comment("Comment " + id)
+				.sentiment("NEUTRAL")
+				.build());
+		feedback.setCategory("Service");
+		return feedback;
+	}
+}